@@ -0,0 +1,52 @@
+/*
+ * Archivo: LocalDateDeserializerBenchmark.java
+ * Propósito: Microbenchmark del deserializador de fechas usado en todas las peticiones con fechas
+ * (planes, lista de compras), con los dos formatos que acepta: texto ISO y objeto {year, month, day}.
+ */
+package com.anymeal.backend.config.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalDateDeserializerBenchmark {
+
+    private ObjectMapper mapper;
+
+    @Setup
+    public void setUp() {
+        mapper = new ObjectMapper();
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(LocalDate.class, new LocalDateDeserializer());
+        mapper.registerModule(module);
+    }
+
+    @Benchmark
+    public LocalDate isoString() throws IOException {
+        return mapper.readValue("\"2025-01-06\"", LocalDate.class);
+    }
+
+    @Benchmark
+    public LocalDate objectForm() throws IOException {
+        return mapper.readValue("{\"year\":2025,\"month\":1,\"day\":6}", LocalDate.class);
+    }
+}
\ No newline at end of file
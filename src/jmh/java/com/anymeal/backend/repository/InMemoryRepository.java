@@ -0,0 +1,91 @@
+/*
+ * Archivo: InMemoryRepository.java
+ * Propósito: Repositorio falso en memoria para los benchmarks. Guarda las entidades en un mapa por ID y
+ * resuelve sobre él las lecturas de CrudRepository (findAll, findById, findAllById, existsById, count) y las
+ * escrituras básicas (save, deleteById); las consultas propias de cada repositorio se registran con query().
+ * No usa Mockito porque su intercepción (varios microsegundos por llamada) taparía lo que se quiere medir.
+ */
+package com.anymeal.backend.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+public final class InMemoryRepository<T, ID> implements InvocationHandler {
+
+    private final Function<T, ID> idOf;
+    private final Map<ID, T> entities = new LinkedHashMap<>();
+    private final Map<String, Function<Object[], Object>> queries = new HashMap<>();
+
+    public InMemoryRepository(Function<T, ID> idOf, Collection<T> initial) {
+        this.idOf = idOf;
+        for (T entity : initial) {
+            entities.put(idOf.apply(entity), entity);
+        }
+    }
+
+    // Registra la respuesta de una consulta propia del repositorio (ej: searchRecipes), a partir de sus argumentos.
+    public InMemoryRepository<T, ID> query(String methodName, Function<Object[], Object> answer) {
+        queries.put(methodName, answer);
+        return this;
+    }
+
+    public List<T> all() {
+        return new ArrayList<>(entities.values());
+    }
+
+    public Optional<T> byId(Object id) {
+        return Optional.ofNullable(entities.get(id));
+    }
+
+    // Devuelve el repositorio como la interfaz de Spring Data indicada.
+    public <R> R as(Class<R> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, this));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        Function<Object[], Object> query = queries.get(name);
+        if (query != null) {
+            return query.apply(args);
+        }
+        return switch (name) {
+            case "findAll" -> args == null ? all() : unsupported(method);
+            case "findById" -> byId(args[0]);
+            case "existsById" -> entities.containsKey(args[0]);
+            case "count" -> (long) entities.size();
+            case "findAllById" -> {
+                List<T> found = new ArrayList<>();
+                ((Iterable<?>) args[0]).forEach(id -> byId(id).ifPresent(found::add));
+                yield found;
+            }
+            case "save" -> {
+                @SuppressWarnings("unchecked")
+                T entity = (T) args[0];
+                entities.put(idOf.apply(entity), entity);
+                yield entity;
+            }
+            case "deleteById" -> {
+                entities.remove(args[0]);
+                yield null;
+            }
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "InMemoryRepository" + entities.keySet();
+            default -> unsupported(method);
+        };
+    }
+
+    private static Object unsupported(Method method) {
+        throw new UnsupportedOperationException("El repositorio en memoria no implementa " + method);
+    }
+}
\ No newline at end of file
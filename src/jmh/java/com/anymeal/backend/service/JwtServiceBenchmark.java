@@ -0,0 +1,58 @@
+/*
+ * Archivo: JwtServiceBenchmark.java
+ * Propósito: Microbenchmark de la emisión y verificación de tokens JWT, que se ejecutan en cada
+ * inicio de sesión y en cada petición autenticada respectivamente.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        // Clave de 256 bits en Base64, como la de jwt.secret.
+        byte[] key = new byte[32];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (byte) (i * 7 + 3);
+        }
+        ReflectionTestUtils.setField(jwtService, "SECRET_KEY", Base64.getEncoder().encodeToString(key));
+        user = User.builder().id(1L).username("benchmark").email("benchmark@anymeal.test").password("x").build();
+        token = jwtService.getToken(user);
+    }
+
+    @Benchmark
+    public String issueToken() {
+        return jwtService.getToken(user);
+    }
+
+    @Benchmark
+    public boolean verifyToken() {
+        return jwtService.isTokenValid(token, user);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,171 @@
+/*
+ * Archivo: PlanGeneratorBenchmark.java
+ * Propósito: Benchmark de la generación automática de una semana (PlanGeneratorService.generateWeek) sobre
+ * un catálogo sintético de 100.000 recetas, con repositorios en memoria. El objetivo es que una petición
+ * completa (filtrado, búsqueda con su presupuesto de tiempo y guardado) tarde menos de 200 ms; sin objetivos
+ * nutricionales la búsqueda debe terminar antes del presupuesto.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.dto.GeneratePlanRequest;
+import com.anymeal.backend.dto.PlanResponse;
+import com.anymeal.backend.model.DailyPlan;
+import com.anymeal.backend.model.FavoriteRecipe;
+import com.anymeal.backend.model.PlanEntry;
+import com.anymeal.backend.model.Recipe;
+import com.anymeal.backend.model.ShoppingListState;
+import com.anymeal.backend.model.User;
+import com.anymeal.backend.repository.DailyPlanRepository;
+import com.anymeal.backend.repository.FavoriteRecipeRepository;
+import com.anymeal.backend.repository.InMemoryRepository;
+import com.anymeal.backend.repository.PlanEntryRepository;
+import com.anymeal.backend.repository.RecipeRepository;
+import com.anymeal.backend.repository.ShoppingListStateRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanGeneratorBenchmark {
+
+    private static final int RECIPES = 100_000;
+    private static final LocalDate MONDAY = LocalDate.of(2025, 9, 1);
+
+    private final User user = User.builder().id(1L).build();
+    private ForkJoinPool searchPool;
+    private PlanGeneratorService planGeneratorService;
+    private GeneratePlanRequest withTargets;
+    private GeneratePlanRequest withoutTargets;
+
+    // Gestor de transacciones que no hace nada: los repositorios en memoria no las necesitan.
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        // Catálogo sintético con la misma distribución que PlanGeneratorServiceTest.
+        List<Object[]> rows = new ArrayList<>(RECIPES);
+        for (int i = 0; i < RECIPES; i++) {
+            String diets = i % 3 == 0 ? "[\"vegetarian\"]" : "[]";
+            String nutrition = "{\"calories\": " + (200 + i % 600) + ", \"protein\": " + (5 + i % 40)
+                    + ", \"fat\": " + (3 + i % 30) + ", \"carbs\": " + (10 + i % 80) + "}";
+            rows.add(new Object[]{(long) i + 1, 10 + i % 90, diets, nutrition});
+        }
+
+        // Repositorios en memoria: el guardado solo necesita el upsert de cada día y la inserción de las entradas.
+        RecipeRepository recipeRepository = new InMemoryRepository<>(Recipe::getId, List.<Recipe>of())
+                .query("findCatalogRows", args -> rows)
+                .query("getReferenceById", args -> Recipe.builder().id((Long) args[0]).build())
+                .as(RecipeRepository.class);
+        LocalDate[] upserted = new LocalDate[1];
+        DailyPlanRepository dailyPlanRepository = new InMemoryRepository<>(DailyPlan::getId, List.<DailyPlan>of())
+                .query("upsertForDate", args -> {
+                    upserted[0] = (LocalDate) args[1];
+                    return null;
+                })
+                // El ID de cada plan diario es el número de día de su fecha.
+                .query("lastInsertId", args -> upserted[0].toEpochDay())
+                .query("getReferenceById", args -> DailyPlan.builder()
+                        .id((Long) args[0]).planDate(LocalDate.ofEpochDay((Long) args[0])).build())
+                .query("setNutrition", args -> null)
+                .query("findWeekWithEntries", args -> List.of())
+                .as(DailyPlanRepository.class);
+        PlanEntryRepository planEntryRepository = new InMemoryRepository<>(PlanEntry::getId, List.<PlanEntry>of())
+                .query("findPlannedMeals", args -> List.of())
+                .query("findRefsByDailyPlanIdIn", args -> List.of())
+                .query("deleteByDailyPlanIdIn", args -> null)
+                .query("saveAll", args -> args[0])
+                .as(PlanEntryRepository.class);
+        FavoriteRecipeRepository favoriteRecipeRepository = new InMemoryRepository<>(FavoriteRecipe::getId, List.<FavoriteRecipe>of())
+                .query("findRecipeIdsByUserId", args -> List.of(10L, 20L, 30L))
+                .as(FavoriteRecipeRepository.class);
+        // Sin lista de compras generada, applyPlanChanges no hace nada más.
+        ShoppingListStateRepository shoppingListStateRepository =
+                new InMemoryRepository<>(ShoppingListState::getUserId, List.<ShoppingListState>of())
+                        .as(ShoppingListStateRepository.class);
+
+        RecipeCatalog recipeCatalog = new RecipeCatalog(recipeRepository);
+        ReflectionTestUtils.setField(recipeCatalog, "ttlMinutes", 60L);
+        recipeCatalog.reload();
+        FavoriteIndex favoriteIndex = new FavoriteIndex(favoriteRecipeRepository);
+        ReflectionTestUtils.setField(favoriteIndex, "maxUsers", 100);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+        ShoppingListService shoppingListService = new ShoppingListService(null, null, null, shoppingListStateRepository,
+                null, null, null, null, null, planEntryRepository, transactionTemplate, null);
+        PlanService planService = new PlanService(dailyPlanRepository, planEntryRepository, recipeRepository, recipeCatalog,
+                shoppingListService, favoriteIndex, new FavoriteCounters(null, null, null),
+                new RecipePreviewFragments(new ObjectMapper()));
+        searchPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        planGeneratorService = new PlanGeneratorService(recipeCatalog, recipeRepository, dailyPlanRepository,
+                favoriteRecipeRepository, planEntryRepository, planService, shoppingListService, transactionTemplate, searchPool);
+        ReflectionTestUtils.setField(planGeneratorService, "timeBudgetMs", 150L);
+
+        withTargets = new GeneratePlanRequest();
+        withTargets.setStartDate(MONDAY);
+        withTargets.setDailyCalories(2000.0);
+        withTargets.setDailyProtein(90.0);
+        withTargets.setDiets(List.of("vegetarian"));
+        withTargets.setMaxReadyInMinutes(45);
+        withTargets.setPreferFavorites(true);
+        withTargets.setReplaceExisting(true);
+        withoutTargets = new GeneratePlanRequest();
+        withoutTargets.setStartDate(MONDAY);
+        withoutTargets.setReplaceExisting(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        searchPool.shutdownNow();
+    }
+
+    @Benchmark
+    public PlanResponse generateWeekWithTargets() {
+        return planGeneratorService.generateWeek(user, withTargets);
+    }
+
+    @Benchmark
+    public PlanResponse generateWeekWithoutTargets() {
+        return planGeneratorService.generateWeek(user, withoutTargets);
+    }
+}
\ No newline at end of file
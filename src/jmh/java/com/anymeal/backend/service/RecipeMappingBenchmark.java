@@ -0,0 +1,139 @@
+/*
+ * Archivo: RecipeMappingBenchmark.java
+ * Propósito: Microbenchmark del mapeo de entidades Recipe a los DTOs de previsualización (búsquedas, plan)
+ * y de detalle (incluye escalar las cantidades y partir las instrucciones en pasos con split), medido a través
+ * de la API pública de RecipeService con repositorios en memoria. searchPageJson incluye escribir la búsqueda
+ * con los fragmentos JSON en caché.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.dto.RecipeDetailResponse;
+import com.anymeal.backend.dto.RecipePreviewList;
+import com.anymeal.backend.dto.RecipePreviewResponse;
+import com.anymeal.backend.model.FavoriteRecipe;
+import com.anymeal.backend.model.Ingredient;
+import com.anymeal.backend.model.Recipe;
+import com.anymeal.backend.model.RecipeIngredient;
+import com.anymeal.backend.model.RecipeIngredientId;
+import com.anymeal.backend.repository.FavoriteRecipeRepository;
+import com.anymeal.backend.repository.InMemoryRepository;
+import com.anymeal.backend.repository.RecipeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeMappingBenchmark {
+
+    private static final long USER_ID = 7L;
+
+    private RecipeService recipeService;
+    private RecipePreviewFragments previewFragments;
+
+    @Setup
+    public void setUp() {
+        List<Recipe> searchPage = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            searchPage.add(recipe(id));
+        }
+        // Repositorios en memoria con las consultas que hacen la búsqueda, el detalle y el índice de favoritos.
+        InMemoryRepository<Recipe, Long> recipeStore = new InMemoryRepository<>(Recipe::getId, searchPage);
+        RecipeRepository recipeRepository = recipeStore
+                // Todas las recetas de prueba coinciden con la búsqueda "receta".
+                .query("searchRecipes", args -> recipeStore.all())
+                .query("findWithIngredientsById", args -> recipeStore.byId(args[0]))
+                .as(RecipeRepository.class);
+        FavoriteRecipeRepository favoriteRecipeRepository = new InMemoryRepository<>(FavoriteRecipe::getId, List.<FavoriteRecipe>of())
+                .query("findRecipeIdsByUserId", args -> USER_ID == (Long) args[0] ? List.of(3L, 10L, 27L, 41L) : List.of())
+                .as(FavoriteRecipeRepository.class);
+        FavoriteIndex favoriteIndex = new FavoriteIndex(favoriteRecipeRepository);
+        ReflectionTestUtils.setField(favoriteIndex, "maxUsers", 100);
+        // Los contadores de favoritos sin cargar devuelven null.
+        previewFragments = new RecipePreviewFragments(new ObjectMapper());
+        ReflectionTestUtils.setField(previewFragments, "maxEntries", 100);
+        recipeService = new RecipeService(recipeRepository, favoriteIndex, new FavoriteCounters(null, null, null), previewFragments);
+        ReflectionTestUtils.setField(recipeService, "detailCacheMaxEntries", 100);
+    }
+
+    // Receta realista: 12 ingredientes y 10 pasos de instrucciones.
+    private static Recipe recipe(long id) {
+        Recipe recipe = Recipe.builder()
+                .id(id).title("Receta " + id).imageUrl("https://img.example/" + id + ".jpg")
+                .readyInMinutes(35).servings(4).difficulty("Medio").category("Principal")
+                .summary("Una receta de prueba para el benchmark.")
+                .build();
+        StringBuilder instructions = new StringBuilder();
+        for (int step = 1; step <= 10; step++) {
+            instructions.append("Paso ").append(step).append(": mezclar, remover y cocinar a fuego medio unos minutos.\n");
+        }
+        recipe.setInstructions(instructions.toString());
+        Set<RecipeIngredient> ingredients = new HashSet<>();
+        for (long i = 1; i <= 12; i++) {
+            ingredients.add(RecipeIngredient.builder()
+                    .id(new RecipeIngredientId(id, i))
+                    .recipe(recipe)
+                    .ingredient(Ingredient.builder().id(i).name("ingrediente " + i).build())
+                    .amount(10.0 * i).unit(i % 2 == 0 ? "g" : "cup")
+                    .originalDescription(10 * i + " g de ingrediente " + i)
+                    .build());
+        }
+        recipe.setIngredients(ingredients);
+        return recipe;
+    }
+
+    @Benchmark
+    public List<RecipePreviewResponse> searchPage() {
+        return recipeService.searchRecipes(USER_ID, "receta");
+    }
+
+    // Búsqueda escrita como JSON con los fragmentos en caché, como hace RecipePreviewListConverter.
+    @Benchmark
+    public OutputStream searchPageJson() throws IOException {
+        RecipePreviewList page = (RecipePreviewList) recipeService.searchRecipes(USER_ID, "receta");
+        OutputStream out = OutputStream.nullOutputStream();
+        for (int i = 0; i < page.size(); i++) {
+            previewFragments.write(page.preview(i), out);
+        }
+        return out;
+    }
+
+    // El detalle se descarta de la caché antes de cada llamada para medir el mapeo, no la consulta a la caché.
+    @Benchmark
+    public RecipeDetailResponse detail() {
+        recipeService.evictDetails(1L);
+        return recipeService.getRecipeById(1L, null);
+    }
+
+    @Benchmark
+    public RecipeDetailResponse detailScaled() {
+        recipeService.evictDetails(1L);
+        return recipeService.getRecipeById(1L, 6);
+    }
+
+    @Benchmark
+    public RecipeDetailResponse detailCached() {
+        return recipeService.getRecipeById(1L, 6);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+/*
+ * Archivo: ShoppingListBenchmark.java
+ * Propósito: Microbenchmark de la agregación de la lista de compras en memoria: sumar las filas de
+ * ingredientes (IngredientAggregator.addTotals, con conversión de unidades) y aplicar las reglas de
+ * compra (ShoppingRuleEngine.apply, con repositorios en memoria), con tamaños de una semana y de varios meses de plan.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.model.Ingredient;
+import com.anymeal.backend.model.ShoppingRule;
+import com.anymeal.backend.repository.InMemoryRepository;
+import com.anymeal.backend.repository.IngredientRepository;
+import com.anymeal.backend.repository.RecipeIngredientRepository.IngredientTotal;
+import com.anymeal.backend.repository.ShoppingRuleRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShoppingListBenchmark {
+
+    private static final String[] UNITS = {"g", "kg", "ml", "l", "cup", "tbsp", "tsp", "unidad", "oz", "pizca"};
+
+    // Filas (ingrediente, unidad) que llegan de la consulta: ~150 para una semana, miles para varios meses.
+    @Param({"150", "5000"})
+    public int rows;
+
+    private List<Row> totals;
+    private ShoppingRuleEngine ruleEngine;
+
+    private record Row(Long ingredientId, String name, String unit, Double amount) implements IngredientTotal {
+        public Long getIngredientId() { return ingredientId; }
+        public String getName() { return name; }
+        public String getUnit() { return unit; }
+        public Double getAmount() { return amount; }
+    }
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int ingredients = Math.max(50, rows / 4);
+        totals = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            long id = 1 + random.nextInt(ingredients);
+            String name = id % 10 == 0 ? "egg " + id : "ingredient " + id;
+            totals.add(new Row(id, name, UNITS[random.nextInt(UNITS.length)], random.nextInt(20) == 0 ? null : 1 + random.nextDouble() * 500));
+        }
+
+        // Reglas de compra como las de shopping-rules.json, compiladas sobre los ingredientes del benchmark.
+        List<ShoppingRule> rules = List.of(
+                ShoppingRule.builder().id(1L).nameKeyword("egg").packageSize(12.0)
+                        .roundingMode(ShoppingRule.RoundingMode.CEIL_ALLOW_HALF)
+                        .halfTemplate("Comprar 1/2 docena").oneTemplate("Comprar 1 docena").manyTemplate("Comprar {n} docenas").build(),
+                ShoppingRule.builder().id(2L).nameKeyword("milk").packageSize(1000.0)
+                        .roundingMode(ShoppingRule.RoundingMode.ONE).oneTemplate("Comprar 1 cartón de leche").build());
+        List<Ingredient> ingredientList = new ArrayList<>();
+        for (long id = 1; id <= ingredients; id++) {
+            ingredientList.add(Ingredient.builder().id(id).name(id % 10 == 0 ? "egg " + id : "ingredient " + id).build());
+        }
+        // Repositorios en memoria: la compilación de reglas lee todas las reglas y los pares (ID, nombre).
+        ShoppingRuleRepository ruleRepository = new InMemoryRepository<>(ShoppingRule::getId, rules)
+                .as(ShoppingRuleRepository.class);
+        InMemoryRepository<Ingredient, Long> ingredientStore = new InMemoryRepository<>(Ingredient::getId, ingredientList);
+        IngredientRepository ingredientRepository = ingredientStore
+                .query("findIdAndNameRows", args -> ingredientStore.all().stream()
+                        .map(ingredient -> new Object[]{ingredient.getId(), ingredient.getName()})
+                        .toList())
+                .as(IngredientRepository.class);
+        ruleEngine = new ShoppingRuleEngine(ruleRepository, ingredientRepository);
+        ReflectionTestUtils.setField(ruleEngine, "ttlMinutes", 60L);
+    }
+
+    @Benchmark
+    public IngredientAggregator aggregate() {
+        IngredientAggregator aggregator = new IngredientAggregator();
+        aggregator.addTotals(totals);
+        return aggregator;
+    }
+
+    @Benchmark
+    public List<IngredientAggregator.AggregatedIngredient> aggregateAndApplyRules() {
+        IngredientAggregator aggregator = new IngredientAggregator();
+        aggregator.addTotals(totals);
+        List<IngredientAggregator.AggregatedIngredient> result = aggregator.getResult();
+        ruleEngine.apply(result);
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+/*
+ * Archivo: AdmissionControlFilter.java
+ * Propósito: Control de admisión para el modo de hilos virtuales (spring.threads.virtual.enabled=true).
+ * Sin el tope de hilos de Tomcat, miles de peticiones podrían lanzarse a la vez contra un pool de
+ * conexiones pequeño. Este filtro deja pasar como máximo N peticiones a la vez (por defecto, el doble
+ * de conexiones del pool); las demás esperan en un semáforo, lo que en un hilo virtual es casi gratis,
+ * y si la espera supera el límite se responde 503 en lugar de acumular trabajo que MySQL no puede atender.
+ */
+package com.anymeal.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Solo existe en el modo de hilos virtuales; con hilos de plataforma el pool de Tomcat ya limita la concurrencia.
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+// Se ejecuta antes que la cadena de seguridad, porque el filtro JWT ya consulta la base de datos.
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long maxWaitMillis;
+
+    public AdmissionControlFilter(
+            @Value("${anymeal.admission.max-concurrent-requests:0}") int maxConcurrentRequests,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${anymeal.admission.max-wait-ms:5000}") long maxWaitMillis) {
+        int limit = maxConcurrentRequests > 0 ? maxConcurrentRequests : poolSize * 2;
+        // Semáforo justo: las peticiones entran en el orden en que llegaron.
+        this.permits = new Semaphore(limit, true);
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Las respuestas asíncronas (exportaciones) liberan el permiso al terminar la primera fase, no al final del envío.
+            permits.release();
+        }
+    }
+}
\ No newline at end of file
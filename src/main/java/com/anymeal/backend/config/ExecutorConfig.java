@@ -0,0 +1,81 @@
+/*
+ * Archivo: ExecutorConfig.java
+ * Propósito: Define los ejecutores (pools de hilos) que usan los servicios para repartir trabajo en paralelo.
+ * Hay dos: el que consulta y agrega por tramos de fechas la lista de compras de rangos largos (con una
+ * variante sobre hilos virtuales cuando spring.threads.virtual.enabled=true) y el ForkJoinPool de la
+ * búsqueda del generador automático de planes.
+ * También activa las tareas programadas (@Scheduled), como el volcado de los contadores de favoritos.
+ */
+package com.anymeal.backend.config;
+
+import com.anymeal.backend.config.sql.QueryCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableScheduling
+public class ExecutorConfig {
+
+    /*
+     * Ejecutor para la generación de listas de compras por tramos. Cada tarea hace una consulta a la base
+     * de datos (bloqueante), por eso se usa un pool propio y acotado en lugar del ForkJoinPool común.
+     * Por defecto usa tantos hilos como núcleos, con un máximo de 8. Las conexiones que ocupan a la vez
+     * los tramos de todas las generaciones las limita aparte ShoppingListService (max-concurrent-queries).
+     */
+    @Bean(name = "shoppingListExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor shoppingListExecutor(
+            @Value("${anymeal.shopping-list.parallelism:0}") int parallelism,
+            @Value("${anymeal.shopping-list.queue-capacity:256}") int queueCapacity) {
+        int threads = threadsFor(parallelism);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("shopping-list-");
+        // Si la cola se llena, la tarea la ejecuta el hilo que la envió en lugar de fallar.
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        // Las consultas de cada tramo se suman al contador SQL de la petición que generó la lista.
+        executor.setTaskDecorator(QueryCounter::propagate);
+        executor.initialize();
+        return executor;
+    }
+
+    /*
+     * Mismo ejecutor en el modo de hilos virtuales (spring.threads.virtual.enabled=true): cada tramo corre
+     * en un hilo virtual nuevo y el límite de concurrencia hace de tope (quien envía espera si se alcanza),
+     * para que una lista larga no ocupe de golpe todas las conexiones del pool.
+     */
+    @Bean(name = "shoppingListExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualShoppingListExecutor(
+            @Value("${anymeal.shopping-list.parallelism:0}") int parallelism) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("shopping-list-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(threadsFor(parallelism));
+        executor.setTaskDecorator(QueryCounter::propagate);
+        return executor;
+    }
+
+    /*
+     * Pool de la búsqueda local del generador de planes (PlanGeneratorService). Es trabajo de CPU puro, así
+     * que por defecto usa un hilo por núcleo; no depende del modo de hilos virtuales. Se cierra con el contexto.
+     */
+    @Bean(name = "planSearchPool", destroyMethod = "shutdownNow")
+    public ForkJoinPool planSearchPool(@Value("${anymeal.plan-generator.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    private static int threadsFor(int parallelism) {
+        return parallelism > 0 ? parallelism : Math.min(8, Runtime.getRuntime().availableProcessors());
+    }
+}
\ No newline at end of file
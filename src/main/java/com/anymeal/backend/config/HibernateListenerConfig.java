@@ -0,0 +1,26 @@
+/*
+ * Archivo: HibernateListenerConfig.java
+ * Propósito: Registra en Hibernate los listeners de eventos de entidades que son beans de Spring
+ * (ej: RecipeCacheInvalidator, que limpia las cachés de una receta al modificarla). Se registran aquí,
+ * una vez creado el EntityManagerFactory, en lugar de con @EntityListeners en la entidad: así el modelo
+ * no depende de la capa de servicios.
+ */
+package com.anymeal.backend.config;
+
+import com.anymeal.backend.service.RecipeCacheInvalidator;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateListenerConfig {
+
+    public HibernateListenerConfig(EntityManagerFactory entityManagerFactory, RecipeCacheInvalidator recipeCacheInvalidator) {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_UPDATE, recipeCacheInvalidator);
+        registry.appendListeners(EventType.POST_DELETE, recipeCacheInvalidator);
+    }
+}
\ No newline at end of file
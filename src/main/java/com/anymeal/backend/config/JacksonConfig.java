@@ -2,15 +2,25 @@
  * Archivo: JacksonConfig.java
  * Propósito: Este archivo de configuración de Spring personaliza el comportamiento de la librería Jackson,
  * que es la encargada de convertir objetos Java a JSON (serialización) y viceversa (deserialización).
- * Principalmente, registra el deserializador personalizado para `LocalDate`.
+ * Principalmente, registra el deserializador personalizado para `LocalDate` y el módulo Blackbird,
+ * que genera en tiempo de ejecución el acceso a getters, setters y constructores de los DTOs (en lugar
+ * de usar reflexión), reduciendo la CPU de serializar y deserializar JSON en todos los endpoints.
+ * También registra el conversor y los serializadores que escriben las previsualizaciones de recetas con
+ * fragmentos JSON en caché.
  */
 package com.anymeal.backend.config;
 
 import com.anymeal.backend.config.json.LocalDateDeserializer; // Importa el deserializador personalizado.
+import com.anymeal.backend.config.json.RecipePreviewListConverter;
+import com.anymeal.backend.config.json.RecipePreviewListSerializer;
+import com.anymeal.backend.config.json.RecipePreviewSerializer;
+import com.anymeal.backend.service.RecipePreviewFragments;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.module.SimpleModule; // Importa el módulo simple para registrar componentes personalizados.
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule; // Importa el módulo para soportar los tipos de fecha y hora de Java 8.
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule; // Importa el módulo de acceso generado (sin reflexión).
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -22,7 +32,7 @@ public class JacksonConfig {
 
     // Define un bean de tipo ObjectMapper, que será el objeto principal de Jackson usado en la aplicación.
     @Bean
-    public ObjectMapper objectMapper() {
+    public ObjectMapper objectMapper(ObjectProvider<RecipePreviewFragments> recipePreviewFragments) {
         // Crea una nueva instancia de ObjectMapper.
         ObjectMapper objectMapper = new ObjectMapper();
 
@@ -34,6 +44,10 @@ public class JacksonConfig {
         // En su lugar, siempre usará el formato de string ISO ("2023-01-01T00:00:00").
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
+        // Registra Blackbird: sustituye las llamadas por reflexión a getters, setters y constructores
+        // por accesos generados con LambdaMetafactory, que el JIT puede optimizar como llamadas directas.
+        objectMapper.registerModule(new BlackbirdModule());
+
         // --- REGISTRO DEL DESERIALIZADOR PERSONALIZADO ---
         // Crea un módulo personalizado para añadir funcionalidades específicas.
         SimpleModule customDateModule = new SimpleModule();
@@ -43,7 +57,20 @@ public class JacksonConfig {
         // Registra el módulo personalizado en el ObjectMapper.
         objectMapper.registerModule(customDateModule);
 
+        // Las previsualizaciones de recetas dentro de otros DTOs (plan, página de favoritos) se escriben
+        // con el fragmento JSON en caché de cada receta.
+        SimpleModule recipePreviewModule = new SimpleModule();
+        recipePreviewModule.addSerializer(new RecipePreviewSerializer(recipePreviewFragments));
+        recipePreviewModule.addSerializer(new RecipePreviewListSerializer(recipePreviewFragments));
+        objectMapper.registerModule(recipePreviewModule);
+
         // Devuelve el ObjectMapper completamente configurado para que Spring lo utilice.
         return objectMapper;
     }
+
+    // Spring Boot coloca los conversores declarados como beans por delante de los predeterminados (incluido el de Jackson).
+    @Bean
+    public RecipePreviewListConverter recipePreviewListConverter(RecipePreviewFragments recipePreviewFragments) {
+        return new RecipePreviewListConverter(recipePreviewFragments);
+    }
 }
\ No newline at end of file
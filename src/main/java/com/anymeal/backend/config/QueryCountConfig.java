@@ -0,0 +1,36 @@
+/*
+ * Archivo: QueryCountConfig.java
+ * Propósito: Activa el conteo de sentencias SQL por petición (anymeal.sql-counter.enabled, desactivado por
+ * defecto y activo en los perfiles 'test' y 'dev'). Envuelve el DataSource del pool con QueryCountingDataSource
+ * y registra el filtro que abre un contador por petición y avisa en el log de las peticiones con demasiadas
+ * sentencias (posibles N+1). No es gratis: cada llamada JDBC (incluido cada ResultSet.next() y cada getter)
+ * pasa por un proxy dinámico con invocación reflexiva, por eso no se activa en producción.
+ */
+package com.anymeal.backend.config;
+
+import com.anymeal.backend.config.sql.QueryCountingDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "anymeal.sql-counter.enabled", havingValue = "true")
+public class QueryCountConfig {
+
+    // Estático para que se registre antes de crear el DataSource (es un BeanPostProcessor).
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
\ No newline at end of file
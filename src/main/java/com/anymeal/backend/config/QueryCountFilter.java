@@ -0,0 +1,84 @@
+/*
+ * Archivo: QueryCountFilter.java
+ * Propósito: Abre un QueryCounter por petición HTTP. Al terminar, si la petición ejecutó más sentencias SQL
+ * que el umbral (anymeal.sql-counter.warn-threshold), lo registra en el log junto con las sentencias que
+ * más se repitieron, que es como se ve un problema N+1 (la misma consulta una vez por cada fila).
+ * Opcionalmente (solo fuera de producción) devuelve los totales en las cabeceras X-SQL-Count y X-SQL-Rows.
+ */
+package com.anymeal.backend.config;
+
+import com.anymeal.backend.config.sql.QueryCounter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "anymeal.sql-counter.enabled", havingValue = "true")
+// Justo después del control de admisión y antes de la seguridad, para contar también la carga del usuario.
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Count";
+    public static final String ROWS_HEADER = "X-SQL-Rows";
+
+    // Número de sentencias a partir del cual se registra la petición en el log.
+    @Value("${anymeal.sql-counter.warn-threshold:20}")
+    private long warnThreshold;
+
+    // Si es true, se añaden las cabeceras con los totales (solo para desarrollo y pruebas).
+    @Value("${anymeal.sql-counter.response-header:false}")
+    private boolean responseHeader;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCounter counter = QueryCounter.start();
+        if (counter == null) {
+            // Ya hay un contador activo (ej: un test con QueryCountAssert): las sentencias se suman a ese.
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCounter.stop(counter);
+            // Las respuestas con cuerpo ya llevan las cabeceras (QueryCountHeaderAdvice); aquí se cubren las vacías.
+            if (responseHeader && !response.isCommitted()) {
+                writeHeaders(response, counter);
+            }
+            if (counter.getStatements() >= warnThreshold) {
+                logger.warn("{} {}: {} sentencias SQL y {} filas en {} ms. Sentencias repetidas: {}",
+                        request.getMethod(), request.getRequestURI(), counter.getStatements(), counter.getRows(),
+                        (System.nanoTime() - start) / 1_000_000, describe(counter));
+            }
+        }
+    }
+
+    static void writeHeaders(HttpServletResponse response, QueryCounter counter) {
+        response.setHeader(STATEMENTS_HEADER, Long.toString(counter.getStatements()));
+        response.setHeader(ROWS_HEADER, Long.toString(counter.getRows()));
+    }
+
+    private static String describe(QueryCounter counter) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Long> shape : counter.repeatedShapes(3)) {
+            text.append("\n  ").append(shape.getValue()).append("x ").append(shape.getKey());
+        }
+        return text.isEmpty() ? "ninguna" : text.toString();
+    }
+}
\ No newline at end of file
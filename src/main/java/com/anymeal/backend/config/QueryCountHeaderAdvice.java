@@ -0,0 +1,39 @@
+/*
+ * Archivo: QueryCountHeaderAdvice.java
+ * Propósito: Añade las cabeceras X-SQL-Count y X-SQL-Rows a las respuestas con cuerpo justo antes de
+ * escribirlo (después ya no se pueden añadir cabeceras). Solo se activa con
+ * anymeal.sql-counter.response-header=true, pensado para desarrollo y pruebas, nunca en producción.
+ */
+package com.anymeal.backend.config;
+
+import com.anymeal.backend.config.sql.QueryCounter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+@RestControllerAdvice
+@ConditionalOnProperty(name = {"anymeal.sql-counter.enabled", "anymeal.sql-counter.response-header"}, havingValue = "true")
+public class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryCounter counter = QueryCounter.current();
+        if (counter != null) {
+            response.getHeaders().set(QueryCountFilter.STATEMENTS_HEADER, Long.toString(counter.getStatements()));
+            response.getHeaders().set(QueryCountFilter.ROWS_HEADER, Long.toString(counter.getRows()));
+        }
+        return body;
+    }
+}
\ No newline at end of file
@@ -7,6 +7,7 @@
 package com.anymeal.backend.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -50,6 +51,10 @@ public class SecurityConfig {
                                 // Permite el acceso público a la ruta para obtener la lista de todas las recetas.
                                 .requestMatchers("/api/recipes").permitAll()
 
+                                // Endpoints de Actuator (métricas para Prometheus, salud). Solo se sirven en el puerto
+                                // de gestión (management.server.port), que no debe exponerse fuera de la red interna.
+                                .requestMatchers(EndpointRequest.toAnyEndpoint()).permitAll()
+
                                 // Exige que cualquier otra petición (que no coincida con las reglas anteriores) sea autenticada.
                                 .anyRequest().authenticated()
                 )
@@ -4,83 +4,93 @@
  * Permite que la librería Jackson convierta (deserialice) una representación JSON,
  * ya sea como un string en formato ISO (ej: "2024-12-31") o como un objeto
  * (ej: {"year": 2024, "month": 12, "day": 31}), en un objeto `LocalDate` de Java.
- * También incluye registros (logs) para facilitar la depuración.
+ * Se lee directamente el flujo de tokens del parser, sin construir un árbol JsonNode y sin registrar
+ * nada en el log: se ejecuta para cada fecha de cada petición (planes, lista de compras).
+ * Los errores se informan con el mensaje de la excepción, que incluye el valor recibido.
  */
 package com.anymeal.backend.config.json; // Define el paquete al que pertenece la clase.
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
-import org.slf4j.Logger; // Importa la interfaz del logger para registrar eventos.
-import org.slf4j.LoggerFactory; // Importa la fábrica para obtener una instancia del logger.
 
 import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException; // Importa la excepción para errores al parsear fechas.
 
 // La clase hereda de JsonDeserializer e indica que manejará la deserialización para objetos LocalDate.
 public class LocalDateDeserializer extends JsonDeserializer<LocalDate> {
 
-    // Se crea una instancia estática y final del logger para esta clase.
-    private static final Logger logger = LoggerFactory.getLogger(LocalDateDeserializer.class);
+    // Valor usado para los campos que no aparecen en el objeto (ninguna fecha válida lo tiene).
+    private static final int MISSING = Integer.MIN_VALUE;
 
     // Este método es el núcleo del deserializador y es llamado por Jackson.
     @Override
     public LocalDate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-        // Lee el contenido JSON y lo convierte en un árbol de nodos (JsonNode) para facilitar su manipulación.
-        JsonNode node = p.getCodec().readTree(p);
-        // Registra el JSON recibido para propósitos de depuración.
-        logger.info("Intentando deserializar LocalDate. JSON recibido: {}", node.toString());
+        JsonToken token = p.currentToken();
 
-        // Comprueba si el nodo JSON es un valor de texto (un string).
-        if (node.isTextual()) {
-            String dateString = node.asText(); // Obtiene el valor como un string.
-            // Registra que se intentará parsear el string.
-            logger.info("JSON es textual. Intentando parsear como String: {}", dateString);
+        // Formato de texto: se convierte el string usando el formato estándar (ISO 8601).
+        if (token == JsonToken.VALUE_STRING) {
+            String dateString = p.getText();
             try {
-                // Intenta convertir el string a un LocalDate usando el formato estándar (ISO 8601).
                 return LocalDate.parse(dateString);
             } catch (DateTimeParseException e) {
-                // Si ocurre un error de formato, se registra el problema.
-                logger.error("Error al parsear la cadena '{}' como LocalDate: {}", dateString, e.getMessage());
-                // La ejecución continuará para ver si se puede interpretar como un objeto.
+                throw new IOException("Unsupported date format. Expected String (YYYY-MM-DD) or Object {year, month, day}. Received: \""
+                        + dateString + "\"", e);
             }
         }
 
-        // Si no es un texto o si falló el parseo anterior, comprueba si es un objeto JSON.
-        if (node.isObject()) {
-            // Registra que se procesará como un objeto.
-            logger.info("JSON es un objeto. Intentando leer campos year, month, day.");
-            // Valida que los campos necesarios ('year', 'month', 'day') existan en el objeto.
-            if (!node.has("year") || !node.has("month") || !node.has("day")) {
-                // Si falta alguno de los campos, se registra un error.
-                logger.error("Faltan campos 'year', 'month' o 'day' en el objeto JSON de LocalDate: {}", node.toString());
-                // Lanza una excepción para detener el proceso y señalar el error.
-                throw new IOException("Missing year, month, or day in LocalDate JSON object: " + node.toString());
-            }
+        // Formato de objeto: se recorren sus campos. Jackson puede entregar el objeto ya abierto (en FIELD_NAME).
+        if (token == JsonToken.START_OBJECT || token == JsonToken.FIELD_NAME) {
+            return readObject(p, token);
+        }
 
-            // Extrae los valores numéricos de cada campo del objeto JSON.
-            int year = node.get("year").asInt();
-            int month = node.get("month").asInt();
-            int day = node.get("day").asInt();
+        // Si el JSON no es ni un string ni un objeto, se lanza una excepción indicando que el formato no es soportado.
+        throw new IOException("Unsupported date format. Expected String (YYYY-MM-DD) or Object {year, month, day}. Received: " + token);
+    }
 
-            // Registra los valores extraídos para depuración.
-            logger.info("Campos extraídos: year={}, month={}, day={}", year, month, day);
-            try {
-                // Intenta crear un objeto LocalDate a partir de los componentes extraídos.
-                return LocalDate.of(year, month, day);
-            } catch (Exception e) {
-                // Si los componentes no forman una fecha válida (ej: mes 13), se registra un error.
-                logger.error("Error al crear LocalDate con year={}, month={}, day={}: {}", year, month, day, e.getMessage());
-                // Lanza una excepción con el mensaje del error original.
-                throw new IOException("Invalid date components: " + e.getMessage(), e);
+    // Lee los campos 'year', 'month' y 'day' hasta el final del objeto; los demás campos se ignoran.
+    private static LocalDate readObject(JsonParser p, JsonToken token) throws IOException {
+        int year = MISSING, month = MISSING, day = MISSING;
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        }
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String field = p.currentName();
+            p.nextToken(); // Avanza al valor del campo.
+            switch (field) {
+                case "year" -> year = readComponent(p, field);
+                case "month" -> month = readComponent(p, field);
+                case "day" -> day = readComponent(p, field);
+                default -> p.skipChildren(); // Salta el valor completo si es un objeto o un arreglo.
             }
         }
 
-        // Si el JSON no es ni un string ni un objeto compatible, se registra el error.
-        logger.error("Formato de fecha no reconocido. JSON recibido: {}", node.toString());
-        // Lanza una excepción final indicando que el formato no es soportado.
-        throw new IOException("Unsupported date format. Expected String (YYYY-MM-DD) or Object {year, month, day}. Received: " + node.toString());
+        // Valida que los campos necesarios ('year', 'month', 'day') existan en el objeto.
+        if (year == MISSING || month == MISSING || day == MISSING) {
+            throw new IOException("Missing year, month, or day in LocalDate JSON object");
+        }
+        try {
+            // Intenta crear un objeto LocalDate a partir de los componentes extraídos.
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            // Si los componentes no forman una fecha válida (ej: mes 13), se lanza una excepción con el mensaje original.
+            throw new IOException("Invalid date components: " + e.getMessage(), e);
+        }
+    }
+
+    /*
+     * Lee el valor de 'year', 'month' o 'day'. getValueAsInt acepta números y también textos numéricos
+     * (ej: "12"). Un objeto o un arreglo se rechaza: leerlo como número dejaría el parser dentro de él
+     * y los campos anidados se tomarían como campos de la fecha.
+     */
+    private static int readComponent(JsonParser p, String field) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            throw new IOException("Invalid value for '" + field + "' in LocalDate JSON object. Expected a number. Received: " + token);
+        }
+        return p.getValueAsInt(MISSING);
     }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+/*
+ * Archivo: RecipePreviewListConverter.java
+ * Propósito: Conversor de mensajes HTTP para RecipePreviewList. Escribe la lista como un arreglo JSON
+ * concatenando directamente en la respuesta los fragmentos ya serializados de cada receta
+ * (RecipePreviewFragments), sin pasar por el ObjectMapper. El JSON resultante es el mismo que
+ * generaría Jackson. Se registra en JacksonConfig, por delante del conversor de Jackson.
+ */
+package com.anymeal.backend.config.json;
+
+import com.anymeal.backend.dto.RecipePreviewList;
+import com.anymeal.backend.service.RecipePreviewFragments;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class RecipePreviewListConverter extends AbstractHttpMessageConverter<RecipePreviewList> {
+
+    private final RecipePreviewFragments fragments;
+
+    public RecipePreviewListConverter(RecipePreviewFragments fragments) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.fragments = fragments;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return RecipePreviewList.class.isAssignableFrom(clazz);
+    }
+
+    // Solo se usa para escribir respuestas; las peticiones nunca llegan como RecipePreviewList.
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected RecipePreviewList readInternal(Class<? extends RecipePreviewList> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("RecipePreviewList no se puede leer", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(RecipePreviewList previews, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream out = outputMessage.getBody();
+        out.write('[');
+        for (int i = 0; i < previews.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            fragments.write(previews.preview(i), out);
+        }
+        out.write(']');
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+/*
+ * Archivo: RecipePreviewListSerializer.java
+ * Propósito: Serializador de Jackson para RecipePreviewList cuando la lista va dentro de otro DTO
+ * (ej: la página de favoritos). Escribe el arreglo con los fragmentos JSON en caché de cada receta,
+ * sin construir los DTOs completos. Las listas devueltas directamente por un endpoint las escribe
+ * RecipePreviewListConverter, sin pasar por Jackson. Se registra en JacksonConfig.
+ */
+package com.anymeal.backend.config.json;
+
+import com.anymeal.backend.dto.RecipePreviewList;
+import com.anymeal.backend.service.RecipePreviewFragments;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.IOException;
+
+public class RecipePreviewListSerializer extends StdSerializer<RecipePreviewList> {
+
+    // La caché de fragmentos depende del ObjectMapper que registra este serializador: se obtiene al usarla.
+    private final ObjectProvider<RecipePreviewFragments> fragments;
+
+    public RecipePreviewListSerializer(ObjectProvider<RecipePreviewFragments> fragments) {
+        super(RecipePreviewList.class);
+        this.fragments = fragments;
+    }
+
+    @Override
+    public void serialize(RecipePreviewList previews, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        RecipePreviewFragments cache = fragments.getObject();
+        generator.writeStartArray(previews, previews.size());
+        for (int i = 0; i < previews.size(); i++) {
+            cache.write(previews.preview(i), generator);
+        }
+        generator.writeEndArray();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+/*
+ * Archivo: RecipePreviewSerializer.java
+ * Propósito: Serializador de Jackson para RecipePreview, la previsualización que va dentro de otros DTOs
+ * (ej: cada comida del plan semanal). Escribe el fragmento JSON en caché de la receta en lugar de
+ * construir y serializar el DTO completo (ver RecipePreviewFragments). Se registra en JacksonConfig.
+ */
+package com.anymeal.backend.config.json;
+
+import com.anymeal.backend.dto.RecipePreview;
+import com.anymeal.backend.service.RecipePreviewFragments;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.IOException;
+
+public class RecipePreviewSerializer extends StdSerializer<RecipePreview> {
+
+    // La caché de fragmentos depende del ObjectMapper que registra este serializador: se obtiene al usarla.
+    private final ObjectProvider<RecipePreviewFragments> fragments;
+
+    public RecipePreviewSerializer(ObjectProvider<RecipePreviewFragments> fragments) {
+        super(RecipePreview.class);
+        this.fragments = fragments;
+    }
+
+    @Override
+    public void serialize(RecipePreview preview, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        fragments.getObject().write(preview, generator);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+/*
+ * Archivo: QueryCounter.java
+ * Propósito: Contador de sentencias SQL y filas leídas de una petición HTTP (o de cualquier bloque de código).
+ * QueryCountingDataSource registra aquí cada sentencia que se ejecuta en el hilo actual; QueryCountFilter
+ * abre un contador por petición y, al terminar, avisa si hubo demasiadas sentencias y cuáles se repitieron
+ * (el rastro típico de un problema N+1). Los tests lo usan para comprobar el número exacto de consultas.
+ */
+package com.anymeal.backend.config.sql;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+public final class QueryCounter {
+
+    private static final ThreadLocal<QueryCounter> CURRENT = new ThreadLocal<>();
+
+    // Listas "IN (?, ?, ?)" de cualquier longitud se cuentan como la misma forma de sentencia.
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Los contadores pueden recibir sentencias de varios hilos (ej: tareas enviadas a un ejecutor con propagate).
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    /*
+     * Veces que se ejecutó cada SQL tal cual. Normalizarlo (shapeOf, dos expresiones regulares) solo hace
+     * falta para el aviso de QueryCountFilter, así que se hace en repeatedShapes y no en cada sentencia.
+     * Hibernate reutiliza el mismo String para cada sentencia, con su hash ya calculado.
+     */
+    private final Map<String, LongAdder> sqlCounts = new ConcurrentHashMap<>();
+
+    private QueryCounter() {}
+
+    // Devuelve el contador activo en este hilo, o null si no hay ninguno.
+    public static QueryCounter current() {
+        return CURRENT.get();
+    }
+
+    /*
+     * Abre un contador en este hilo, salvo que ya haya uno activo (ej: un test que envuelve la petición):
+     * en ese caso se devuelve null y las sentencias siguen sumándose al existente.
+     */
+    public static QueryCounter start() {
+        if (CURRENT.get() != null) {
+            return null;
+        }
+        QueryCounter counter = new QueryCounter();
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    // Cierra el contador abierto con start() (no hace nada si start() devolvió null).
+    public static void stop(QueryCounter counter) {
+        if (counter != null && CURRENT.get() == counter) {
+            CURRENT.remove();
+        }
+    }
+
+    /*
+     * Envuelve una tarea para que, al ejecutarse en otro hilo (un ejecutor), sume al contador del hilo
+     * que la creó. Se usa como TaskDecorator de los ejecutores de la aplicación.
+     */
+    public static Runnable propagate(Runnable task) {
+        QueryCounter counter = CURRENT.get();
+        if (counter == null) {
+            return task;
+        }
+        return () -> {
+            QueryCounter previous = CURRENT.get();
+            CURRENT.set(counter);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    // Registra una sentencia ejecutada en el hilo actual (si hay contador activo).
+    static void recordStatement(String sql) {
+        QueryCounter counter = CURRENT.get();
+        if (counter != null) {
+            counter.statements.increment();
+            counter.sqlCounts.computeIfAbsent(sql != null ? sql : "", s -> new LongAdder()).increment();
+        }
+    }
+
+    // Registra una fila leída de un ResultSet en el hilo actual.
+    static void recordRow() {
+        QueryCounter counter = CURRENT.get();
+        if (counter != null) {
+            counter.rows.increment();
+        }
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    // Formas de sentencia ejecutadas más de una vez, de la más repetida a la menos, como máximo 'limit'.
+    public List<Map.Entry<String, Long>> repeatedShapes(int limit) {
+        Map<String, Long> shapes = new HashMap<>();
+        sqlCounts.forEach((sql, count) -> shapes.merge(shapeOf(sql), count.sum(), Long::sum));
+        List<Map.Entry<String, Long>> repeated = new ArrayList<>();
+        shapes.forEach((shape, n) -> {
+            if (n > 1) {
+                repeated.add(Map.entry(shape, n));
+            }
+        });
+        repeated.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        return repeated.size() > limit ? repeated.subList(0, limit) : repeated;
+    }
+
+    // Forma normalizada de una sentencia: espacios colapsados y listas IN de cualquier tamaño unificadas.
+    static String shapeOf(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return IN_LIST.matcher(shape).replaceAll("in (...)");
+    }
+}
\ No newline at end of file
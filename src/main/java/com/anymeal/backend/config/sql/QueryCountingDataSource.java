@@ -0,0 +1,98 @@
+/*
+ * Archivo: QueryCountingDataSource.java
+ * Propósito: DataSource que envuelve al real (el pool Hikari) y cuenta, en el QueryCounter del hilo actual,
+ * cada sentencia SQL ejecutada y cada fila leída. Funciona para todo el acceso JDBC de la aplicación
+ * (Hibernate, consultas nativas y JdbcTemplate), no solo para las sentencias generadas por Hibernate.
+ * Las conexiones, sentencias y ResultSet se envuelven con proxies dinámicos que delegan todo en el original;
+ * cada llamada cuesta una invocación reflexiva, así que solo se usa si anymeal.sql-counter.enabled=true.
+ */
+package com.anymeal.backend.config.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    public QueryCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private static Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) -> switch (method.getName()) {
+            case "prepareStatement" -> wrapStatement(PreparedStatement.class, (Statement) result, (String) args[0]);
+            case "prepareCall" -> wrapStatement(CallableStatement.class, (Statement) result, (String) args[0]);
+            case "createStatement" -> wrapStatement(Statement.class, (Statement) result, null);
+            default -> result;
+        });
+    }
+
+    /*
+     * Cuenta una sentencia por cada execute*() (un lote de executeBatch() cuenta como una sola).
+     * En las sentencias preparadas el SQL se conoce al prepararlas; en las simples llega como argumento.
+     */
+    private static <S extends Statement> S wrapStatement(Class<S> type, Statement statement, String preparedSql) {
+        return proxy(type, statement, (method, args, result) -> {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                String sql = preparedSql != null ? preparedSql
+                        : args != null && args.length > 0 && args[0] instanceof String s ? s : "batch";
+                QueryCounter.recordStatement(sql);
+            }
+            if (result instanceof ResultSet resultSet && (name.equals("executeQuery") || name.equals("getResultSet"))) {
+                return wrapResultSet(resultSet);
+            }
+            return result;
+        });
+    }
+
+    private static ResultSet wrapResultSet(ResultSet resultSet) {
+        return proxy(ResultSet.class, resultSet, (method, args, result) -> {
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                QueryCounter.recordRow();
+            }
+            return result;
+        });
+    }
+
+    // Acción que se ejecuta después de delegar la llamada en el objeto original, con su resultado.
+    @FunctionalInterface
+    private interface AfterCall {
+        Object apply(Method method, Object[] args, Object result) throws SQLException;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, AfterCall afterCall) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            // unwrap/isWrapperFor se resuelven sobre el objeto original (ej: Hibernate pidiendo la clase del driver).
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return afterCall.apply(method, args, result);
+        };
+        return (T) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+/*
+ * Archivo: ExportController.java
+ * Propósito: Este controlador permite descargar la lista de compras y el plan de comidas del usuario
+ * como archivo CSV o NDJSON. La respuesta se va escribiendo mientras se leen las filas de la base de datos.
+ */
+package com.anymeal.backend.controller;
+
+import com.anymeal.backend.model.User;
+import com.anymeal.backend.service.ExportService;
+import com.anymeal.backend.service.ExportService.Format;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+
+    /*
+     * Endpoint para descargar la lista de compras.
+     * Mapeado a GET /api/v1/export/shopping-list.
+     * @param user: El usuario autenticado.
+     * @param format: "csv" (por defecto) o "ndjson".
+     * @return Una respuesta HTTP 200 OK con el archivo, o 400 si el formato no es válido.
+     */
+    @GetMapping("/shopping-list")
+    public ResponseEntity<StreamingResponseBody> exportShoppingList(@AuthenticationPrincipal User user,
+                                                                    @RequestParam(required = false) String format) {
+        Format exportFormat;
+        try {
+            exportFormat = Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        // El cuerpo se escribe en otro hilo: se captura el ID aquí, no la entidad del usuario.
+        Long userId = user.getId();
+        StreamingResponseBody body = out -> exportService.writeShoppingList(userId, exportFormat, out);
+        return attachment("lista-compras", exportFormat, body);
+    }
+
+    /*
+     * Endpoint para descargar las comidas planificadas entre dos fechas (ambas incluidas).
+     * Mapeado a GET /api/v1/export/plans.
+     * @param user: El usuario autenticado.
+     * @param startDate: Fecha de inicio (formato ISO).
+     * @param endDate: Fecha de fin (formato ISO).
+     * @param format: "csv" (por defecto) o "ndjson".
+     * @return Una respuesta HTTP 200 OK con el archivo, o 400 si el formato o el rango de fechas no son válidos.
+     */
+    @GetMapping("/plans")
+    public ResponseEntity<StreamingResponseBody> exportPlans(@AuthenticationPrincipal User user,
+                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                                             @RequestParam(required = false) String format) {
+        Format exportFormat;
+        try {
+            exportFormat = Format.parse(format);
+            exportService.validatePlanRange(startDate, endDate);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        Long userId = user.getId();
+        StreamingResponseBody body = out -> exportService.writePlan(userId, startDate, endDate, exportFormat, out);
+        return attachment("plan-" + startDate + "-" + endDate, exportFormat, body);
+    }
+
+    // Construye la respuesta como archivo adjunto con el tipo de contenido del formato elegido.
+    private static ResponseEntity<StreamingResponseBody> attachment(String baseName, Format format, StreamingResponseBody body) {
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(baseName + "." + format.extension())
+                .build();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .contentType(MediaType.parseMediaType(format.contentType() + ";charset=UTF-8"))
+                .body(body);
+    }
+}
\ No newline at end of file
@@ -6,6 +6,7 @@
 package com.anymeal.backend.controller;
 
 import com.anymeal.backend.dto.FavoriteRequest;
+import com.anymeal.backend.dto.FavoritesPageResponse;
 import com.anymeal.backend.dto.RecipePreviewResponse;
 import com.anymeal.backend.model.User;
 import com.anymeal.backend.service.FavoriteService;
@@ -37,6 +38,25 @@ public class FavoriteController {
         return ResponseEntity.ok(favoriteService.getFavorites(user));
     }
 
+    /*
+     * Endpoint para obtener las recetas favoritas por páginas, de la más reciente a la más antigua.
+     * Mapeado a GET /api/v1/favorites/page.
+     * @param user: El objeto User del usuario autenticado.
+     * @param cursor: El 'nextCursor' de la página anterior (se omite para pedir la primera).
+     * @param size: Tamaño de la página opcional (1 a 100, por defecto 20).
+     * @return Una respuesta HTTP 200 OK con la página, o 400 si el cursor o el tamaño no son válidos.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<FavoritesPageResponse> getFavoritesPage(@AuthenticationPrincipal User user,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(favoriteService.getFavoritesPage(user, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /*
      * Endpoint para agregar una receta a la lista de favoritos.
      * Mapeado a POST /api/v1/favorites.
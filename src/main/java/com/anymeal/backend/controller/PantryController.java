@@ -0,0 +1,82 @@
+/*
+ * Archivo: PantryController.java
+ * Propósito: Este controlador expone la despensa del usuario: los ingredientes que ya tiene en casa.
+ * Lo que hay en la despensa se descuenta automáticamente de la lista de compras.
+ */
+package com.anymeal.backend.controller;
+
+import com.anymeal.backend.dto.PantryDtos.*;
+import com.anymeal.backend.model.User;
+import com.anymeal.backend.service.PantryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/pantry")
+@RequiredArgsConstructor
+public class PantryController {
+
+    private final PantryService pantryService;
+
+    /*
+     * Endpoint para obtener la despensa del usuario.
+     * Mapeado a GET /api/v1/pantry.
+     * @param user: El usuario autenticado.
+     * @return Una respuesta HTTP 200 OK con los ingredientes de la despensa.
+     */
+    @GetMapping
+    public ResponseEntity<List<PantryItemDto>> getPantry(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(pantryService.getPantry(user));
+    }
+
+    /*
+     * Endpoint para añadir un ingrediente a la despensa (si ya existe en la misma unidad, se suma la cantidad).
+     * Mapeado a POST /api/v1/pantry.
+     * @param user: El usuario autenticado.
+     * @param request: El ingrediente, la cantidad y la unidad.
+     * @return Una respuesta HTTP 200 OK con el elemento de la despensa, o 400 si la petición no es válida.
+     */
+    @PostMapping
+    public ResponseEntity<PantryItemDto> addItem(@AuthenticationPrincipal User user, @RequestBody PantryItemRequest request) {
+        try {
+            return ResponseEntity.ok(pantryService.addItem(user, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /*
+     * Endpoint para cambiar la cantidad o la unidad de un ingrediente de la despensa.
+     * Mapeado a PUT /api/v1/pantry/{itemId}.
+     * @param user: El usuario autenticado.
+     * @param itemId: El ID del elemento de la despensa.
+     * @param request: La nueva cantidad y/o unidad (el ID del ingrediente se ignora).
+     * @return Una respuesta 200 OK con el elemento actualizado, 404 si no existe o 400 si la cantidad no es válida.
+     */
+    @PutMapping("/{itemId}")
+    public ResponseEntity<PantryItemDto> updateItem(@AuthenticationPrincipal User user, @PathVariable Long itemId, @RequestBody PantryItemRequest request) {
+        try {
+            return pantryService.updateItem(user, itemId, request)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /*
+     * Endpoint para quitar un ingrediente de la despensa.
+     * Mapeado a DELETE /api/v1/pantry/{itemId}.
+     * @param user: El usuario autenticado.
+     * @param itemId: El ID del elemento de la despensa.
+     * @return Una respuesta HTTP 204 No Content si se eliminó, o 404 si no se encuentra.
+     */
+    @DeleteMapping("/{itemId}")
+    public ResponseEntity<Void> deleteItem(@AuthenticationPrincipal User user, @PathVariable Long itemId) {
+        boolean deleted = pantryService.deleteItem(user, itemId);
+        return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
\ No newline at end of file
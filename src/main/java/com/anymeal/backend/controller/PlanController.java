@@ -5,13 +5,17 @@
  */
 package com.anymeal.backend.controller;
 
+import com.anymeal.backend.dto.GeneratePlanRequest;
 import com.anymeal.backend.dto.NotesRequest;
 import com.anymeal.backend.dto.PlanRequest;
 import com.anymeal.backend.dto.PlanResponse;
+import com.anymeal.backend.model.User;
+import com.anymeal.backend.service.PlanGeneratorService;
 import com.anymeal.backend.service.PlanService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import java.time.LocalDate;
 
@@ -23,40 +27,67 @@ public class PlanController {
 
     // Inyección del servicio que maneja la lógica del planificador.
     private final PlanService planService;
+    // Servicio que genera automáticamente un plan semanal a partir de restricciones.
+    private final PlanGeneratorService planGeneratorService;
 
     /*
      * Endpoint para obtener el plan de comidas para una semana específica.
      * Mapeado a GET /api/v1/plans.
+     * @param user: El usuario autenticado.
      * @param startDate: La fecha de inicio de la semana, recibida como parámetro de la URL (ej: ?startDate=2024-12-30).
      * Debe estar en formato ISO (YYYY-MM-DD).
      * @return Una respuesta HTTP 200 OK con el objeto del plan semanal.
      */
     @GetMapping
-    public ResponseEntity<PlanResponse> getWeeklyPlan(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate) {
-        return ResponseEntity.ok(planService.getPlanForWeek(startDate));
+    public ResponseEntity<PlanResponse> getWeeklyPlan(@AuthenticationPrincipal User user,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate) {
+        return ResponseEntity.ok(planService.getPlanForWeek(user, startDate));
     }
 
     /*
      * Endpoint para añadir una receta a un día y tipo de comida específicos en el plan.
      * Mapeado a POST /api/v1/plans.
-     * @param request: Cuerpo de la petición con los detalles de la entrada del plan (fecha, receta, tipo de comida).
-     * @return Una respuesta HTTP 200 OK vacía.
+     * @param user: El usuario autenticado.
+     * @param request: Cuerpo de la petición con los detalles de la entrada del plan (fecha, receta, tipo de comida
+     * y, opcionalmente, número de porciones).
+     * @return Una respuesta HTTP 200 OK vacía, o 400 Bad Request si el número de porciones no es válido.
      */
     @PostMapping
-    public ResponseEntity<Void> addRecipeToPlan(@RequestBody PlanRequest request) {
-        planService.addRecipeToPlan(request);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Void> addRecipeToPlan(@AuthenticationPrincipal User user, @RequestBody PlanRequest request) {
+        try {
+            planService.addRecipeToPlan(user, request);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /*
+     * Endpoint para generar automáticamente una semana completa de comidas.
+     * Mapeado a POST /api/v1/plans/generate.
+     * @param user: El usuario autenticado.
+     * @param request: Restricciones del plan (objetivos nutricionales, dietas, tiempo máximo, etc.).
+     * @return Una respuesta 200 OK con el plan semanal generado, o 400 si las restricciones no se pueden cumplir.
+     */
+    @PostMapping("/generate")
+    public ResponseEntity<PlanResponse> generateWeeklyPlan(@AuthenticationPrincipal User user, @RequestBody GeneratePlanRequest request) {
+        try {
+            return ResponseEntity.ok(planGeneratorService.generateWeek(user, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /*
      * Endpoint para eliminar una entrada específica (una comida) del plan.
      * Mapeado a DELETE /api/v1/plans/entries/{entryId}.
+     * @param user: El usuario autenticado. Solo puede eliminar entradas de su propio plan.
      * @param entryId: El ID de la entrada del plan a eliminar.
      * @return Una respuesta HTTP 200 OK vacía.
      */
     @DeleteMapping("/entries/{entryId}")
-    public ResponseEntity<Void> deletePlanEntry(@PathVariable Long entryId) {
-        planService.deletePlanEntry(entryId);
+    public ResponseEntity<Void> deletePlanEntry(@AuthenticationPrincipal User user, @PathVariable Long entryId) {
+        planService.deletePlanEntry(user, entryId);
         return ResponseEntity.ok().build();
     }
 
@@ -8,9 +8,11 @@ package com.anymeal.backend.controller;
 
 import com.anymeal.backend.dto.RecipeDetailResponse;
 import com.anymeal.backend.dto.RecipePreviewResponse;
+import com.anymeal.backend.model.User;
 import com.anymeal.backend.service.RecipeService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
@@ -28,25 +30,34 @@ public class RecipeController {
      * Mapeado a GET /api/v1/recipes.
      * Si no se provee 'query', devuelve todas las recetas.
      * Si se provee (ej: /api/v1/recipes?query=sopa), filtra las recetas por ese término.
+     * @param user: El usuario autenticado (para marcar sus recetas favoritas).
      * @param query: El término de búsqueda opcional.
      * @return Una respuesta HTTP 200 OK con una lista de previsualizaciones de recetas.
      */
     @GetMapping
-    public ResponseEntity<List<RecipePreviewResponse>> searchRecipes(@RequestParam(required = false) String query) {
-        List<RecipePreviewResponse> recipes = recipeService.searchRecipes(query);
+    public ResponseEntity<List<RecipePreviewResponse>> searchRecipes(@AuthenticationPrincipal User user,
+                                                                     @RequestParam(required = false) String query) {
+        List<RecipePreviewResponse> recipes = recipeService.searchRecipes(user != null ? user.getId() : null, query);
         return ResponseEntity.ok(recipes);
     }
 
     /*
      * Endpoint para obtener los detalles completos de una receta por su ID.
      * Mapeado a GET /api/v1/recipes/{id}.
+     * Si se indica 'servings' (ej: /api/v1/recipes/5?servings=6), las cantidades de los ingredientes
+     * se escalan a ese número de porciones.
      * @param id: El ID de la receta, extraído de la ruta.
+     * @param servings: Número de porciones opcional.
      * @return Una respuesta HTTP 200 OK con los detalles de la receta si se encuentra,
-     * o una respuesta HTTP 404 Not Found si no existe.
+     * una respuesta HTTP 404 Not Found si no existe, o 400 Bad Request si 'servings' no es válido.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<RecipeDetailResponse> getRecipeById(@PathVariable Long id) {
-        RecipeDetailResponse recipe = recipeService.getRecipeById(id);
+    public ResponseEntity<RecipeDetailResponse> getRecipeById(@PathVariable Long id,
+                                                              @RequestParam(required = false) Integer servings) {
+        if (servings != null && servings <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        RecipeDetailResponse recipe = recipeService.getRecipeById(id, servings);
         // Comprueba si el servicio encontró la receta.
         if (recipe != null) {
             // Si la receta existe, la devuelve en una respuesta 200 OK.
@@ -13,6 +13,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 // Anotaciones estándar para un controlador REST de Spring.
 @RestController
 @RequestMapping("/api/v1/shopping-list")
@@ -64,6 +66,23 @@ public class ShoppingListController {
                 .orElse(ResponseEntity.notFound().build()); // Si está vacío, crea una respuesta 404.
     }
 
+    /*
+     * Endpoint para modificar varios ítems en una sola petición (marcar, desmarcar, cambiar cantidad, unidad o nombre).
+     * Mapeado a PATCH /api/v1/shopping-list/items.
+     * Pensado para el móvil en la tienda: una sola ida y vuelta en lugar de una por ítem.
+     * @param user: El usuario autenticado.
+     * @param request: El cuerpo de la petición con la lista de cambios (los campos nulos no se modifican).
+     * @return Una respuesta 200 OK con solo los ítems modificados, o 400 si la petición no es válida.
+     */
+    @PatchMapping("/items")
+    public ResponseEntity<List<ShoppingItemDto>> applyItemChanges(@AuthenticationPrincipal User user, @RequestBody BatchItemChangesRequest request) {
+        try {
+            return ResponseEntity.ok(shoppingListService.applyItemChanges(user, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /*
      * Endpoint para eliminar todos los ítems marcados como comprados de la lista.
      * Mapeado a POST /api/v1/shopping-list/clear-checked.
@@ -87,6 +106,19 @@ public class ShoppingListController {
         return ResponseEntity.ok(shoppingListService.getShoppingListForUser(user));
     }
 
+    /*
+     * Endpoint para sincronizar la lista por cambios: devuelve solo lo creado, modificado o borrado
+     * desde la versión indicada, en lugar de la lista completa.
+     * Mapeado a GET /api/v1/shopping-list/changes?since={version}.
+     * @param user: El usuario autenticado.
+     * @param since: La última versión que tiene el cliente (la de la respuesta anterior; 0 = ninguna).
+     * @return Una respuesta HTTP 200 OK con la versión actual, los ítems cambiados y los IDs borrados.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ShoppingListChangesResponse> getChanges(@AuthenticationPrincipal User user, @RequestParam(defaultValue = "0") long since) {
+        return ResponseEntity.ok(shoppingListService.getChangesSince(user, since));
+    }
+
     /*
      * Endpoint para eliminar un ítem individual de la lista de compras.
      * Mapeado a DELETE /api/v1/shopping-list/{itemId}.
@@ -28,11 +28,12 @@ public class UserController {
     /*
      * Endpoint para obtener la información del perfil del usuario autenticado.
      * Mapeado a GET /api/v1/user/profile.
+     * @param user: El objeto User del usuario autenticado.
      * @return Una respuesta HTTP 200 OK con los datos del perfil del usuario.
      */
     @GetMapping("/profile")
-    public ResponseEntity<UserResponse> getUserProfile() {
-        return ResponseEntity.ok(userService.getUserProfile());
+    public ResponseEntity<UserResponse> getUserProfile(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(userService.getUserProfile(user));
     }
 
     /*
@@ -26,4 +26,7 @@ public class DailyPlanDto {
      * El valor (List<PlanEntryDto>) es la lista de recetas para ese tipo de comida.
      */
     private Map<String, List<PlanEntryDto>> meals;
+
+    // Totales nutricionales del día (suma de todas sus comidas).
+    private NutritionDto nutrition;
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+/*
+ * Archivo: FavoritesPageResponse.java
+ * Propósito: DTO con una página de recetas favoritas, de la más reciente a la más antigua.
+ * 'nextCursor' se envía tal cual en la siguiente petición para obtener la página siguiente.
+ */
+package com.anymeal.backend.dto;
+
+import java.util.List;
+
+public record FavoritesPageResponse(
+        // Recetas de la página.
+        List<RecipePreviewResponse> items,
+        // Cursor de la página siguiente, o null si esta es la última.
+        String nextCursor
+) {}
\ No newline at end of file
@@ -0,0 +1,33 @@
+/*
+ * Archivo: GeneratePlanRequest.java
+ * Propósito: Define las restricciones con las que se genera automáticamente un plan semanal:
+ * objetivos diarios de calorías y macronutrientes, dietas obligatorias, tiempo máximo de
+ * preparación y preferencia por las recetas favoritas del usuario.
+ */
+package com.anymeal.backend.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class GeneratePlanRequest {
+    // Primer día de la semana a generar (se generan 7 días a partir de esta fecha).
+    private LocalDate startDate;
+    // Objetivo diario de calorías (kcal). Opcional.
+    private Double dailyCalories;
+    // Objetivos diarios de macronutrientes en gramos. Todos son opcionales.
+    private Double dailyProtein;
+    private Double dailyFat;
+    private Double dailyCarbs;
+    // Dietas que toda receta del plan debe cumplir (ej: "vegetarian", "gluten free").
+    private List<String> diets;
+    // Tiempo máximo de preparación permitido por receta, en minutos. Opcional.
+    private Integer maxReadyInMinutes;
+    // Tipos de comida a cubrir cada día. Por defecto: Desayuno, Almuerzo y Cena.
+    private List<String> mealTypes;
+    // Si es true, se prefieren las recetas favoritas del usuario.
+    private boolean preferFavorites = true;
+    // Si es true, se borran las comidas ya planificadas en esa semana antes de generar las nuevas.
+    private boolean replaceExisting = false;
+}
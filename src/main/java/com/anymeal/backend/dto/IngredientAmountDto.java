@@ -0,0 +1,15 @@
+/*
+ * Archivo: IngredientAmountDto.java
+ * Propósito: DTO con la cantidad de un ingrediente de una receta, ya escalada al número de
+ * porciones pedido en el detalle de la receta.
+ */
+package com.anymeal.backend.dto;
+
+public record IngredientAmountDto(
+        // Nombre del ingrediente.
+        String name,
+        // Cantidad necesaria para las porciones pedidas (nula si la receta no la indica).
+        Double amount,
+        // Unidad de medida tal como viene en la receta (ej: "g", "cups").
+        String unit
+) {}
\ No newline at end of file
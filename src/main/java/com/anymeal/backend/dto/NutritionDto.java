@@ -0,0 +1,17 @@
+/*
+ * Archivo: NutritionDto.java
+ * Propósito: DTO con los totales nutricionales (calorías y macronutrientes) de un día o de una semana
+ * del plan de comidas.
+ */
+package com.anymeal.backend.dto;
+
+public record NutritionDto(
+        // Calorías totales (kcal).
+        double calories,
+        // Proteínas totales en gramos.
+        double protein,
+        // Grasas totales en gramos.
+        double fat,
+        // Carbohidratos totales en gramos.
+        double carbs
+) {}
@@ -0,0 +1,14 @@
+/*
+ * Archivo: PantryDtos.java
+ * Propósito: Agrupa los DTOs (definidos como 'records') de la despensa del usuario.
+ */
+package com.anymeal.backend.dto;
+
+public class PantryDtos {
+
+    // Representa un ingrediente de la despensa.
+    public record PantryItemDto(Long id, Long ingredientId, String name, Double quantity, String unit) {}
+
+    // DTO para añadir un ingrediente a la despensa, o cambiar su cantidad y unidad.
+    public record PantryItemRequest(Long ingredientId, Double quantity, String unit) {}
+}
\ No newline at end of file
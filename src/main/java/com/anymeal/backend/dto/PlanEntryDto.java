@@ -13,6 +13,8 @@ import lombok.Data;
 public class PlanEntryDto {
     // El identificador único de esta entrada del plan.
     private Long id;
-    // La información de previsualización de la receta asociada a esta entrada.
-    private RecipePreviewResponse recipe;
+    // La información de previsualización de la receta asociada a esta entrada (se escribe con su fragmento JSON).
+    private RecipePreview recipe;
+    // Porciones planificadas para esta comida (nulo = las de la receta).
+    private Integer servings;
 }
\ No newline at end of file
@@ -16,4 +16,6 @@ public class PlanRequest {
     private LocalDate date;
     // El tipo de comida (ej: "Desayuno", "Almuerzo", "Cena").
     private String mealType;
+    // Número de porciones a preparar. Opcional: si es nulo se usan las porciones de la receta.
+    private Integer servings;
 }
\ No newline at end of file
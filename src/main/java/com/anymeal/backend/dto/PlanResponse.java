@@ -18,4 +18,7 @@ public class PlanResponse {
      * El valor (DailyPlanDto) es el objeto que contiene los detalles del plan para ese día.
      */
     private Map<String, DailyPlanDto> dailyPlans;
+
+    // Totales nutricionales de toda la semana (suma de los totales de cada día).
+    private NutritionDto weeklyNutrition;
 }
\ No newline at end of file
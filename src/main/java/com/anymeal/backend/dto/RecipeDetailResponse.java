@@ -12,7 +12,7 @@ import lombok.NoArgsConstructor;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class RecipeDetailResponse {
@@ -32,6 +32,12 @@ public class RecipeDetailResponse {
     private String description;
     // Lista de los ingredientes necesarios.
     private List<String> ingredients;
+    // Porciones para las que están calculadas las cantidades de 'ingredientAmounts'.
+    private Integer servings;
+    // Cantidad de cada ingrediente, escalada al número de porciones pedido.
+    private List<IngredientAmountDto> ingredientAmounts;
     // Lista ordenada de los pasos a seguir para la preparación.
     private List<String> steps;
+    // Número de usuarios que tienen la receta en favoritos.
+    private Long favoriteCount;
 }
\ No newline at end of file
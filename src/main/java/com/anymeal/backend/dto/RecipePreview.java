@@ -0,0 +1,29 @@
+/*
+ * Archivo: RecipePreview.java
+ * Propósito: Previsualización de una receta dentro de una respuesta (búsqueda, favoritos, plan) que se escribe
+ * con el fragmento JSON en caché de la receta (ver RecipePreviewFragments). Solo lleva el ID y los campos que
+ * cambian según el usuario y el momento (isFavorite, favoriteCount); el DTO completo con los campos fijos
+ * (título, imagen, "35 min"...) se construye únicamente si la receta aún no tiene fragmento o si se pide
+ * con toResponse().
+ */
+package com.anymeal.backend.dto;
+
+import java.util.function.Supplier;
+
+public record RecipePreview(
+        // ID de la receta: es la clave de su fragmento en caché.
+        Long id,
+        // Si la receta está en los favoritos del usuario que hace la petición.
+        Boolean isFavorite,
+        // Número de usuarios que tienen la receta en favoritos.
+        Long favoriteCount,
+        // Versión de la caché de fragmentos leída antes de cargar la receta (RecipePreviewFragments.version()).
+        long fragmentsVersion,
+        // Construye el DTO completo a partir de la entidad o proyección cargada.
+        Supplier<RecipePreviewResponse> response
+) {
+
+    public RecipePreviewResponse toResponse() {
+        return response.get();
+    }
+}
\ No newline at end of file
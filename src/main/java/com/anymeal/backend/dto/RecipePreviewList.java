@@ -0,0 +1,36 @@
+/*
+ * Archivo: RecipePreviewList.java
+ * Propósito: Lista de previsualizaciones de recetas devuelta por los endpoints de listas (búsqueda, favoritos).
+ * Se comporta como cualquier List de RecipePreviewResponse (cada elemento se construye al pedirlo), pero su
+ * tipo propio permite escribirla concatenando los fragmentos JSON ya serializados de cada receta, tanto como
+ * respuesta completa (RecipePreviewListConverter) como dentro de otro DTO (RecipePreviewListSerializer).
+ */
+package com.anymeal.backend.dto;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+public class RecipePreviewList extends AbstractList<RecipePreviewResponse> implements RandomAccess {
+
+    private final List<RecipePreview> previews;
+
+    public RecipePreviewList(List<RecipePreview> previews) {
+        this.previews = previews;
+    }
+
+    // Previsualización sin construir el DTO completo (para escribirla con su fragmento).
+    public RecipePreview preview(int index) {
+        return previews.get(index);
+    }
+
+    @Override
+    public RecipePreviewResponse get(int index) {
+        return previews.get(index).toResponse();
+    }
+
+    @Override
+    public int size() {
+        return previews.size();
+    }
+}
\ No newline at end of file
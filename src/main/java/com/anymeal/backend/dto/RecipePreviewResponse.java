@@ -27,4 +27,8 @@ public class RecipePreviewResponse {
     private String difficulty;
     // Categoría de la receta.
     private String category;
+    // Si la receta está en los favoritos del usuario que hace la petición.
+    private Boolean isFavorite;
+    // Número de usuarios que tienen la receta en favoritos.
+    private Long favoriteCount;
 }
\ No newline at end of file
@@ -13,8 +13,16 @@ public class ShoppingListDtos {
     // Representa un único artículo en la lista de compras.
     public record ShoppingItemDto(Long id, String name, Double amount, String unit, String category, boolean isChecked) {}
 
-    // Representa la respuesta completa de la lista de compras, con artículos agrupados por categoría.
-    public record ShoppingListResponse(Map<String, List<ShoppingItemDto>> itemsByCategory) {}
+    // Representa la respuesta completa de la lista de compras, con artículos agrupados por categoría,
+    // y la versión de la lista a partir de la cual pedir cambios (GET /changes?since=version).
+    public record ShoppingListResponse(Map<String, List<ShoppingItemDto>> itemsByCategory, long version) {}
+
+    /*
+     * Cambios de la lista desde una versión: ítems creados o modificados y IDs de ítems borrados.
+     * Si 'reset' es true, la versión pedida era demasiado antigua (ej: la lista se regeneró) y 'upserts'
+     * contiene la lista completa: el cliente debe descartar su copia local antes de aplicarla.
+     */
+    public record ShoppingListChangesResponse(long version, boolean reset, List<ShoppingItemDto> upserts, List<Long> deletedIds) {}
 
     // DTO para la petición de generar una lista de compras a partir de un rango de fechas del plan.
     public record GenerateListRequest(String startDate, String endDate) {}
@@ -27,4 +35,10 @@ public class ShoppingListDtos {
 
     // DTO para la petición de editar el contenido de un artículo (nombre, cantidad, unidad).
     public record EditItemRequest(String customName, Double amount, String unit) {}
+
+    // Un cambio dentro de una petición por lotes: los campos nulos no se modifican.
+    public record ItemChange(Long itemId, Boolean isChecked, Double amount, String unit, String customName) {}
+
+    // DTO para la petición de modificar varios artículos a la vez (ej: marcar una docena como comprados).
+    public record BatchItemChangesRequest(List<ItemChange> changes) {}
 }
\ No newline at end of file
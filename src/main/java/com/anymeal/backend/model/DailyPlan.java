@@ -56,6 +56,25 @@ public class DailyPlan {
     @Column(columnDefinition = "TEXT")
     private String notes;
 
+    /*
+     * Totales nutricionales del día (suma de las recetas de sus entradas).
+     * Se mantienen de forma incremental cada vez que se añade o se quita una comida, para que
+     * leer la nutrición de una semana no requiera parsear el JSON de cada receta.
+     * Un valor nulo significa que aún no se han calculado (planes creados antes de estas columnas);
+     * en ese caso se calculan una única vez al leer el plan.
+     */
+    @Column(name = "total_calories")
+    private Double totalCalories;
+
+    @Column(name = "total_protein")
+    private Double totalProtein;
+
+    @Column(name = "total_fat")
+    private Double totalFat;
+
+    @Column(name = "total_carbs")
+    private Double totalCarbs;
+
     /*
      * Define una relación "Uno a Muchos" con la entidad PlanEntry.
      * Un plan diario puede contener múltiples entradas de comida (desayuno, almuerzo, etc.).
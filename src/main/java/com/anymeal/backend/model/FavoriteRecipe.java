@@ -9,9 +9,11 @@ package com.anymeal.backend.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.sql.Timestamp;
 
 @Entity
-@Table(name = "favorite_recipes")
+@Table(name = "favorite_recipes",
+        indexes = @Index(name = "idx_favorites_user_favorited", columnList = "user_id, favorited_at, recipe_id"))
 @Data
 @NoArgsConstructor
 public class FavoriteRecipe {
@@ -33,4 +35,9 @@ public class FavoriteRecipe {
     @MapsId("recipeId")
     @JoinColumn(name = "recipe_id")
     private Recipe recipe;
+
+    // Momento en que se marcó como favorita. Lo asigna la base de datos (los registros antiguos reciben la fecha de la migración).
+    @Column(name = "favorited_at", nullable = false, updatable = false, insertable = false,
+            columnDefinition = "TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)")
+    private Timestamp favoritedAt;
 }
\ No newline at end of file
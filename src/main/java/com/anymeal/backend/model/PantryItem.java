@@ -0,0 +1,43 @@
+/*
+ * Archivo: PantryItem.java
+ * Propósito: Define la entidad 'PantryItem' (tabla 'pantry_items'). Representa un ingrediente que el
+ * usuario ya tiene en su despensa, con su cantidad y unidad. Al generar la lista de compras, lo que hay
+ * en la despensa se resta de lo que pide el plan.
+ */
+package com.anymeal.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "pantry_items",
+        uniqueConstraints = @UniqueConstraint(name = "uk_pantry_user_ingredient_unit", columnNames = {"user_id", "ingredient_id", "unit"}))
+public class PantryItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ingredient_id", nullable = false)
+    private Ingredient ingredient;
+
+    // Cantidad disponible en la despensa (ej: 500).
+    @Column(nullable = false)
+    private Double quantity;
+
+    // Unidad de la cantidad (ej: "g", "cups"). Se convierte igual que las unidades de las recetas.
+    @Column(nullable = false)
+    private String unit;
+}
\ No newline at end of file
@@ -37,4 +37,8 @@ public class PlanEntry {
     // Define el tipo de comida (ej: "Desayuno", "Almuerzo", "Cena").
     @Column(nullable = false)
     private String mealType;
+
+    // Número de porciones a preparar. Si es nulo se usan las porciones de la receta (Recipe.servings).
+    @Column(name = "servings")
+    private Integer servings;
 }
\ No newline at end of file
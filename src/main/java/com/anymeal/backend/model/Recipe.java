@@ -50,6 +50,14 @@ public class Recipe {
     private String difficulty;
     private String category;
 
+    /*
+     * Número de usuarios que tienen la receta en favoritos. Columna desnormalizada que solo escribe
+     * FavoriteCounters (volcados por lotes), por eso la entidad nunca la inserta ni la actualiza.
+     */
+    @Column(name = "favorite_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer favoriteCount;
+
     // Almacena información sobre dietas como un string en formato JSON.
     @Column(columnDefinition = "json")
     private String diets;
@@ -7,7 +7,8 @@ import lombok.NoArgsConstructor;
 import java.sql.Timestamp;
 
 @Entity
-@Table(name = "shopping_list_items")
+@Table(name = "shopping_list_items",
+        indexes = @Index(name = "idx_items_user_version", columnList = "user_id, row_version"))
 @Data
 @NoArgsConstructor
 public class ShoppingListItem {
@@ -30,9 +31,31 @@ public class ShoppingListItem {
     private String unit;
     private String category;
 
+    /*
+     * Cantidad total necesaria según el plan, antes de aplicar la lógica de compra (ej: 7 huevos,
+     * aunque se muestre "Comprar 1 docena"), y su unidad. Solo la tienen los ítems generados desde el plan.
+     * Permiten sumar o restar una comida a la lista sin regenerarla completa.
+     */
+    @Column(name = "base_amount")
+    private Double baseAmount;
+
+    @Column(name = "base_unit")
+    private String baseUnit;
+
+    // Versión de la lista (ShoppingListVersion) en la que se creó o modificó este ítem por última vez.
+    @Column(name = "row_version")
+    private Long rowVersion;
+
     @Column(name = "is_checked", nullable = false)
     private boolean isChecked = false;
 
+    /*
+     * Indica que el usuario cambió a mano la cantidad o la unidad. Los cambios del plan siguen
+     * actualizando la cantidad base, pero ya no reemplazan lo que el usuario escribió.
+     */
+    @Column(name = "user_edited", nullable = false)
+    private boolean userEdited = false;
+
     @Column(name = "added_at", updatable = false, insertable = false)
     private Timestamp addedAt;
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+/*
+ * Archivo: ShoppingListState.java
+ * Propósito: Define la entidad 'ShoppingListState' (tabla 'shopping_list_states'). Guarda, por usuario,
+ * el rango de fechas del plan a partir del cual se generó su lista de compras. Mientras ese rango exista,
+ * los cambios en el plan dentro de él se aplican a la lista de forma incremental.
+ */
+package com.anymeal.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "shopping_list_states")
+@Data
+@NoArgsConstructor
+public class ShoppingListState {
+
+    // Un único registro por usuario: su ID es la clave primaria.
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Primer día del plan incluido en la lista de compras.
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    // Último día del plan incluido en la lista de compras.
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    // Indica si una fecha del plan está dentro del rango de la lista.
+    public boolean covers(LocalDate date) {
+        return date != null && !date.isBefore(startDate) && !date.isAfter(endDate);
+    }
+}
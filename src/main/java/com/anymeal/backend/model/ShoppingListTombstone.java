@@ -0,0 +1,38 @@
+/*
+ * Archivo: ShoppingListTombstone.java
+ * Propósito: Define la entidad 'ShoppingListTombstone' (tabla 'shopping_list_tombstones'). Registra que un
+ * ítem de la lista de compras se borró en una versión dada, para que la sincronización por cambios
+ * (GET /api/v1/shopping-list/changes) pueda avisar al cliente de los borrados.
+ */
+package com.anymeal.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "shopping_list_tombstones",
+        indexes = @Index(name = "idx_tombstones_user_version", columnList = "user_id, version"))
+public class ShoppingListTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // ID del ítem borrado.
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    // Versión de la lista en la que se borró el ítem.
+    @Column(nullable = false)
+    private long version;
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+/*
+ * Archivo: ShoppingListVersion.java
+ * Propósito: Define la entidad 'ShoppingListVersion' (tabla 'shopping_list_versions'). Guarda, por usuario,
+ * la versión actual de su lista de compras: un contador que crece con cada cambio. Cada ítem modificado
+ * recibe la versión del cambio (ShoppingListItem.rowVersion) y cada ítem borrado deja una marca
+ * (ShoppingListTombstone), de modo que el cliente puede pedir solo lo que cambió desde su última versión.
+ */
+package com.anymeal.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "shopping_list_versions")
+@Data
+@NoArgsConstructor
+public class ShoppingListVersion {
+
+    // Un único registro por usuario: su ID es la clave primaria.
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Versión actual de la lista. Solo se incrementa con ShoppingListVersionRepository.bumpVersion.
+    @Column(name = "list_version", nullable = false)
+    private long listVersion;
+
+    /*
+     * Versión de la última regeneración completa de la lista. Los clientes con una versión anterior
+     * no pueden ponerse al día con cambios sueltos y reciben la lista completa.
+     */
+    @Column(name = "reset_version", nullable = false)
+    private long resetVersion;
+}
\ No newline at end of file
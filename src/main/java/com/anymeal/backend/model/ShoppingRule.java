@@ -0,0 +1,68 @@
+/*
+ * Archivo: ShoppingRule.java
+ * Propósito: Define la entidad 'ShoppingRule' (tabla 'shopping_rules'). Cada regla indica cómo se compra
+ * un ingrediente o un grupo de ingredientes: tamaño del paquete, forma de redondear y el texto a mostrar
+ * en la lista de compras (ej: los huevos se compran por docenas, la leche por cartones).
+ * Las reglas se compilan en memoria en ShoppingRuleEngine; pueden cambiarse en la base de datos sin desplegar.
+ */
+package com.anymeal.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "shopping_rules")
+public class ShoppingRule {
+
+    // Formas de redondear la cantidad necesaria a paquetes.
+    public enum RoundingMode {
+        // Se compra el número entero de paquetes que cubre la cantidad (hacia arriba).
+        CEIL,
+        // Igual que CEIL, pero si basta con medio paquete se usa 'halfTemplate'.
+        CEIL_ALLOW_HALF,
+        // Siempre se compra un solo paquete, sin importar la cantidad.
+        ONE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Ingrediente concreto al que se aplica la regla. Tiene prioridad sobre las reglas por grupo.
+    @Column(name = "ingredient_id")
+    private Long ingredientId;
+
+    // Grupo de ingredientes: la regla se aplica a todo ingrediente cuyo nombre contenga esta palabra (ej: "egg").
+    @Column(name = "name_keyword")
+    private String nameKeyword;
+
+    // Unidad canónica (g, ml, unidad...) en la que debe estar la cantidad. Si es nula, se aplica a cualquiera.
+    private String unit;
+
+    // Cantidad que trae un paquete, en la unidad de la regla (ej: 12 huevos por docena).
+    @Column(name = "package_size", nullable = false)
+    private Double packageSize;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "rounding_mode", nullable = false)
+    private RoundingMode roundingMode;
+
+    // Texto para medio paquete (ej: "Comprar 1/2 docena"). Solo se usa con CEIL_ALLOW_HALF.
+    @Column(name = "half_template")
+    private String halfTemplate;
+
+    // Texto para un paquete (ej: "Comprar 1 docena").
+    @Column(name = "one_template", nullable = false)
+    private String oneTemplate;
+
+    // Texto para varios paquetes; "{n}" se reemplaza por el número (ej: "Comprar {n} docenas").
+    @Column(name = "many_template")
+    private String manyTemplate;
+}
\ No newline at end of file
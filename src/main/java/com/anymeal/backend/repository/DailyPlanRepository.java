@@ -7,7 +7,11 @@
 package com.anymeal.backend.repository;
 
 import com.anymeal.backend.model.DailyPlan;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -28,6 +32,15 @@ public interface DailyPlanRepository extends JpaRepository<DailyPlan, Long> {
      */
     List<DailyPlan> findByUserIdAndPlanDateBetween(Long userId, LocalDate startDate, LocalDate endDate);
 
+    /*
+     * Igual que findByUserIdAndPlanDateBetween, pero trae en la misma consulta las entradas de cada día y
+     * sus recetas: mostrar la semana no hace una consulta por día ni una por comida.
+     */
+    @EntityGraph(attributePaths = {"entries", "entries.recipe"})
+    @Query("SELECT dp FROM DailyPlan dp WHERE dp.user.id = :userId AND dp.planDate BETWEEN :startDate AND :endDate")
+    List<DailyPlan> findWeekWithEntries(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+                                        @Param("endDate") LocalDate endDate);
+
     /*
      * Busca un único plan diario para un usuario en una fecha específica.
      * @param userId El ID del usuario.
@@ -35,4 +48,47 @@ public interface DailyPlanRepository extends JpaRepository<DailyPlan, Long> {
      * @return Un Optional que contiene el DailyPlan si se encuentra, o un Optional vacío si no.
      */
     Optional<DailyPlan> findByUserIdAndPlanDate(Long userId, LocalDate date);
+
+    /*
+     * Crea el plan del día si no existe, en una sola sentencia atómica (INSERT ... ON DUPLICATE KEY UPDATE).
+     * Aprovecha la restricción única (user_id, plan_date): si el plan ya existía no se inserta nada.
+     * En ambos casos LAST_INSERT_ID() queda apuntando al ID del plan, de modo que la siguiente
+     * sentencia de la misma conexión puede usarlo sin hacer un SELECT adicional.
+     * Así, dos peticiones simultáneas para el mismo día nunca chocan contra la restricción única.
+     * En la misma sentencia se suman los valores nutricionales de la comida añadida a los totales del día
+     * (si los totales son NULL, siguen siendo NULL y se calcularán al leer el plan).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_plans (user_id, plan_date, total_calories, total_protein, total_fat, total_carbs) " +
+            "VALUES (:userId, :planDate, :calories, :protein, :fat, :carbs) " +
+            "ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id), " +
+            "total_calories = total_calories + :calories, total_protein = total_protein + :protein, " +
+            "total_fat = total_fat + :fat, total_carbs = total_carbs + :carbs", nativeQuery = true)
+    void upsertForDate(@Param("userId") Long userId, @Param("planDate") LocalDate planDate,
+                       @Param("calories") double calories, @Param("protein") double protein,
+                       @Param("fat") double fat, @Param("carbs") double carbs);
+
+    // Devuelve el valor de LAST_INSERT_ID() de la conexión actual (el ID del plan tras upsertForDate).
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    long lastInsertId();
+
+    /*
+     * Fija los totales nutricionales de un plan diario. Se usa al reemplazar todas las comidas de un día.
+     */
+    @Modifying
+    @Query("UPDATE DailyPlan d SET d.totalCalories = :calories, d.totalProtein = :protein, d.totalFat = :fat, " +
+            "d.totalCarbs = :carbs WHERE d.id = :id")
+    void setNutrition(@Param("id") Long id, @Param("calories") double calories, @Param("protein") double protein,
+                      @Param("fat") double fat, @Param("carbs") double carbs);
+
+    /*
+     * Suma (o resta, con valores negativos) valores nutricionales a los totales de un plan diario.
+     * Se usa al eliminar una comida del plan.
+     */
+    @Modifying
+    @Query("UPDATE DailyPlan d SET d.totalCalories = d.totalCalories + :calories, " +
+            "d.totalProtein = d.totalProtein + :protein, d.totalFat = d.totalFat + :fat, " +
+            "d.totalCarbs = d.totalCarbs + :carbs WHERE d.id = :id")
+    void addNutrition(@Param("id") Long id, @Param("calories") double calories, @Param("protein") double protein,
+                      @Param("fat") double fat, @Param("carbs") double carbs);
 }
\ No newline at end of file
@@ -7,10 +7,15 @@ package com.anymeal.backend.repository;
 
 import com.anymeal.backend.model.FavoriteRecipe;
 import com.anymeal.backend.model.FavoriteRecipeId;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,13 +25,65 @@ public interface FavoriteRecipeRepository extends JpaRepository<FavoriteRecipe,
     // Busca todas las entradas de recetas favoritas para un ID de usuario específico.
     List<FavoriteRecipe> findByUserId(Long userId);
 
+    // Devuelve solo los IDs de las recetas favoritas de un usuario, sin cargar las entidades.
+    @Query("SELECT f.id.recipeId FROM FavoriteRecipe f WHERE f.id.userId = :userId")
+    List<Long> findRecipeIdsByUserId(@Param("userId") Long userId);
+
+    /*
+     * Devuelve las columnas de previsualización de las recetas favoritas de un usuario, de la más reciente
+     * a la más antigua, con una sola consulta sobre el índice (user_id, favorited_at, recipe_id).
+     */
+    @Query("SELECT r.id AS id, r.title AS title, r.imageUrl AS imageUrl, r.readyInMinutes AS readyInMinutes, " +
+            "r.difficulty AS difficulty, r.category AS category, f.favoritedAt AS favoritedAt " +
+            "FROM FavoriteRecipe f JOIN f.recipe r WHERE f.id.userId = :userId " +
+            "ORDER BY f.favoritedAt DESC, f.id.recipeId DESC")
+    List<FavoritePreviewRow> findPreviewsByUserId(@Param("userId") Long userId, Limit limit);
+
+    /*
+     * Igual que findPreviewsByUserId, pero empezando justo después de la última fila de la página anterior
+     * (paginación por clave: un recorrido por rango del índice, sin OFFSET que obligue a saltar filas).
+     */
+    @Query("SELECT r.id AS id, r.title AS title, r.imageUrl AS imageUrl, r.readyInMinutes AS readyInMinutes, " +
+            "r.difficulty AS difficulty, r.category AS category, f.favoritedAt AS favoritedAt " +
+            "FROM FavoriteRecipe f JOIN f.recipe r WHERE f.id.userId = :userId " +
+            "AND (f.favoritedAt < :favoritedAt OR (f.favoritedAt = :favoritedAt AND f.id.recipeId < :recipeId)) " +
+            "ORDER BY f.favoritedAt DESC, f.id.recipeId DESC")
+    List<FavoritePreviewRow> findPreviewsByUserIdAfter(@Param("userId") Long userId,
+                                                       @Param("favoritedAt") Timestamp favoritedAt,
+                                                       @Param("recipeId") Long recipeId,
+                                                       Limit limit);
+
     // Busca una entrada de favorito específica por el ID del usuario y el ID de la receta.
     Optional<FavoriteRecipe> findByUserIdAndRecipeId(Long userId, Long recipeId);
 
     /*
-     * Elimina una entrada de favorito por el ID del usuario y el ID de la receta.
+     * Marca una receta como favorita con un solo INSERT IGNORE: si ya lo era (incluso si dos peticiones
+     * iguales llegan a la vez), no inserta nada ni falla. Devuelve 1 si se añadió y 0 si ya existía,
+     * para contar cada favorito una sola vez. La fecha la asigna la base de datos.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO favorite_recipes (user_id, recipe_id) VALUES (:userId, :recipeId)", nativeQuery = true)
+    int insertIgnore(@Param("userId") Long userId, @Param("recipeId") Long recipeId);
+
+    /*
+     * Elimina una entrada de favorito por el ID del usuario y el ID de la receta, con un solo DELETE.
+     * Devuelve el número de filas borradas (0 si la receta no era favorita), para no descontar dos veces.
      * @Transactional: Asegura que la operación de borrado se ejecute dentro de una transacción.
      */
     @Transactional
-    void deleteByUserIdAndRecipeId(Long userId, Long recipeId);
+    @Modifying
+    @Query("DELETE FROM FavoriteRecipe f WHERE f.id.userId = :userId AND f.id.recipeId = :recipeId")
+    int deleteByUserIdAndRecipeId(@Param("userId") Long userId, @Param("recipeId") Long recipeId);
+
+    // Proyección: columnas de previsualización de una receta favorita y cuándo se marcó.
+    interface FavoritePreviewRow {
+        Long getId();
+        String getTitle();
+        String getImageUrl();
+        Integer getReadyInMinutes();
+        String getDifficulty();
+        String getCategory();
+        Timestamp getFavoritedAt();
+    }
 }
\ No newline at end of file
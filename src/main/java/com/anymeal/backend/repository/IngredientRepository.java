@@ -7,11 +7,18 @@ package com.anymeal.backend.repository;
 
 import com.anymeal.backend.model.Ingredient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
     // Spring Data JPA proporciona métodos como save(), findById(), findAll(), deleteById(), etc.
     // Se podrían añadir métodos de consulta personalizados si fueran necesarios, por ejemplo:
     // Optional<Ingredient> findByName(String name);
+
+    // Devuelve solo el ID y el nombre de cada ingrediente, para compilar las reglas de compra.
+    @Query("SELECT i.id, i.name FROM Ingredient i")
+    List<Object[]> findIdAndNameRows();
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+/*
+ * Archivo: PantryItemRepository.java
+ * Propósito: Repositorio para la entidad PantryItem. Gestiona la despensa de cada usuario y ofrece
+ * consultas planas (sin entidades) para restar la despensa al generar la lista de compras.
+ */
+package com.anymeal.backend.repository;
+
+import com.anymeal.backend.model.PantryItem;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PantryItemRepository extends JpaRepository<PantryItem, Long> {
+
+    // Busca la despensa de un usuario, con el ingrediente ya cargado (para obtener el nombre).
+    @EntityGraph(attributePaths = "ingredient")
+    List<PantryItem> findByUserIdOrderByIdAsc(Long userId);
+
+    // Busca un elemento de la despensa por su ID y el ID del usuario, para asegurar que el usuario es el propietario.
+    Optional<PantryItem> findByIdAndUserId(Long id, Long userId);
+
+    // Busca un elemento de la despensa por ingrediente y unidad (solo puede haber uno).
+    Optional<PantryItem> findByUserIdAndIngredientIdAndUnit(Long userId, Long ingredientId, String unit);
+
+    // Devuelve toda la despensa de un usuario como filas planas.
+    @Query("SELECT p.ingredient.id AS ingredientId, p.unit AS unit, p.quantity AS quantity " +
+            "FROM PantryItem p WHERE p.user.id = :userId")
+    List<PantryRow> findRowsByUserId(@Param("userId") Long userId);
+
+    // Devuelve la despensa de un usuario solo para los ingredientes indicados.
+    @Query("SELECT p.ingredient.id AS ingredientId, p.unit AS unit, p.quantity AS quantity " +
+            "FROM PantryItem p WHERE p.user.id = :userId AND p.ingredient.id IN :ingredientIds")
+    List<PantryRow> findRowsByUserIdAndIngredientIdIn(@Param("userId") Long userId,
+                                                      @Param("ingredientIds") Collection<Long> ingredientIds);
+
+    // Proyección: cantidad de un ingrediente en la despensa.
+    interface PantryRow {
+        Long getIngredientId();
+        String getUnit();
+        Double getQuantity();
+    }
+}
\ No newline at end of file
@@ -6,9 +6,16 @@
 package com.anymeal.backend.repository;
 
 import com.anymeal.backend.model.PlanEntry;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PlanEntryRepository extends JpaRepository<PlanEntry, Long> {
@@ -19,4 +26,116 @@ public interface PlanEntryRepository extends JpaRepository<PlanEntry, Long> {
      * Es útil para obtener todas las comidas de varios días a la vez.
      */
     List<PlanEntry> findByDailyPlanIdIn(List<Long> dailyPlanIds);
+
+    /*
+     * Inserta una entrada en el plan diario que acaba de crear o encontrar DailyPlanRepository.upsertForDate,
+     * usando LAST_INSERT_ID() de la misma conexión en lugar de consultar el ID del plan.
+     * Debe ejecutarse inmediatamente después de upsertForDate y dentro de la misma transacción.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO plan_entries (daily_plan_id, recipe_id, meal_type, servings) " +
+            "VALUES (LAST_INSERT_ID(), :recipeId, :mealType, :servings)", nativeQuery = true)
+    void insertIntoUpsertedPlan(@Param("recipeId") Long recipeId, @Param("mealType") String mealType,
+                                @Param("servings") Integer servings);
+
+    // Borra una entrada directamente, sin cargarla antes. Devuelve el número de filas borradas.
+    @Modifying
+    @Query("DELETE FROM PlanEntry pe WHERE pe.id = :id")
+    int deleteEntryById(@Param("id") Long id);
+
+    /*
+     * Devuelve solo el plan diario (con su fecha), la receta y las porciones de una entrada, sin cargar las entidades.
+     * Solo encuentra la entrada si pertenece al usuario indicado.
+     */
+    @Query("SELECT dp.id AS dailyPlanId, dp.planDate AS planDate, r.id AS recipeId, " +
+            "pe.servings AS servings, r.servings AS recipeServings " +
+            "FROM PlanEntry pe JOIN pe.dailyPlan dp JOIN pe.recipe r WHERE pe.id = :id AND dp.user.id = :userId")
+    Optional<EntryRef> findRefByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Igual que findRefByIdAndUserId, para todas las entradas de los planes diarios indicados.
+    @Query("SELECT dp.id AS dailyPlanId, dp.planDate AS planDate, r.id AS recipeId, " +
+            "pe.servings AS servings, r.servings AS recipeServings " +
+            "FROM PlanEntry pe JOIN pe.dailyPlan dp JOIN pe.recipe r WHERE dp.id IN :dailyPlanIds")
+    List<EntryRef> findRefsByDailyPlanIdIn(@Param("dailyPlanIds") Collection<Long> dailyPlanIds);
+
+    // Borra directamente todas las entradas de los planes diarios indicados, sin cargarlas antes.
+    @Modifying
+    @Query("DELETE FROM PlanEntry pe WHERE pe.dailyPlan.id IN :dailyPlanIds")
+    void deleteByDailyPlanIdIn(@Param("dailyPlanIds") Collection<Long> dailyPlanIds);
+
+    // Comidas ya planificadas de un usuario en un rango de fechas (día, tipo de comida y receta), sin cargar entidades.
+    @Query("SELECT dp.planDate AS planDate, pe.mealType AS mealType, pe.recipe.id AS recipeId " +
+            "FROM PlanEntry pe JOIN pe.dailyPlan dp " +
+            "WHERE dp.user.id = :userId AND dp.planDate BETWEEN :startDate AND :endDate")
+    List<PlannedMeal> findPlannedMeals(@Param("userId") Long userId,
+                                       @Param("startDate") LocalDate startDate,
+                                       @Param("endDate") LocalDate endDate);
+
+    /*
+     * Huella de las comidas de un usuario en un rango de fechas: cuántas hay y el mayor ID. Las entradas solo
+     * se insertan o se borran (nunca se modifican) y un ID nuevo siempre es mayor que los anteriores, así que
+     * cualquier cambio del plan en el rango cambia alguno de los dos valores.
+     */
+    @Query("SELECT COUNT(pe) AS entries, COALESCE(MAX(pe.id), 0) AS maxId " +
+            "FROM PlanEntry pe JOIN pe.dailyPlan dp " +
+            "WHERE dp.user.id = :userId AND dp.planDate BETWEEN :startDate AND :endDate")
+    PlanFingerprint findFingerprint(@Param("userId") Long userId,
+                                    @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate);
+
+    /*
+     * Devuelve una página de las comidas planificadas de un usuario en un rango de fechas para exportarlas,
+     * ordenadas por día y por ID: las que van después de la comida (afterDate, afterId) de la página anterior
+     * (paginación por clave; para la primera, el día anterior al rango y 0). Igual que
+     * ShoppingListItemRepository.findExportRowsAfter, cada página es una consulta corta.
+     */
+    @Query("SELECT pe.id AS id, dp.planDate AS planDate, pe.mealType AS mealType, r.id AS recipeId, r.title AS recipeTitle, " +
+            "pe.servings AS servings, dp.notes AS notes " +
+            "FROM PlanEntry pe JOIN pe.dailyPlan dp JOIN pe.recipe r " +
+            "WHERE dp.user.id = :userId AND dp.planDate BETWEEN :startDate AND :endDate " +
+            "AND (dp.planDate > :afterDate OR (dp.planDate = :afterDate AND pe.id > :afterId)) " +
+            "ORDER BY dp.planDate, pe.id")
+    List<PlanExportRow> findExportRowsAfter(@Param("userId") Long userId,
+                                            @Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate,
+                                            @Param("afterDate") LocalDate afterDate,
+                                            @Param("afterId") long afterId,
+                                            Limit limit);
+
+    // Proyección: una fila de la exportación del plan (una comida de un día).
+    interface PlanExportRow {
+        Long getId();
+        LocalDate getPlanDate();
+        String getMealType();
+        Long getRecipeId();
+        String getRecipeTitle();
+        Integer getServings();
+        String getNotes();
+    }
+
+    // Proyección: huella de las comidas de un rango (ver findFingerprint).
+    interface PlanFingerprint {
+        long getEntries();
+        long getMaxId();
+
+        default boolean matches(PlanFingerprint other) {
+            return getEntries() == other.getEntries() && getMaxId() == other.getMaxId();
+        }
+    }
+
+    // Proyección: una comida ya planificada (la usa el generador automático para no pisarla ni repetirla).
+    interface PlannedMeal {
+        LocalDate getPlanDate();
+        String getMealType();
+        Long getRecipeId();
+    }
+
+    // Proyección con las claves foráneas de una entrada del plan.
+    interface EntryRef {
+        Long getDailyPlanId();
+        LocalDate getPlanDate();
+        Long getRecipeId();
+        Integer getServings();
+        Integer getRecipeServings();
+    }
 }
\ No newline at end of file
@@ -7,7 +7,11 @@ package com.anymeal.backend.repository;
 
 import com.anymeal.backend.model.RecipeIngredient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,4 +19,53 @@ public interface RecipeIngredientRepository extends JpaRepository<RecipeIngredie
 
     // Busca todos los registros de RecipeIngredient que pertenecen a una lista de IDs de recetas.
     List<RecipeIngredient> findAllByRecipeIdIn(List<Long> recipeIds);
+
+    /*
+     * Suma, directamente en la base de datos, las cantidades de ingredientes de todas las comidas
+     * planificadas por un usuario en un rango de fechas.
+     * Se une plan_entries con recipe_ingredients, de modo que una receta planificada tres veces aporta
+     * sus ingredientes tres veces. Se agrupa por ingrediente y unidad (en minúsculas; sin unidad = "unidad").
+     * Una cantidad nula cuenta como 1, igual que en IngredientAggregator.
+     * Cada cantidad se escala por porciones planificadas / porciones de la receta (ver Servings.scale);
+     * si falta alguno de los dos datos, no se escala.
+     */
+    @Query("SELECT i.id AS ingredientId, i.name AS name, COALESCE(LOWER(ri.unit), 'unidad') AS unit, " +
+            "SUM(COALESCE(ri.amount, 1.0) * COALESCE(pe.servings * 1.0 / NULLIF(r.servings, 0), 1.0)) AS amount " +
+            "FROM PlanEntry pe JOIN pe.dailyPlan dp JOIN pe.recipe r, RecipeIngredient ri JOIN ri.ingredient i " +
+            "WHERE ri.recipe = r AND dp.user.id = :userId AND dp.planDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY i.id, i.name, COALESCE(LOWER(ri.unit), 'unidad')")
+    List<IngredientTotal> sumIngredientsForPlan(@Param("userId") Long userId,
+                                                @Param("startDate") LocalDate startDate,
+                                                @Param("endDate") LocalDate endDate);
+
+    // Igual que sumIngredientsForPlan, pero solo para los ingredientes indicados.
+    @Query("SELECT i.id AS ingredientId, i.name AS name, COALESCE(LOWER(ri.unit), 'unidad') AS unit, " +
+            "SUM(COALESCE(ri.amount, 1.0) * COALESCE(pe.servings * 1.0 / NULLIF(r.servings, 0), 1.0)) AS amount " +
+            "FROM PlanEntry pe JOIN pe.dailyPlan dp JOIN pe.recipe r, RecipeIngredient ri JOIN ri.ingredient i " +
+            "WHERE ri.recipe = r AND dp.user.id = :userId AND dp.planDate BETWEEN :startDate AND :endDate " +
+            "AND i.id IN :ingredientIds " +
+            "GROUP BY i.id, i.name, COALESCE(LOWER(ri.unit), 'unidad')")
+    List<IngredientTotal> sumIngredientsForPlanAndIngredients(@Param("userId") Long userId,
+                                                              @Param("startDate") LocalDate startDate,
+                                                              @Param("endDate") LocalDate endDate,
+                                                              @Param("ingredientIds") Collection<Long> ingredientIds);
+
+    // Devuelve los ingredientes de varias recetas como filas planas (sin cargar entidades ni proxies).
+    @Query("SELECT ri.recipe.id AS recipeId, i.id AS ingredientId, i.name AS name, " +
+            "COALESCE(LOWER(ri.unit), 'unidad') AS unit, COALESCE(ri.amount, 1.0) AS amount " +
+            "FROM RecipeIngredient ri JOIN ri.ingredient i WHERE ri.recipe.id IN :recipeIds")
+    List<RecipeIngredientRow> findRowsByRecipeIdIn(@Param("recipeIds") Collection<Long> recipeIds);
+
+    // Proyección: cantidad total de un ingrediente en una unidad.
+    interface IngredientTotal {
+        Long getIngredientId();
+        String getName();
+        String getUnit();
+        Double getAmount();
+    }
+
+    // Proyección: un ingrediente de una receta concreta.
+    interface RecipeIngredientRow extends IngredientTotal {
+        Long getRecipeId();
+    }
 }
\ No newline at end of file
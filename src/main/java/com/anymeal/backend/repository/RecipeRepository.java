@@ -6,11 +6,15 @@
 package com.anymeal.backend.repository;
 
 import com.anymeal.backend.model.Recipe;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
@@ -30,4 +34,52 @@ public interface RecipeRepository extends JpaRepository<Recipe, Long> {
             "OR LOWER(r.category) LIKE LOWER(CONCAT('%', :query, '%')) " +
             "OR LOWER(i.name) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<Recipe> searchRecipes(@Param("query") String query);
+
+    /*
+     * Devuelve solo las columnas que necesita el catálogo en memoria del generador de planes
+     * (id, tiempo de preparación, dietas y nutrición), sin cargar entidades completas.
+     * Cada fila es un arreglo: [id, readyInMinutes, diets, nutritionInfo].
+     */
+    @Query("SELECT r.id, r.readyInMinutes, r.diets, r.nutritionInfo FROM Recipe r")
+    List<Object[]> findCatalogRows();
+
+    // Devuelve solo el JSON nutricional de una receta (vacío si la receta no existe o no lo tiene).
+    @Query("SELECT r.nutritionInfo FROM Recipe r WHERE r.id = :id")
+    Optional<String> findNutritionInfoById(@Param("id") Long id);
+
+    // Devuelve solo el número de porciones de una receta.
+    @Query("SELECT r.servings FROM Recipe r WHERE r.id = :id")
+    Optional<Integer> findServingsById(@Param("id") Long id);
+
+    /*
+     * Corrige la columna desnormalizada favorite_count de las recetas cuyo valor no coincide con
+     * favorite_recipes (ej: un volcado que no llegó a hacerse) y devuelve cuántas se corrigieron. Solo se
+     * escriben las filas desalineadas. Se usa al arrancar (ver FavoriteCounters); el resto del tiempo la
+     * columna se mantiene con volcados por lotes.
+     * Se usa una subconsulta correlacionada (resuelta con el índice de recipe_id) en lugar de UPDATE ... JOIN,
+     * que es exclusivo de MySQL, para que también funcione en la base de datos embebida de las pruebas de carga.
+     */
+    @Modifying
+    @Query(value = "UPDATE recipes SET favorite_count = " +
+            "(SELECT COUNT(*) FROM favorite_recipes f WHERE f.recipe_id = recipes.id) " +
+            "WHERE favorite_count <> (SELECT COUNT(*) FROM favorite_recipes f WHERE f.recipe_id = recipes.id)", nativeQuery = true)
+    int repairFavoriteCounts();
+
+    // Devuelve el valor de favorite_count de las recetas con al menos un favorito (para cargar los contadores).
+    @Query("SELECT r.id AS recipeId, r.favoriteCount AS total FROM Recipe r WHERE r.favoriteCount > 0")
+    List<FavoriteCount> findFavoriteCounts();
+
+    // Devuelve el valor de favorite_count de las recetas indicadas.
+    @Query("SELECT r.id AS recipeId, r.favoriteCount AS total FROM Recipe r WHERE r.id IN :ids")
+    List<FavoriteCount> findFavoriteCountsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Proyección: número de favoritos de una receta según la columna favorite_count.
+    interface FavoriteCount {
+        Long getRecipeId();
+        Integer getTotal();
+    }
+
+    // Carga una receta junto con sus ingredientes (y el nombre de cada uno) en una sola consulta.
+    @EntityGraph(attributePaths = {"ingredients", "ingredients.ingredient"})
+    Optional<Recipe> findWithIngredientsById(Long id);
 }
\ No newline at end of file
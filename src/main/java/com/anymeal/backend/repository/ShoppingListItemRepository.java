@@ -6,9 +6,15 @@
 package com.anymeal.backend.repository;
 
 import com.anymeal.backend.model.ShoppingListItem;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +24,62 @@ public interface ShoppingListItemRepository extends JpaRepository<ShoppingListIt
     // Busca todos los artículos de la lista de compras de un usuario específico.
     List<ShoppingListItem> findByUserId(Long userId);
 
+    // Busca los artículos de un usuario asociados a cualquiera de los ingredientes indicados.
+    List<ShoppingListItem> findByUserIdAndIngredientIdIn(Long userId, Collection<Long> ingredientIds);
+
+    // Busca varios artículos de un usuario por sus IDs, con su ingrediente ya cargado (para obtener el nombre).
+    @EntityGraph(attributePaths = "ingredient")
+    List<ShoppingListItem> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
+    // Marca o desmarca de una sola vez varios artículos, solo si pertenecen al usuario. Devuelve las filas cambiadas.
+    @Modifying
+    @Query("UPDATE ShoppingListItem i SET i.isChecked = :checked, i.rowVersion = :version " +
+            "WHERE i.user.id = :userId AND i.id IN :ids")
+    int updateCheckedForUser(@Param("userId") Long userId, @Param("ids") Collection<Long> ids,
+                             @Param("checked") boolean checked, @Param("version") long version);
+
+    /*
+     * Cambia nombre, cantidad y unidad de varios artículos del usuario. Los valores nulos dejan el campo como estaba.
+     * Si cambia la cantidad o la unidad, el artículo queda marcado como editado por el usuario.
+     */
+    @Modifying
+    @Query("UPDATE ShoppingListItem i SET i.customName = COALESCE(:customName, i.customName), " +
+            "i.amount = COALESCE(:amount, i.amount), i.unit = COALESCE(:unit, i.unit), " +
+            "i.userEdited = CASE WHEN :amount IS NULL AND :unit IS NULL THEN i.userEdited ELSE true END, " +
+            "i.rowVersion = :version " +
+            "WHERE i.user.id = :userId AND i.id IN :ids")
+    int updateContentForUser(@Param("userId") Long userId, @Param("ids") Collection<Long> ids,
+                             @Param("customName") String customName, @Param("amount") Double amount,
+                             @Param("unit") String unit, @Param("version") long version);
+
+    // Busca los artículos de un usuario creados o modificados después de una versión de la lista.
+    @EntityGraph(attributePaths = "ingredient")
+    List<ShoppingListItem> findByUserIdAndRowVersionGreaterThan(Long userId, Long version);
+
+    // Igual que findByUserId, pero con el ingrediente ya cargado (para obtener el nombre sin consultas extra).
+    @EntityGraph(attributePaths = "ingredient")
+    List<ShoppingListItem> findWithIngredientByUserId(Long userId);
+
+    /*
+     * Devuelve una página de la lista de un usuario para exportarla: los ítems con ID mayor que 'afterId'
+     * (0 para la primera), en orden de ID (paginación por clave). Cada página es una consulta corta, así
+     * que la conexión vuelve al pool mientras se escribe la respuesta. Devuelve proyecciones, no entidades.
+     */
+    @Query("SELECT i.id AS id, COALESCE(ing.name, i.customName) AS name, i.amount AS amount, i.unit AS unit, " +
+            "i.category AS category, i.isChecked AS checked " +
+            "FROM ShoppingListItem i LEFT JOIN i.ingredient ing WHERE i.user.id = :userId AND i.id > :afterId ORDER BY i.id")
+    List<ItemExportRow> findExportRowsAfter(@Param("userId") Long userId, @Param("afterId") long afterId, Limit limit);
+
+    // Proyección: una fila de la exportación de la lista de compras.
+    interface ItemExportRow {
+        Long getId();
+        String getName();
+        Double getAmount();
+        String getUnit();
+        String getCategory();
+        Boolean getChecked();
+    }
+
     // Busca un artículo específico por su ID y el ID del usuario, para asegurar que el usuario es el propietario.
     Optional<ShoppingListItem> findByIdAndUserId(Long id, Long userId);
 
@@ -0,0 +1,15 @@
+/*
+ * Archivo: ShoppingListStateRepository.java
+ * Propósito: Repositorio para la entidad ShoppingListState. Permite saber para qué rango de fechas
+ * del plan se generó la lista de compras de cada usuario.
+ */
+package com.anymeal.backend.repository;
+
+import com.anymeal.backend.model.ShoppingListState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ShoppingListStateRepository extends JpaRepository<ShoppingListState, Long> {
+    // La clave primaria es el ID del usuario, así que findById(userId) basta para las consultas.
+}
@@ -0,0 +1,34 @@
+/*
+ * Archivo: ShoppingListTombstoneRepository.java
+ * Propósito: Repositorio para la entidad ShoppingListTombstone. Guarda y consulta las marcas de los
+ * ítems borrados de la lista de compras.
+ */
+package com.anymeal.backend.repository;
+
+import com.anymeal.backend.model.ShoppingListTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface ShoppingListTombstoneRepository extends JpaRepository<ShoppingListTombstone, Long> {
+
+    // Devuelve los IDs de los ítems borrados de la lista de un usuario después de una versión.
+    @Query("SELECT t.itemId FROM ShoppingListTombstone t WHERE t.userId = :userId AND t.version > :since")
+    List<Long> findItemIdsDeletedSince(@Param("userId") Long userId, @Param("since") long since);
+
+    // Registra de una vez el borrado de todos los ítems marcados como comprados de un usuario (antes de borrarlos).
+    @Modifying
+    @Query(value = "INSERT INTO shopping_list_tombstones (user_id, item_id, version) " +
+            "SELECT user_id, id, :version FROM shopping_list_items WHERE user_id = :userId AND is_checked = TRUE",
+            nativeQuery = true)
+    int insertForCheckedItems(@Param("userId") Long userId, @Param("version") long version);
+
+    // Borra todas las marcas de un usuario (tras regenerar la lista ya no sirven).
+    @Modifying
+    @Query("DELETE FROM ShoppingListTombstone t WHERE t.userId = :userId")
+    void deleteAllForUser(@Param("userId") Long userId);
+}
\ No newline at end of file
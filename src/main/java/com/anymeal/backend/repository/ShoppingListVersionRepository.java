@@ -0,0 +1,38 @@
+/*
+ * Archivo: ShoppingListVersionRepository.java
+ * Propósito: Repositorio para la entidad ShoppingListVersion. Incrementa de forma atómica la versión
+ * de la lista de compras de un usuario.
+ */
+package com.anymeal.backend.repository;
+
+import com.anymeal.backend.model.ShoppingListVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ShoppingListVersionRepository extends JpaRepository<ShoppingListVersion, Long> {
+
+    /*
+     * Incrementa la versión de la lista del usuario (o la crea con versión 1) con un único upsert atómico.
+     * La nueva versión queda en LAST_INSERT_ID() de la conexión: léala con lastInsertId() a continuación,
+     * dentro de la misma transacción. La fila queda bloqueada hasta el commit, así que las versiones de
+     * un mismo usuario se asignan en el orden en que se confirman los cambios.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO shopping_list_versions (user_id, list_version, reset_version) " +
+            "VALUES (:userId, LAST_INSERT_ID(1), 0) " +
+            "ON DUPLICATE KEY UPDATE list_version = LAST_INSERT_ID(list_version + 1)", nativeQuery = true)
+    void bumpVersion(@Param("userId") Long userId);
+
+    // Devuelve el valor de LAST_INSERT_ID() de la conexión actual.
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    long lastInsertId();
+
+    // Registra que la lista se regeneró por completo en la versión indicada.
+    @Modifying
+    @Query("UPDATE ShoppingListVersion v SET v.resetVersion = :version WHERE v.userId = :userId")
+    void markReset(@Param("userId") Long userId, @Param("version") long version);
+}
\ No newline at end of file
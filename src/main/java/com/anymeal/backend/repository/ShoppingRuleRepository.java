@@ -0,0 +1,15 @@
+/*
+ * Archivo: ShoppingRuleRepository.java
+ * Propósito: Repositorio para la entidad ShoppingRule. Provee las reglas de compra que
+ * ShoppingRuleEngine compila en memoria.
+ */
+package com.anymeal.backend.repository;
+
+import com.anymeal.backend.model.ShoppingRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ShoppingRuleRepository extends JpaRepository<ShoppingRule, Long> {
+    // Las reglas son pocas: findAll() y saveAll() bastan para cargarlas y sembrarlas.
+}
\ No newline at end of file
@@ -7,6 +7,9 @@ package com.anymeal.backend.repository;
 
 import com.anymeal.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
@@ -25,4 +28,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return 'true' si el email ya está en uso, 'false' en caso contrario.
      */
     Boolean existsByEmail(String email);
+
+    // Actualiza el nombre de usuario y el email con un solo UPDATE, sin cargar antes la entidad.
+    @Modifying
+    @Query("UPDATE User u SET u.username = :username, u.email = :email WHERE u.id = :id")
+    int updateProfile(@Param("id") Long id, @Param("username") String username, @Param("email") String email);
+
+    // Actualiza la contraseña (ya cifrada) con un solo UPDATE, sin cargar antes la entidad.
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String encodedPassword);
 }
\ No newline at end of file
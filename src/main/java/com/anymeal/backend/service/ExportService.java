@@ -0,0 +1,209 @@
+/*
+ * Archivo: ExportService.java
+ * Propósito: Exporta la lista de compras y el plan de comidas en CSV o NDJSON (un objeto JSON por línea).
+ * Las filas se leen por páginas (paginación por clave) y cada página se escribe en la respuesta antes de
+ * pedir la siguiente, así que la memoria usada no depende de cuántos ítems o meses se exporten. Cada
+ * página es una consulta corta: no se retiene una conexión del pool mientras el cliente descarga.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.repository.PlanEntryRepository;
+import com.anymeal.backend.repository.ShoppingListItemRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    // Rango máximo de una exportación del plan (algo más de cinco años).
+    private static final int MAX_PLAN_EXPORT_DAYS = 5 * 366;
+    // Filas que se leen en cada consulta.
+    private static final int PAGE_SIZE = 500;
+
+    private final ShoppingListItemRepository shoppingListItemRepository;
+    private final PlanEntryRepository planEntryRepository;
+    private final ObjectMapper objectMapper;
+
+    // Formatos de exportación disponibles y su tipo de contenido HTTP.
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() { return contentType; }
+        public String extension() { return extension; }
+
+        // Interpreta el parámetro 'format' (por defecto CSV). Lanza IllegalArgumentException si no se reconoce.
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) {
+                return CSV;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Formato de exportación no soportado: " + value);
+            }
+        }
+    }
+
+    // Comprueba un rango de fechas antes de empezar a escribir la respuesta (después ya no se puede devolver un 400).
+    public void validatePlanRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("Rango de fechas no válido");
+        }
+        if (startDate.plusDays(MAX_PLAN_EXPORT_DAYS).isBefore(endDate)) {
+            throw new IllegalArgumentException("El rango de fechas es demasiado largo");
+        }
+    }
+
+    /*
+     * Escribe la lista de compras del usuario. Se ejecuta en el hilo de la respuesta asíncrona
+     * (StreamingResponseBody) y sin transacción: cada página se lee en su propia consulta.
+     */
+    public void writeShoppingList(Long userId, Format format, OutputStream out) throws IOException {
+        PageReader<ShoppingListItemRepository.ItemExportRow> pages = last -> shoppingListItemRepository.findExportRowsAfter(
+                userId, last != null ? last.getId() : 0L, Limit.of(PAGE_SIZE));
+        if (format == Format.NDJSON) {
+            writeNdjson(out, pages, (json, row) -> {
+                json.writeNumberField("id", row.getId());
+                json.writeStringField("name", row.getName());
+                writeNullableNumber(json, "amount", row.getAmount());
+                json.writeStringField("unit", row.getUnit());
+                json.writeStringField("category", row.getCategory());
+                json.writeBooleanField("checked", Boolean.TRUE.equals(row.getChecked()));
+            });
+        } else {
+            writeCsv(out, pages, "id,name,amount,unit,category,checked", (csv, row) -> {
+                csvRow(csv, row.getId(), row.getName(), row.getAmount(), row.getUnit(), row.getCategory(),
+                        Boolean.TRUE.equals(row.getChecked()));
+            });
+        }
+    }
+
+    // Escribe las comidas planificadas del usuario entre dos fechas, una fila por comida.
+    public void writePlan(Long userId, LocalDate startDate, LocalDate endDate, Format format, OutputStream out) throws IOException {
+        PageReader<PlanEntryRepository.PlanExportRow> pages = last -> planEntryRepository.findExportRowsAfter(userId, startDate, endDate,
+                last != null ? last.getPlanDate() : startDate.minusDays(1), last != null ? last.getId() : 0L, Limit.of(PAGE_SIZE));
+        if (format == Format.NDJSON) {
+            writeNdjson(out, pages, (json, row) -> {
+                json.writeStringField("date", row.getPlanDate().toString());
+                json.writeStringField("mealType", row.getMealType());
+                json.writeNumberField("recipeId", row.getRecipeId());
+                json.writeStringField("recipeTitle", row.getRecipeTitle());
+                writeNullableNumber(json, "servings", row.getServings());
+                json.writeStringField("notes", row.getNotes());
+            });
+        } else {
+            writeCsv(out, pages, "date,mealType,recipeId,recipeTitle,servings,notes", (csv, row) -> {
+                csvRow(csv, row.getPlanDate(), row.getMealType(), row.getRecipeId(), row.getRecipeTitle(),
+                        row.getServings(), row.getNotes());
+            });
+        }
+    }
+
+    // Lee la página que sigue a la última fila de la anterior ('last' es null para la primera).
+    @FunctionalInterface
+    private interface PageReader<T> {
+        List<T> next(T last);
+    }
+
+    // Procesa una fila de una página.
+    @FunctionalInterface
+    private interface RowAction<T> {
+        void accept(T row) throws IOException;
+    }
+
+    // Escribe una fila de un tipo concreto en el formato de salida.
+    @FunctionalInterface
+    private interface RowWriter<W, T> {
+        void write(W target, T row) throws IOException;
+    }
+
+    private <T> void writeCsv(OutputStream out, PageReader<T> pages, String header, RowWriter<Writer, T> rowWriter) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        csv.write(header);
+        csv.write('\n');
+        forEachRow(pages, row -> rowWriter.write(csv, row));
+        csv.flush();
+    }
+
+    private <T> void writeNdjson(OutputStream out, PageReader<T> pages, RowWriter<JsonGenerator, T> rowWriter) throws IOException {
+        // El generador no cierra la salida: la cierra Spring al terminar la respuesta.
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            json.setRootValueSeparator(null);
+            forEachRow(pages, row -> {
+                json.writeStartObject();
+                rowWriter.write(json, row);
+                json.writeEndObject();
+                json.writeRaw('\n');
+            });
+        }
+    }
+
+    // Recorre todas las páginas; una página incompleta es la última.
+    private static <T> void forEachRow(PageReader<T> pages, RowAction<T> action) throws IOException {
+        T last = null;
+        List<T> page;
+        do {
+            page = pages.next(last);
+            for (T row : page) {
+                action.accept(row);
+            }
+            if (!page.isEmpty()) {
+                last = page.get(page.size() - 1);
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    private static void writeNullableNumber(JsonGenerator json, String field, Number value) throws IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else if (value instanceof Integer || value instanceof Long) {
+            json.writeNumberField(field, value.longValue());
+        } else {
+            json.writeNumberField(field, value.doubleValue());
+        }
+    }
+
+    // Escribe una fila CSV (RFC 4180): los valores con comas, comillas o saltos de línea van entre comillas.
+    private static void csvRow(Writer csv, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.write(',');
+            }
+            if (values[i] != null) {
+                String text = values[i].toString();
+                if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                    csv.write('"');
+                    csv.write(text.replace("\"", "\"\""));
+                    csv.write('"');
+                } else {
+                    csv.write(text);
+                }
+            }
+        }
+        csv.write('\n');
+    }
+}
\ No newline at end of file
@@ -0,0 +1,179 @@
+/*
+ * Archivo: FavoriteCounters.java
+ * Propósito: Lleva en memoria cuántos usuarios tienen cada receta en favoritos ("favorita de N personas").
+ * Los cambios de esta instancia (LongAdder, sin bloqueos) se acumulan como diferencias y se vuelcan
+ * periódicamente a la columna desnormalizada recipes.favorite_count con UPDATEs por lotes que suman
+ * (favorite_count = favorite_count + ?), así ninguna petición necesita un COUNT(*) sobre favorite_recipes
+ * y varias instancias pueden volcar sin pisarse los cambios.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.repository.RecipeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@RequiredArgsConstructor
+public class FavoriteCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(FavoriteCounters.class);
+
+    private final RecipeRepository recipeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Número máximo de recetas por lote de UPDATE al volcar los contadores.
+    @Value("${anymeal.favorite-counts.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    /*
+     * Si al arrancar se corrigen las recetas cuyo favorite_count no coincide con favorite_recipes. Con varias
+     * instancias conviene desactivarlo: los cambios aún no volcados de las demás parecerían un desajuste y,
+     * tras corregirlo, se sumarían dos veces.
+     */
+    @Value("${anymeal.favorite-counts.repair-on-startup:true}")
+    private boolean repairOnStartup;
+
+    // Último valor leído de la columna favorite_count (más lo que esta instancia ya volcó).
+    private final Map<Long, Long> stored = new ConcurrentHashMap<>();
+
+    // Cambios de esta instancia que aún no se han volcado, por receta.
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    // Recetas con cambios pendientes desde el último volcado.
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    // Se activa cuando los contadores se han cargado desde la tabla; antes, count() devuelve null.
+    private volatile boolean loaded;
+
+    /*
+     * Al arrancar, corrige solo las recetas cuya columna favorite_count está desalineada (ej: el último
+     * volcado no llegó a hacerse) y carga los valores de la columna en memoria.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (repairOnStartup) {
+            Integer repaired = transactionTemplate.execute(status -> recipeRepository.repairFavoriteCounts());
+            if (repaired != null && repaired > 0) {
+                logger.warn("Contadores de favoritos desalineados corregidos: {} recetas", repaired);
+            }
+        }
+        for (RecipeRepository.FavoriteCount row : recipeRepository.findFavoriteCounts()) {
+            stored.put(row.getRecipeId(), row.getTotal().longValue());
+        }
+        loaded = true;
+        logger.info("Contadores de favoritos cargados: {} recetas", stored.size());
+    }
+
+    // Devuelve cuántos usuarios tienen la receta en favoritos (null si los contadores aún no se han cargado).
+    public Long count(Long recipeId) {
+        if (!loaded || recipeId == null) {
+            return null;
+        }
+        LongAdder adder = pending.get(recipeId);
+        long total = stored.getOrDefault(recipeId, 0L) + (adder != null ? adder.sum() : 0L);
+        return Math.max(0L, total);
+    }
+
+    // Registra un favorito añadido. Se aplica al confirmarse la transacción en curso.
+    public void increment(Long recipeId) {
+        TransactionHooks.afterCommit(() -> change(recipeId, 1));
+    }
+
+    // Registra un favorito quitado. Se aplica al confirmarse la transacción en curso.
+    public void decrement(Long recipeId) {
+        TransactionHooks.afterCommit(() -> change(recipeId, -1));
+    }
+
+    private void change(Long recipeId, long delta) {
+        pending.computeIfAbsent(recipeId, id -> new LongAdder()).add(delta);
+        // Se marca después de sumar: si el volcado ya quitó la marca, el cambio se volcará en el siguiente.
+        dirty.add(recipeId);
+    }
+
+    /*
+     * Vuelca a la base de datos los cambios pendientes, con UPDATEs que suman la diferencia agrupados en lotes.
+     * Cada lote es una transacción: si falla, no se aplica nada y sus recetas se vuelven a marcar para el
+     * siguiente volcado.
+     */
+    @Scheduled(fixedDelayString = "${anymeal.favorite-counts.flush-interval-ms:30000}")
+    public void flush() {
+        if (!loaded || dirty.isEmpty()) {
+            return;
+        }
+        List<Long> batch = new ArrayList<>(flushBatchSize);
+        Iterator<Long> iterator = dirty.iterator();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            iterator.remove();
+            if (batch.size() == flushBatchSize) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+    }
+
+    // Al detener la aplicación se vuelca lo pendiente para no perderlo.
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void writeBatch(List<Long> recipeIds) {
+        // La diferencia se lee después de quitar la marca; lo que se sume después queda para el siguiente volcado.
+        List<Long> flushedIds = new ArrayList<>(recipeIds.size());
+        List<Object[]> args = new ArrayList<>(recipeIds.size());
+        for (Long recipeId : recipeIds) {
+            long delta = pending.get(recipeId).sum();
+            if (delta != 0) {
+                flushedIds.add(recipeId);
+                args.add(new Object[]{delta, recipeId});
+            }
+        }
+        if (args.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate("UPDATE recipes SET favorite_count = favorite_count + ? WHERE id = ?", args));
+        } catch (RuntimeException e) {
+            dirty.addAll(recipeIds);
+            logger.warn("No se pudieron volcar los contadores de favoritos; se reintentará", e);
+            return;
+        }
+        // Se resta exactamente lo volcado (los cambios llegados mientras tanto siguen pendientes).
+        for (int i = 0; i < flushedIds.size(); i++) {
+            long delta = (long) args.get(i)[0];
+            stored.merge(flushedIds.get(i), delta, Long::sum);
+            pending.get(flushedIds.get(i)).add(-delta);
+        }
+        // Se relee la columna para ver también los cambios que hayan volcado otras instancias.
+        try {
+            for (RecipeRepository.FavoriteCount row : recipeRepository.findFavoriteCountsByIdIn(flushedIds)) {
+                stored.put(row.getRecipeId(), row.getTotal().longValue());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron releer los contadores de favoritos", e);
+        }
+    }
+}
\ No newline at end of file
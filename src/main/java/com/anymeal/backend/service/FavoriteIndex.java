@@ -0,0 +1,136 @@
+/*
+ * Archivo: FavoriteIndex.java
+ * Propósito: Mantiene en memoria, por usuario, un mapa de bits comprimido (RoaringBitmap) con los IDs de
+ * sus recetas favoritas. Permite marcar cada receta de una búsqueda o de un plan como favorita o no
+ * con una consulta O(1) en memoria, sin que la app tenga que descargar los favoritos y cruzarlos.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.repository.FavoriteRecipeRepository;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Component
+@RequiredArgsConstructor
+public class FavoriteIndex {
+
+    private final FavoriteRecipeRepository favoriteRecipeRepository;
+
+    // Número máximo de usuarios cuyos favoritos se guardan en memoria.
+    @Value("${anymeal.favorites-cache.max-users:10000}")
+    private int maxUsers;
+
+    /*
+     * Favoritos de cada usuario cargado. Los mapas de bits publicados nunca se modifican: cada cambio
+     * crea una copia (copy-on-write), así que se pueden leer sin bloqueos desde cualquier hilo.
+     */
+    private final Map<Long, RoaringBitmap> favoritesByUser = new ConcurrentHashMap<>();
+
+    /*
+     * Contador de cambios por grupo de usuarios (el ID del usuario elige el grupo). Una carga solo se publica
+     * si el contador de su grupo no cambió mientras se leía la base de datos: si cambió, el cambio pudo
+     * aplicarse cuando el usuario aún no estaba cargado y la lectura pudo no verlo.
+     */
+    private static final int VERSION_STRIPES = 1024;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    /*
+     * Devuelve los favoritos de un usuario, cargándolos de la base de datos la primera vez.
+     * El resultado es de solo lectura y se consulta con isFavorite. Con usuario nulo devuelve null.
+     * Si un favorito del usuario cambia durante la carga, el resultado se devuelve pero no se guarda:
+     * la siguiente llamada vuelve a leer la base de datos.
+     */
+    public RoaringBitmap favoritesOf(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        RoaringBitmap favorites = favoritesByUser.get(userId);
+        if (favorites != null) {
+            return favorites;
+        }
+        int stripe = stripe(userId);
+        long version = versions.get(stripe);
+        RoaringBitmap loaded = new RoaringBitmap();
+        for (Long recipeId : favoriteRecipeRepository.findRecipeIdsByUserId(userId)) {
+            if (fits(recipeId)) {
+                loaded.add(recipeId.intValue());
+            }
+        }
+        loaded.runOptimize();
+        evictIfFull();
+        // Si otro hilo lo cargó a la vez, se usa el suyo para no perder un cambio que ya le haya aplicado;
+        // si hubo cambios durante la lectura, no se guarda nada.
+        RoaringBitmap published = favoritesByUser.compute(userId, (id, current) ->
+                current != null ? current : versions.get(stripe) == version ? loaded : null);
+        return published != null ? published : loaded;
+    }
+
+    // Indica si una receta está en los favoritos devueltos por favoritesOf (null = desconocido).
+    public static Boolean isFavorite(RoaringBitmap favorites, Long recipeId) {
+        if (favorites == null || recipeId == null) {
+            return null;
+        }
+        return fits(recipeId) && favorites.contains(recipeId.intValue());
+    }
+
+    // Registra una receta añadida a favoritos. Se aplica al confirmarse la transacción en curso.
+    public void added(Long userId, Long recipeId) {
+        TransactionHooks.afterCommit(() -> update(userId, recipeId, true));
+    }
+
+    // Registra una receta quitada de favoritos. Se aplica al confirmarse la transacción en curso.
+    public void removed(Long userId, Long recipeId) {
+        TransactionHooks.afterCommit(() -> update(userId, recipeId, false));
+    }
+
+    /*
+     * Solo se actualizan los usuarios ya cargados: los demás leerán el cambio de la base de datos
+     * cuando se carguen. El contador se incrementa antes, para que una carga en curso (que pudo leer la
+     * base de datos antes de confirmarse el cambio) no se publique sin él.
+     */
+    private void update(Long userId, Long recipeId, boolean favorite) {
+        if (!fits(recipeId)) {
+            return;
+        }
+        versions.incrementAndGet(stripe(userId));
+        favoritesByUser.computeIfPresent(userId, (id, current) -> {
+            if (current.contains(recipeId.intValue()) == favorite) {
+                return current;
+            }
+            RoaringBitmap copy = current.clone();
+            if (favorite) {
+                copy.add(recipeId.intValue());
+            } else {
+                copy.remove(recipeId.intValue());
+            }
+            return copy;
+        });
+    }
+
+    // Si se alcanza el máximo de usuarios, se descarta uno cualquiera (se volverá a cargar si lo necesita).
+    private void evictIfFull() {
+        if (favoritesByUser.size() >= maxUsers) {
+            Iterator<Long> iterator = favoritesByUser.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (VERSION_STRIPES - 1);
+    }
+
+    // RoaringBitmap guarda enteros de 32 bits sin signo; los IDs de receta (autoincrementales) caben de sobra.
+    private static boolean fits(Long recipeId) {
+        return recipeId != null && recipeId >= 0 && recipeId <= 0xFFFFFFFFL;
+    }
+}
\ No newline at end of file
@@ -5,16 +5,20 @@
  */
 package com.anymeal.backend.service;
 
+import com.anymeal.backend.dto.FavoritesPageResponse;
+import com.anymeal.backend.dto.RecipePreview;
+import com.anymeal.backend.dto.RecipePreviewList;
 import com.anymeal.backend.dto.RecipePreviewResponse;
-import com.anymeal.backend.model.FavoriteRecipe;
-import com.anymeal.backend.model.FavoriteRecipeId;
-import com.anymeal.backend.model.Recipe;
 import com.anymeal.backend.model.User;
 import com.anymeal.backend.repository.FavoriteRecipeRepository;
+import com.anymeal.backend.repository.FavoriteRecipeRepository.FavoritePreviewRow;
 import com.anymeal.backend.repository.RecipeRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,61 +28,126 @@ public class FavoriteService {
 
     private final FavoriteRecipeRepository favoriteRecipeRepository;
     private final RecipeRepository recipeRepository;
+    private final FavoriteIndex favoriteIndex;
+    private final FavoriteCounters favoriteCounters;
+    private final RecipePreviewFragments previewFragments;
 
-    // Obtiene la lista de recetas favoritas de un usuario.
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Obtiene la lista completa de recetas favoritas de un usuario, de la más reciente a la más antigua.
     @Transactional(readOnly = true) // Transacción de solo lectura para mejorar el rendimiento.
     public List<RecipePreviewResponse> getFavorites(User user) {
-        // Busca todas las entradas de favoritos para el usuario.
-        List<FavoriteRecipe> favoriteEntries = favoriteRecipeRepository.findByUserId(user.getId());
-        // Extrae los IDs de las recetas favoritas.
-        List<Long> recipeIds = favoriteEntries.stream()
-                .map(favorite -> favorite.getRecipe().getId())
-                .collect(Collectors.toList());
-        // Si no hay favoritos, devuelve una lista vacía.
-        if (recipeIds.isEmpty()) {
-            return List.of();
+        long fragmentsVersion = previewFragments.version();
+        // Una sola consulta que devuelve directamente las columnas de previsualización.
+        return new RecipePreviewList(favoriteRecipeRepository.findPreviewsByUserId(user.getId(), Limit.unlimited()).stream()
+                .map(row -> preview(row, fragmentsVersion))
+                .collect(Collectors.toList()));
+    }
+
+    /*
+     * Obtiene una página de recetas favoritas, de la más reciente a la más antigua.
+     * La paginación es por clave (favorited_at, recipe_id): cada página continúa donde acabó la anterior
+     * con un recorrido por rango del índice, así que cuesta lo mismo la primera página que la número cien.
+     * @param cursor: El 'nextCursor' de la página anterior, o null para la primera.
+     * @param size: Tamaño de la página (por defecto DEFAULT_PAGE_SIZE, como máximo MAX_PAGE_SIZE).
+     */
+    @Transactional(readOnly = true)
+    public FavoritesPageResponse getFavoritesPage(User user, String cursor, Integer size) {
+        long fragmentsVersion = previewFragments.version();
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+        // Se pide una fila de más para saber si hay una página siguiente.
+        Limit limit = Limit.of(pageSize + 1);
+        List<FavoritePreviewRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = favoriteRecipeRepository.findPreviewsByUserId(user.getId(), limit);
+        } else {
+            FavoriteCursor after = FavoriteCursor.decode(cursor);
+            rows = favoriteRecipeRepository.findPreviewsByUserIdAfter(user.getId(), after.favoritedAt(), after.recipeId(), limit);
         }
-        // Busca todas las recetas correspondientes a los IDs encontrados.
-        List<Recipe> recipes = recipeRepository.findAllById(recipeIds);
-        // Mapea las entidades Recipe a DTOs de previsualización y las devuelve.
-        return recipes.stream()
-                .map(recipe -> new RecipePreviewResponse(
-                        recipe.getId(),
-                        recipe.getTitle(),
-                        recipe.getImageUrl(),
-                        recipe.getReadyInMinutes() + " min",
-                        recipe.getDifficulty(),
-                        recipe.getCategory()
-                ))
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            FavoritePreviewRow last = rows.get(pageSize - 1);
+            nextCursor = new FavoriteCursor(last.getFavoritedAt(), last.getId()).encode();
+        }
+        List<RecipePreview> items = rows.stream()
+                .map(row -> preview(row, fragmentsVersion))
                 .collect(Collectors.toList());
+        return new FavoritesPageResponse(new RecipePreviewList(items), nextCursor);
+    }
+
+    // Previsualización escrita con el fragmento en caché; el DTO completo solo se construye si hace falta.
+    private RecipePreview preview(FavoritePreviewRow row, long fragmentsVersion) {
+        return new RecipePreview(row.getId(), true, favoriteCounters.count(row.getId()), fragmentsVersion,
+                () -> mapToRecipePreviewResponse(row));
+    }
+
+    private RecipePreviewResponse mapToRecipePreviewResponse(FavoritePreviewRow row) {
+        return RecipePreviewResponse.builder()
+                .id(row.getId())
+                .title(row.getTitle())
+                .imageUrl(row.getImageUrl())
+                .readyInMinutes(row.getReadyInMinutes() + " min")
+                .difficulty(row.getDifficulty())
+                .category(row.getCategory())
+                .isFavorite(true)
+                .favoriteCount(favoriteCounters.count(row.getId()))
+                .build();
+    }
+
+    /*
+     * Posición de la última fila de una página: momento en que se marcó (en microsegundos, la precisión
+     * de la columna) y ID de la receta para desempatar. Se envía al cliente como "micros_recipeId".
+     */
+    private record FavoriteCursor(Timestamp favoritedAt, Long recipeId) {
+
+        String encode() {
+            Instant instant = favoritedAt.toInstant();
+            long micros = Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+            return micros + "_" + recipeId;
+        }
+
+        static FavoriteCursor decode(String cursor) {
+            int separator = cursor.indexOf('_');
+            try {
+                long micros = Long.parseLong(cursor.substring(0, separator));
+                long recipeId = Long.parseLong(cursor.substring(separator + 1));
+                Instant instant = Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+                return new FavoriteCursor(Timestamp.from(instant), recipeId);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor no válido");
+            }
+        }
     }
 
     // Añade una receta a la lista de favoritos de un usuario.
     @Transactional // Transacción de escritura.
     public void addFavorite(User user, Long recipeId) {
-        // Si la receta ya es favorita, no hace nada para evitar duplicados.
-        if (favoriteRecipeRepository.findByUserIdAndRecipeId(user.getId(), recipeId).isPresent()) {
+        // Se comprueba antes porque INSERT IGNORE también ignoraría en silencio una receta inexistente.
+        if (!recipeRepository.existsById(recipeId)) {
+            throw new RuntimeException("Receta no encontrada");
+        }
+        // Si la receta ya es favorita no se inserta nada, ni se cuenta otra vez.
+        if (favoriteRecipeRepository.insertIgnore(user.getId(), recipeId) == 0) {
             return;
         }
-        // Busca la receta por su ID.
-        Recipe recipe = recipeRepository.findById(recipeId)
-                .orElseThrow(() -> new RuntimeException("Receta no encontrada"));
-        // Crea el ID compuesto para la tabla de unión.
-        FavoriteRecipeId id = new FavoriteRecipeId();
-        id.setUserId(user.getId());
-        id.setRecipeId(recipe.getId());
-        // Crea la nueva entrada de favorito y la guarda.
-        FavoriteRecipe favorite = new FavoriteRecipe();
-        favorite.setId(id);
-        favorite.setUser(user);
-        favorite.setRecipe(recipe);
-        favoriteRecipeRepository.save(favorite);
+        // Se actualizan los favoritos en memoria cuando la transacción se confirme.
+        favoriteIndex.added(user.getId(), recipeId);
+        favoriteCounters.increment(recipeId);
     }
 
     // Elimina una receta de la lista de favoritos de un usuario.
     @Transactional
     public void removeFavorite(User user, Long recipeId) {
         // Llama al método del repositorio para borrar la entrada directamente.
-        favoriteRecipeRepository.deleteByUserIdAndRecipeId(user.getId(), recipeId);
+        // Solo se descuenta si de verdad existía (quitar dos veces no resta dos).
+        if (favoriteRecipeRepository.deleteByUserIdAndRecipeId(user.getId(), recipeId) > 0) {
+            favoriteIndex.removed(user.getId(), recipeId);
+            favoriteCounters.decrement(recipeId);
+        }
     }
 }
\ No newline at end of file
@@ -1,93 +1,228 @@
 /*
  * Archivo: IngredientAggregator.java
  * Propósito: Clase de utilidad diseñada para agregar y consolidar una lista de ingredientes.
- * Su función es sumar las cantidades de ingredientes idénticos y aplicar lógica de compra
- * para generar una lista de compras más práctica y amigable para el usuario.
+ * Su función es sumar las cantidades de ingredientes idénticos; después ShoppingRuleEngine aplica
+ * la lógica de compra para generar una lista de compras más práctica y amigable para el usuario.
+ * Las cantidades se convierten a la unidad canónica de su familia (ver UnitConverter), así
+ * "500 g" y "1 kg" de harina terminan en un solo ítem de 1.5 kg.
  */
 package com.anymeal.backend.service;
 
-import com.anymeal.backend.model.Ingredient;
-import com.anymeal.backend.model.RecipeIngredient;
+import com.anymeal.backend.repository.RecipeIngredientRepository.IngredientTotal;
 import lombok.Getter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class IngredientAggregator {
 
-    // Mapa para almacenar los ingredientes agregados. La clave es un identificador único.
-    private final Map<Long, AggregatedIngredient> aggregated = new HashMap<>();
-
-    // Procesa una lista de RecipeIngredient y suma las cantidades.
-    public void addIngredients(List<RecipeIngredient> ingredientsForPlan) {
-        for (RecipeIngredient ri : ingredientsForPlan) {
-            long ingredientId = ri.getIngredient().getId();
-            // Si la cantidad es nula, se asume 1.
-            double amount = ri.getAmount() != null ? ri.getAmount() : 1.0;
-            // Si la unidad es nula, se asume "unidad". Se convierte a minúsculas para consistencia.
-            String unit = ri.getUnit() != null ? ri.getUnit().toLowerCase() : "unidad";
-
-            // Si el ingrediente ya existe con la misma unidad, se suma la cantidad.
-            if (aggregated.containsKey(ingredientId) && aggregated.get(ingredientId).getUnit().equals(unit)) {
-                aggregated.get(ingredientId).addAmount(amount);
-            } else {
-                // Si es un ingrediente nuevo o tiene una unidad diferente, se crea una nueva entrada.
-                // Se genera una clave única combinando el ID y el hash de la unidad para evitar colisiones.
-                long uniqueKey = ingredientId + unit.hashCode();
-                aggregated.put(uniqueKey, new AggregatedIngredient(ri.getIngredient(), amount, unit));
-            }
+    private static final int INITIAL_CAPACITY = 64;
+    // La clave reserva 16 bits al código de familia y el resto al ID del ingrediente.
+    private static final int MAX_FAMILY_CODE = 0xFFFF;
+    private static final long MAX_INGREDIENT_ID = (1L << 47) - 1;
+
+    /*
+     * Tabla hash de direccionamiento abierto: la clave empaqueta en un long el ID del ingrediente
+     * (bits altos) y el código de familia de unidad (16 bits bajos); 'slots' guarda la posición + 1
+     * de la entrada en los arreglos densos (0 = hueco libre). Así no se crea ningún objeto por fila.
+     */
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] slots = new int[INITIAL_CAPACITY];
+
+    // Arreglos densos con los datos de cada entrada, en orden de llegada.
+    private long[] ingredientIds = new long[INITIAL_CAPACITY / 2];
+    private String[] names = new String[INITIAL_CAPACITY / 2];
+    private String[] units = new String[INITIAL_CAPACITY / 2];
+    private double[] amounts = new double[INITIAL_CAPACITY / 2];
+    private int size;
+
+    // Códigos asignados a las unidades desconocidas, que solo se suman consigo mismas.
+    private final Map<String, Integer> otherUnitCodes = new HashMap<>();
+
+    // Procesa filas planas (ingrediente, unidad, cantidad) y suma las cantidades.
+    public void addTotals(List<? extends IngredientTotal> totals) {
+        for (IngredientTotal total : totals) {
+            add(total.getIngredientId(), total.getName(), total.getUnit(), total.getAmount());
         }
     }
 
-    // Aplica lógica de compra para redondear o agrupar ciertos ingredientes.
-    public void applyShoppingLogic() {
-        for (AggregatedIngredient ingredient : aggregated.values()) {
-            String name = ingredient.getIngredient().getName().toLowerCase();
-            // Lógica para huevos: redondear a la media docena o docena más cercana.
-            if (name.contains("egg")) {
-                double amount = ingredient.getAmount();
-                if (amount <= 6) {
-                    ingredient.setFinalUnit("Comprar 1/2 docena");
-                } else if (amount <= 12) {
-                    ingredient.setFinalUnit("Comprar 1 docena");
-                } else {
-                    ingredient.setFinalUnit("Comprar " + (int) Math.ceil(amount / 12) + " docenas");
+    /*
+     * Suma una cantidad de un ingrediente, convertida a la unidad canónica de su familia.
+     * Si el ID o el número de unidades desconocidas no cabe en la clave empaquetada, se lanza
+     * IllegalStateException en lugar de mezclar ingredientes o unidades distintas.
+     */
+    public void add(long ingredientId, String name, String unit, Double amount) {
+        if (ingredientId < 0 || ingredientId > MAX_INGREDIENT_ID) {
+            throw new IllegalStateException("ID de ingrediente fuera de rango: " + ingredientId);
+        }
+        // Si la cantidad es nula, se asume 1.
+        double value = amount != null ? amount : 1.0;
+        String normalizedUnit = UnitConverter.normalize(unit);
+        UnitConverter.Unit known = UnitConverter.lookup(normalizedUnit);
+        int familyCode;
+        String canonicalUnit;
+        if (known != null) {
+            familyCode = known.family().code();
+            canonicalUnit = known.family().canonicalUnit();
+            value *= known.factor();
+        } else {
+            familyCode = otherUnitCodes.computeIfAbsent(normalizedUnit, u -> {
+                int code = UnitConverter.FIRST_OTHER_CODE + otherUnitCodes.size();
+                if (code > MAX_FAMILY_CODE) {
+                    throw new IllegalStateException("Demasiadas unidades desconocidas distintas (máximo "
+                            + (MAX_FAMILY_CODE - UnitConverter.FIRST_OTHER_CODE + 1) + ")");
                 }
-                ingredient.setAmount(0); // Se limpia la cantidad numérica pues ya no es necesaria.
+                return code;
+            });
+            canonicalUnit = normalizedUnit;
+        }
+        int index = indexFor((ingredientId << 16) | familyCode, ingredientId, name, canonicalUnit);
+        amounts[index] += value;
+    }
+
+    /*
+     * Suma a este agregador los totales de otro (ej: el de otro tramo de fechas calculado en paralelo).
+     * Las unidades del otro ya son canónicas (factor 1), así que basta con volver a sumarlas; los códigos
+     * de las unidades desconocidas se reasignan aquí porque cada agregador numera las suyas.
+     */
+    public void merge(IngredientAggregator other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.ingredientIds[i], other.names[i], other.units[i], other.amounts[i]);
+        }
+    }
+
+    /*
+     * Resta las cantidades de otro agregador (ej: la despensa del usuario, cargada una sola vez por generación).
+     * Solo se restan ingredientes que ya están en este agregador con la misma familia de unidad; una
+     * cantidad nunca baja de cero. Las entradas que quedan a cero no aparecen en getResult().
+     */
+    public void subtract(IngredientAggregator other) {
+        for (int i = 0; i < other.size; i++) {
+            // Las unidades del otro ya son canónicas: las conocidas tienen su código fijo y las demás el de este agregador.
+            UnitConverter.Unit known = UnitConverter.lookup(other.units[i]);
+            Integer familyCode = known != null ? Integer.valueOf(known.family().code()) : otherUnitCodes.get(other.units[i]);
+            if (familyCode == null) continue;
+            int index = find((other.ingredientIds[i] << 16) | familyCode);
+            if (index >= 0) {
+                amounts[index] = Math.max(0.0, amounts[index] - other.amounts[i]);
             }
-            // Lógica para leche: si se necesita cualquier cantidad, se sugiere comprar un cartón.
-            if (name.contains("milk")) {
-                ingredient.setFinalUnit("Comprar 1 cartón de leche");
-                ingredient.setAmount(0);
+        }
+    }
+
+    // Devuelve la posición de la clave en la tabla hash (ocupada por ella o el hueco libre donde iría).
+    private int probe(long key) {
+        int mask = keys.length - 1;
+        int pos = hash(key) & mask;
+        while (slots[pos] != 0 && keys[pos] != key) {
+            pos = (pos + 1) & mask;
+        }
+        return pos;
+    }
+
+    // Devuelve la posición densa de una clave, o -1 si no existe.
+    private int find(long key) {
+        return slots[probe(key)] - 1;
+    }
+
+    // Devuelve la posición densa de una clave, creando la entrada si no existe.
+    private int indexFor(long key, long ingredientId, String name, String canonicalUnit) {
+        int pos = probe(key);
+        if (slots[pos] != 0) {
+            return slots[pos] - 1;
+        }
+        int index = size++;
+        if (index == ingredientIds.length) {
+            growEntries();
+        }
+        ingredientIds[index] = ingredientId;
+        names[index] = name;
+        units[index] = canonicalUnit;
+        keys[pos] = key;
+        slots[pos] = index + 1;
+        // Se mantiene la tabla como máximo a la mitad de su capacidad.
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return index;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void growEntries() {
+        int capacity = ingredientIds.length * 2;
+        ingredientIds = Arrays.copyOf(ingredientIds, capacity);
+        names = Arrays.copyOf(names, capacity);
+        units = Arrays.copyOf(units, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[oldKeys.length * 2];
+        slots = new int[oldSlots.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] == 0) continue;
+            int pos = hash(oldKeys[i]) & mask;
+            while (slots[pos] != 0) {
+                pos = (pos + 1) & mask;
             }
+            keys[pos] = oldKeys[i];
+            slots[pos] = oldSlots[i];
         }
     }
 
-    // Devuelve el mapa con los ingredientes agregados y procesados.
-    public Map<Long, AggregatedIngredient> getResult() {
-        return aggregated;
+    // Devuelve los IDs de los ingredientes presentes en el agregador.
+    public Set<Long> getIngredientIds() {
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            ids.add(ingredientIds[i]);
+        }
+        return ids;
+    }
+
+    // Devuelve los ingredientes agregados con cantidad positiva, en el orden en que aparecieron por primera vez.
+    public List<AggregatedIngredient> getResult() {
+        List<AggregatedIngredient> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (amounts[i] <= 0.0) continue; // Cubierto por completo (ej: por la despensa).
+            result.add(new AggregatedIngredient(ingredientIds[i], names[i], amounts[i], units[i]));
+        }
+        return result;
     }
 
     // Clase interna para almacenar los datos de un ingrediente consolidado.
     @Getter
     public static class AggregatedIngredient {
-        private final Ingredient ingredient;
-        private double amount;
+        private final long ingredientId;
+        private final String name;
+        // Cantidad total en la unidad canónica ('unit'), que no se modifica al aplicar las reglas de compra.
+        private final double baseAmount;
         private final String unit;
-        // Campo para la unidad final tras aplicar la lógica de compra (ej: "Comprar 1 docena").
+        // Cantidad y unidad a mostrar (ej: 1.5 "kg" para 1500 g).
+        private double amount;
+        private final String displayUnit;
+        // Campo para la unidad final tras aplicar las reglas de compra (ej: "Comprar 1 docena").
         private String finalUnit;
 
-        public AggregatedIngredient(Ingredient ingredient, double amount, String unit) {
-            this.ingredient = ingredient;
-            this.amount = amount;
+        public AggregatedIngredient(long ingredientId, String name, double baseAmount, String unit) {
+            this.ingredientId = ingredientId;
+            this.name = name;
+            this.baseAmount = baseAmount;
             this.unit = unit;
+            this.amount = UnitConverter.displayAmount(baseAmount, unit);
+            this.displayUnit = UnitConverter.displayUnit(baseAmount, unit);
             this.finalUnit = null;
         }
 
-        public void addAmount(double amountToAdd) {
-            this.amount += amountToAdd;
-        }
-
         public void setAmount(double amount) {
             this.amount = amount;
         }
@@ -0,0 +1,132 @@
+/*
+ * Archivo: NutritionFacts.java
+ * Propósito: Representa los valores nutricionales básicos (calorías y macronutrientes) de una receta
+ * y sabe interpretarlos a partir del JSON guardado en 'Recipe.nutritionInfo'.
+ * Se aceptan tanto el formato plano ({"calories": 450, "protein": "30g", ...}) como el
+ * formato de Spoonacular ({"nutrients": [{"name": "Calories", "amount": 450}, ...]}).
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.model.DailyPlan;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public record NutritionFacts(double calories, double protein, double fat, double carbs) {
+
+    // Valor neutro: una receta sin información nutricional no aporta nada a los totales.
+    public static final NutritionFacts EMPTY = new NutritionFacts(0, 0, 0, 0);
+
+    // ObjectMapper propio y sin configuración especial; solo se usa para leer el JSON nutricional.
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Devuelve la suma de estos valores con otros.
+    public NutritionFacts plus(NutritionFacts other) {
+        return new NutritionFacts(calories + other.calories, protein + other.protein,
+                fat + other.fat, carbs + other.carbs);
+    }
+
+    // Devuelve estos valores con el signo cambiado (para restar una comida de los totales).
+    public NutritionFacts negate() {
+        return new NutritionFacts(-calories, -protein, -fat, -carbs);
+    }
+
+    // Lee los totales guardados en un plan diario. Devuelve null si aún no se han calculado.
+    public static NutritionFacts of(DailyPlan plan) {
+        if (plan.getTotalCalories() == null || plan.getTotalProtein() == null
+                || plan.getTotalFat() == null || plan.getTotalCarbs() == null) {
+            return null;
+        }
+        return new NutritionFacts(plan.getTotalCalories(), plan.getTotalProtein(), plan.getTotalFat(), plan.getTotalCarbs());
+    }
+
+    // Guarda estos valores como los totales de un plan diario.
+    public void setOn(DailyPlan plan) {
+        plan.setTotalCalories(calories);
+        plan.setTotalProtein(protein);
+        plan.setTotalFat(fat);
+        plan.setTotalCarbs(carbs);
+    }
+
+    // Suma estos valores a los totales de un plan. Si los totales aún no se conocen, se dejan sin calcular.
+    public void addTo(DailyPlan plan) {
+        NutritionFacts current = of(plan);
+        if (current != null) {
+            current.plus(this).setOn(plan);
+        }
+    }
+
+    // Interpreta el JSON nutricional de una receta. Si es nulo o no se reconoce, devuelve EMPTY.
+    public static NutritionFacts parse(String json) {
+        if (json == null || json.isBlank()) {
+            return EMPTY;
+        }
+        try {
+            JsonNode root = MAPPER.readTree(json);
+            // Formato Spoonacular: la lista de nutrientes puede venir sola o dentro de "nutrients".
+            JsonNode nutrients = root.isArray() ? root : root.get("nutrients");
+            if (nutrients != null && nutrients.isArray()) {
+                return fromNutrientList(nutrients);
+            }
+            if (root.isObject()) {
+                return fromFlatObject(root);
+            }
+        } catch (Exception e) {
+            // Un JSON mal formado no debe romper el plan; simplemente se ignora.
+        }
+        return EMPTY;
+    }
+
+    private static NutritionFacts fromNutrientList(JsonNode nutrients) {
+        double calories = 0, protein = 0, fat = 0, carbs = 0;
+        for (JsonNode nutrient : nutrients) {
+            String name = nutrient.path("name").asText("").toLowerCase();
+            double amount = number(nutrient.get("amount"));
+            switch (name) {
+                case "calories", "energy", "calorías", "calorias" -> calories = amount;
+                case "protein", "proteína", "proteina" -> protein = amount;
+                case "fat", "grasa", "grasas" -> fat = amount;
+                case "carbohydrates", "carbs", "carbohidratos" -> carbs = amount;
+                default -> { }
+            }
+        }
+        return new NutritionFacts(calories, protein, fat, carbs);
+    }
+
+    private static NutritionFacts fromFlatObject(JsonNode root) {
+        return new NutritionFacts(
+                firstNumber(root, "calories", "kcal", "calorias", "calorías"),
+                firstNumber(root, "protein", "proteina", "proteína"),
+                firstNumber(root, "fat", "grasa", "grasas"),
+                firstNumber(root, "carbs", "carbohydrates", "carbohidratos"));
+    }
+
+    private static double firstNumber(JsonNode root, String... keys) {
+        for (String key : keys) {
+            JsonNode value = root.get(key);
+            if (value != null) {
+                return number(value);
+            }
+        }
+        return 0;
+    }
+
+    // Convierte un nodo en número. Acepta valores numéricos o textos como "30g" o "450 kcal".
+    private static double number(JsonNode value) {
+        if (value == null || value.isNull()) {
+            return 0;
+        }
+        if (value.isNumber()) {
+            return value.asDouble();
+        }
+        String text = value.asText().trim();
+        int end = 0;
+        while (end < text.length() && (Character.isDigit(text.charAt(end)) || text.charAt(end) == '.')) {
+            end++;
+        }
+        try {
+            return end == 0 ? 0 : Double.parseDouble(text.substring(0, end));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Archivo: PantryService.java
+ * Propósito: Gestiona la despensa del usuario (ingredientes que ya tiene en casa). Cada cambio en la
+ * despensa se refleja en la lista de compras, si existe, recalculando solo el ingrediente afectado.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.dto.PantryDtos.*;
+import com.anymeal.backend.model.Ingredient;
+import com.anymeal.backend.model.PantryItem;
+import com.anymeal.backend.model.User;
+import com.anymeal.backend.repository.IngredientRepository;
+import com.anymeal.backend.repository.PantryItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class PantryService {
+
+    private final PantryItemRepository pantryItemRepository;
+    private final IngredientRepository ingredientRepository;
+    private final ShoppingListService shoppingListService;
+
+    @Transactional(readOnly = true)
+    public List<PantryItemDto> getPantry(User user) {
+        return pantryItemRepository.findByUserIdOrderByIdAsc(user.getId()).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    /*
+     * Añade un ingrediente a la despensa. Si ya había ese ingrediente en la misma unidad, se suma la cantidad.
+     * Lanza IllegalArgumentException si el ingrediente no existe o la cantidad no es positiva.
+     */
+    @Transactional
+    public PantryItemDto addItem(User user, PantryItemRequest request) {
+        if (request.ingredientId() == null) {
+            throw new IllegalArgumentException("Falta el ID del ingrediente");
+        }
+        validateQuantity(request.quantity());
+        Ingredient ingredient = ingredientRepository.findById(request.ingredientId())
+                .orElseThrow(() -> new IllegalArgumentException("Ingrediente no encontrado"));
+        String unit = normalizeUnit(request.unit());
+        PantryItem item = pantryItemRepository.findByUserIdAndIngredientIdAndUnit(user.getId(), ingredient.getId(), unit)
+                .map(existing -> {
+                    existing.setQuantity(existing.getQuantity() + request.quantity());
+                    return existing;
+                })
+                .orElseGet(() -> PantryItem.builder()
+                        .user(user)
+                        .ingredient(ingredient)
+                        .quantity(request.quantity())
+                        .unit(unit)
+                        .build());
+        PantryItem saved = pantryItemRepository.save(item);
+        shoppingListService.refreshIngredients(user.getId(), List.of(ingredient.getId()));
+        return mapToDto(saved);
+    }
+
+    // Cambia la cantidad y/o la unidad de un ingrediente de la despensa. Los campos nulos no se modifican.
+    @Transactional
+    public Optional<PantryItemDto> updateItem(User user, Long itemId, PantryItemRequest request) {
+        if (request.quantity() != null) {
+            validateQuantity(request.quantity());
+        }
+        return pantryItemRepository.findByIdAndUserId(itemId, user.getId()).map(item -> {
+            if (request.quantity() != null) {
+                item.setQuantity(request.quantity());
+            }
+            if (request.unit() != null) {
+                item.setUnit(normalizeUnit(request.unit()));
+            }
+            PantryItem saved = pantryItemRepository.save(item);
+            shoppingListService.refreshIngredients(user.getId(), List.of(item.getIngredient().getId()));
+            return mapToDto(saved);
+        });
+    }
+
+    @Transactional
+    public boolean deleteItem(User user, Long itemId) {
+        Optional<PantryItem> item = pantryItemRepository.findByIdAndUserId(itemId, user.getId());
+        if (item.isPresent()) {
+            Long ingredientId = item.get().getIngredient().getId();
+            pantryItemRepository.delete(item.get());
+            shoppingListService.refreshIngredients(user.getId(), List.of(ingredientId));
+            return true;
+        }
+        return false;
+    }
+
+    private static void validateQuantity(Double quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor que cero");
+        }
+    }
+
+    // Las unidades se guardan normalizadas (ej: "Tbsp." -> "tbsp"); sin unidad se cuenta por unidades.
+    private static String normalizeUnit(String unit) {
+        String normalized = UnitConverter.normalize(unit);
+        return normalized.isEmpty() ? UnitConverter.Family.COUNT.canonicalUnit() : normalized;
+    }
+
+    private PantryItemDto mapToDto(PantryItem item) {
+        return new PantryItemDto(item.getId(), item.getIngredient().getId(), item.getIngredient().getName(),
+                item.getQuantity(), item.getUnit());
+    }
+}
\ No newline at end of file
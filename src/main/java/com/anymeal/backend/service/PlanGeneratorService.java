@@ -0,0 +1,520 @@
+/*
+ * Archivo: PlanGeneratorService.java
+ * Propósito: Genera automáticamente una semana completa de comidas para un usuario a partir de
+ * restricciones (calorías y macronutrientes diarios, dietas, tiempo máximo de preparación, sin
+ * recetas repetidas y con preferencia por las favoritas). La búsqueda es una búsqueda local
+ * aleatoria que se ejecuta en paralelo sobre un ForkJoinPool (planSearchPool, ver ExecutorConfig) con un
+ * presupuesto de tiempo estricto, trabajando siempre sobre la instantánea en memoria del catálogo (RecipeCatalog).
+ * La búsqueda no ocupa ninguna conexión a la base de datos: los datos se leen antes y el plan
+ * se guarda después, en una transacción corta.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.dto.GeneratePlanRequest;
+import com.anymeal.backend.dto.PlanResponse;
+import com.anymeal.backend.model.DailyPlan;
+import com.anymeal.backend.model.PlanEntry;
+import com.anymeal.backend.model.User;
+import com.anymeal.backend.repository.DailyPlanRepository;
+import com.anymeal.backend.repository.FavoriteRecipeRepository;
+import com.anymeal.backend.repository.PlanEntryRepository;
+import com.anymeal.backend.repository.RecipeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+@RequiredArgsConstructor
+public class PlanGeneratorService {
+
+    private static final int DAYS = 7;
+    private static final List<String> DEFAULT_MEAL_TYPES = List.of("Desayuno", "Almuerzo", "Cena");
+    // Peso de cada receta favorita en la función de coste (equivale a un 10% de desviación al cuadrado).
+    private static final double FAVORITE_WEIGHT = 0.01;
+
+    private final RecipeCatalog recipeCatalog;
+    private final RecipeRepository recipeRepository;
+    private final DailyPlanRepository dailyPlanRepository;
+    private final FavoriteRecipeRepository favoriteRecipeRepository;
+    private final PlanEntryRepository planEntryRepository;
+    private final PlanService planService;
+    private final ShoppingListService shoppingListService;
+    private final TransactionTemplate transactionTemplate;
+    // Pool propio para la búsqueda, de trabajo de CPU puro (ver ExecutorConfig).
+    private final ForkJoinPool planSearchPool;
+
+    // Tiempo máximo (en milisegundos) que puede durar la búsqueda.
+    @Value("${anymeal.plan-generator.time-budget-ms:150}")
+    private long timeBudgetMs;
+
+    /*
+     * Genera y guarda el plan de la semana que empieza en request.startDate.
+     * No es transaccional a propósito: las lecturas previas (favoritas y comidas ya planificadas) usan
+     * cada una su propia transacción corta, la búsqueda (trabajo de CPU de hasta timeBudgetMs) no retiene
+     * ninguna conexión del pool, y el resultado se guarda en una única transacción al final.
+     */
+    public PlanResponse generateWeek(User user, GeneratePlanRequest request) {
+        if (request.getStartDate() == null) {
+            throw new IllegalArgumentException("La fecha de inicio es obligatoria.");
+        }
+        List<String> mealTypes = request.getMealTypes() == null || request.getMealTypes().isEmpty()
+                ? DEFAULT_MEAL_TYPES : request.getMealTypes();
+        LocalDate startDate = request.getStartDate();
+
+        RecipeCatalog.Snapshot catalog = recipeCatalog.getSnapshot();
+        // Si no se reemplaza la semana, las comidas que ya tiene se conservan: ocupan su hueco y no se repiten.
+        List<PlanEntryRepository.PlannedMeal> planned = request.isReplaceExisting() ? List.of()
+                : planEntryRepository.findPlannedMeals(user.getId(), startDate, startDate.plusDays(DAYS - 1));
+        Set<Long> favoriteIds = request.isPreferFavorites()
+                ? new HashSet<>(favoriteRecipeRepository.findRecipeIdsByUserId(user.getId())) : Set.of();
+
+        Problem problem = buildProblem(request, catalog, mealTypes, planned, favoriteIds);
+        if (problem.slots() > 0) {
+            int[] solution = solve(problem);
+            transactionTemplate.executeWithoutResult(status -> savePlan(user, request, mealTypes, problem, solution));
+        }
+        return planService.getPlanForWeek(user, startDate);
+    }
+
+    // Filtra el catálogo según las restricciones duras y prepara los datos de la búsqueda.
+    private Problem buildProblem(GeneratePlanRequest request, RecipeCatalog.Snapshot catalog, List<String> mealTypes,
+                                 List<PlanEntryRepository.PlannedMeal> planned, Set<Long> favoriteIds) {
+        long requiredDiets = catalog.requiredDietMask(request.getDiets());
+        if (requiredDiets == -1L) {
+            throw new IllegalArgumentException("Ninguna receta cumple las dietas solicitadas.");
+        }
+        int maxMinutes = request.getMaxReadyInMinutes() != null ? request.getMaxReadyInMinutes() : Integer.MAX_VALUE;
+
+        // Huecos libres (día y tipo de comida sin receta) y valores nutricionales que ya aportan las comidas existentes.
+        int mealsPerDay = mealTypes.size();
+        boolean[] taken = new boolean[DAYS * mealsPerDay];
+        double[][] baseSums = new double[DAYS][4];
+        Set<Long> plannedIds = new HashSet<>();
+        for (PlanEntryRepository.PlannedMeal meal : planned) {
+            int day = (int) (meal.getPlanDate().toEpochDay() - request.getStartDate().toEpochDay());
+            plannedIds.add(meal.getRecipeId());
+            int mealIndex = mealTypes.indexOf(meal.getMealType());
+            if (mealIndex >= 0) {
+                taken[day * mealsPerDay + mealIndex] = true;
+            }
+            int ordinal = catalog.ordinalOf(meal.getRecipeId());
+            if (ordinal >= 0) {
+                baseSums[day][0] += catalog.calories(ordinal);
+                baseSums[day][1] += catalog.protein(ordinal);
+                baseSums[day][2] += catalog.fat(ordinal);
+                baseSums[day][3] += catalog.carbs(ordinal);
+            }
+        }
+
+        // Candidatas: recetas que cumplen todas las dietas y el tiempo máximo y que no están ya en la semana.
+        int[] candidates = new int[catalog.size()];
+        int count = 0;
+        for (int ordinal = 0; ordinal < catalog.size(); ordinal++) {
+            if ((catalog.dietMask(ordinal) & requiredDiets) == requiredDiets && catalog.readyInMinutes(ordinal) <= maxMinutes
+                    && !plannedIds.contains(catalog.recipeId(ordinal))) {
+                candidates[count++] = ordinal;
+            }
+        }
+        int[] freeSlots = new int[taken.length];
+        int slots = 0;
+        for (int slot = 0; slot < taken.length; slot++) {
+            if (!taken[slot]) {
+                freeSlots[slots++] = slot;
+            }
+        }
+        if (count < slots) {
+            throw new IllegalArgumentException("No hay suficientes recetas que cumplan las restricciones para toda la semana.");
+        }
+
+        Problem problem = new Problem(count, mealsPerDay, Arrays.copyOf(freeSlots, slots), baseSums);
+        for (int i = 0; i < count; i++) {
+            int ordinal = candidates[i];
+            problem.recipeIds[i] = catalog.recipeId(ordinal);
+            problem.values[i][0] = catalog.calories(ordinal);
+            problem.values[i][1] = catalog.protein(ordinal);
+            problem.values[i][2] = catalog.fat(ordinal);
+            problem.values[i][3] = catalog.carbs(ordinal);
+        }
+        problem.targets[0] = target(request.getDailyCalories());
+        problem.targets[1] = target(request.getDailyProtein());
+        problem.targets[2] = target(request.getDailyFat());
+        problem.targets[3] = target(request.getDailyCarbs());
+
+        if (!favoriteIds.isEmpty()) {
+            List<Integer> favoriteCandidates = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                if (favoriteIds.contains(problem.recipeIds[i])) {
+                    problem.favorite[i] = true;
+                    favoriteCandidates.add(i);
+                }
+            }
+            problem.favoriteCandidates = favoriteCandidates.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return problem;
+    }
+
+    // Un objetivo no indicado (o no positivo) se marca como NaN y no participa en el coste.
+    private static double target(Double value) {
+        return value != null && value > 0 ? value : Double.NaN;
+    }
+
+    /*
+     * Lanza un trabajador de búsqueda local por hilo del pool y se queda con la mejor solución encontrada.
+     * Los trabajadores se detienen al vencer el plazo o en cuanto uno alcanza el mejor coste posible.
+     */
+    private int[] solve(Problem problem) {
+        long deadline = System.nanoTime() + timeBudgetMs * 1_000_000L;
+        SplittableRandom seed = new SplittableRandom();
+        AtomicBoolean optimumFound = new AtomicBoolean();
+        List<ForkJoinTask<Solution>> workers = new ArrayList<>();
+        for (int i = 0; i < planSearchPool.getParallelism(); i++) {
+            workers.add(planSearchPool.submit(new LocalSearchWorker(problem, seed.split(), deadline, optimumFound)));
+        }
+        Solution best = null;
+        for (ForkJoinTask<Solution> worker : workers) {
+            Solution candidate = worker.join();
+            if (best == null || candidate.cost < best.cost) {
+                best = candidate;
+            }
+        }
+        return best.assignment;
+    }
+
+    /*
+     * Guarda la solución como entradas del plan. Cada día con huecos rellenados se crea o se bloquea con
+     * DailyPlanRepository.upsertForDate, igual que al añadir una comida a mano: si otra petición crea el
+     * mismo día a la vez (addRecipeToPlan u otra generación de la semana), ninguna choca contra la
+     * restricción única (user_id, plan_date). Los días se bloquean en orden de fecha, así que dos
+     * generaciones de la misma semana no se bloquean entre sí. Los días sin huecos libres no se tocan.
+     */
+    private void savePlan(User user, GeneratePlanRequest request, List<String> mealTypes, Problem problem, int[] solution) {
+        LocalDate startDate = request.getStartDate();
+
+        // Posiciones de la solución que corresponden a cada día.
+        List<List<Integer>> positionsByDay = new ArrayList<>();
+        for (int day = 0; day < DAYS; day++) {
+            positionsByDay.add(new ArrayList<>());
+        }
+        for (int position = 0; position < solution.length; position++) {
+            positionsByDay.get(problem.slotDay(position)).add(position);
+        }
+
+        Map<Long, NutritionFacts> nutritionByPlan = new LinkedHashMap<>();
+        List<PlanEntry> entries = new ArrayList<>();
+        List<ShoppingListService.PlanEntryChange> added = new ArrayList<>();
+        for (int day = 0; day < DAYS; day++) {
+            List<Integer> positions = positionsByDay.get(day);
+            if (positions.isEmpty()) {
+                continue;
+            }
+            LocalDate date = startDate.plusDays(day);
+            NutritionFacts dayNutrition = NutritionFacts.EMPTY;
+            for (int position : positions) {
+                float[] values = problem.values[solution[position]];
+                dayNutrition = dayNutrition.plus(new NutritionFacts(values[0], values[1], values[2], values[3]));
+            }
+            // Al reemplazar, los totales se fijan después de borrar las comidas anteriores; si no, se suman aquí.
+            NutritionFacts delta = request.isReplaceExisting() ? NutritionFacts.EMPTY : dayNutrition;
+            dailyPlanRepository.upsertForDate(user.getId(), date,
+                    delta.calories(), delta.protein(), delta.fat(), delta.carbs());
+            long planId = dailyPlanRepository.lastInsertId();
+            nutritionByPlan.put(planId, dayNutrition);
+            // getReferenceById no consulta la base de datos; solo se necesitan las claves foráneas.
+            DailyPlan plan = dailyPlanRepository.getReferenceById(planId);
+            for (int position : positions) {
+                long recipeId = problem.recipeIds[solution[position]];
+                PlanEntry entry = new PlanEntry();
+                entry.setDailyPlan(plan);
+                entry.setRecipe(recipeRepository.getReferenceById(recipeId));
+                entry.setMealType(mealTypes.get(problem.freeSlots[position] % problem.mealsPerDay));
+                entries.add(entry);
+                added.add(ShoppingListService.PlanEntryChange.added(recipeId, date, null, null));
+            }
+        }
+
+        List<ShoppingListService.PlanEntryChange> changes = new ArrayList<>();
+        if (request.isReplaceExisting()) {
+            // Los días ya están bloqueados: nadie puede añadirles comidas entre la lectura y el borrado.
+            List<Long> planIds = List.copyOf(nutritionByPlan.keySet());
+            for (PlanEntryRepository.EntryRef old : planEntryRepository.findRefsByDailyPlanIdIn(planIds)) {
+                changes.add(ShoppingListService.PlanEntryChange.removed(
+                        old.getRecipeId(), old.getPlanDate(), old.getServings(), old.getRecipeServings()));
+            }
+            planEntryRepository.deleteByDailyPlanIdIn(planIds);
+            nutritionByPlan.forEach((planId, nutrition) -> dailyPlanRepository.setNutrition(planId,
+                    nutrition.calories(), nutrition.protein(), nutrition.fat(), nutrition.carbs()));
+        }
+        planEntryRepository.saveAll(entries);
+        changes.addAll(added);
+        // La lista de compras (si cubre esta semana) recibe solo la diferencia de ingredientes.
+        shoppingListService.applyPlanChanges(user.getId(), changes);
+    }
+
+    /*
+     * Datos de la búsqueda: candidatas (índice local), sus valores nutricionales, los objetivos diarios y
+     * los huecos a rellenar. Cada hueco libre es una posición día * mealsPerDay + tipo de comida; 'baseSums'
+     * son los valores de las comidas que ya había en cada día, que cuentan para el objetivo pero no se mueven.
+     */
+    private static final class Problem {
+        final long[] recipeIds;
+        final float[][] values;
+        final boolean[] favorite;
+        final double[] targets = new double[4];
+        final int mealsPerDay;
+        final int[] freeSlots;
+        final double[][] baseSums;
+        int[] favoriteCandidates = new int[0];
+
+        Problem(int candidates, int mealsPerDay, int[] freeSlots, double[][] baseSums) {
+            this.recipeIds = new long[candidates];
+            this.values = new float[candidates][4];
+            this.favorite = new boolean[candidates];
+            this.mealsPerDay = mealsPerDay;
+            this.freeSlots = freeSlots;
+            this.baseSums = baseSums;
+        }
+
+        int candidates() {
+            return recipeIds.length;
+        }
+
+        /*
+         * Mejor coste que puede alcanzar una solución: desviación cero en todos los días y el mayor número
+         * posible de favoritas. Sin objetivos ni favoritas es 0, y cualquier asignación válida ya lo alcanza.
+         */
+        double bestPossibleCost() {
+            return -FAVORITE_WEIGHT * Math.min(favoriteCandidates.length, slots());
+        }
+
+        int slots() {
+            return freeSlots.length;
+        }
+
+        // Día al que pertenece una posición de la solución.
+        int slotDay(int position) {
+            return freeSlots[position] / mealsPerDay;
+        }
+
+        // Coste de un día: suma de las desviaciones relativas al cuadrado respecto a cada objetivo.
+        double dayCost(double[] sums) {
+            double cost = 0;
+            for (int k = 0; k < targets.length; k++) {
+                if (!Double.isNaN(targets[k])) {
+                    double deviation = (sums[k] - targets[k]) / targets[k];
+                    cost += deviation * deviation;
+                }
+            }
+            return cost;
+        }
+    }
+
+    private record Solution(int[] assignment, double cost) {}
+
+    /*
+     * Trabajador de búsqueda local aleatoria. Parte de una asignación aleatoria sin repeticiones y la
+     * mejora con dos movimientos: reemplazar la receta de una comida por otra no usada, o intercambiar
+     * las recetas de dos días distintos. Cuando se estanca, perturba la solución y sigue buscando,
+     * siempre recordando la mejor vista hasta que vence el plazo o algún trabajador alcanza el mejor
+     * coste posible (entonces ya no hay nada que mejorar).
+     */
+    private static final class LocalSearchWorker extends RecursiveTask<Solution> {
+        private static final int STALL_LIMIT = 5_000;
+
+        private final Problem problem;
+        private final SplittableRandom random;
+        private final long deadline;
+        private final AtomicBoolean optimumFound;
+
+        private final int[] assignment;
+        private final boolean[] used;
+        private final double[][] daySums;
+        private final double[] dayCosts = new double[DAYS];
+        private final double[] scratch = new double[4];
+        private final double[] scratchB = new double[4];
+        // Si hay exactamente tantas candidatas como comidas, no quedan recetas libres para reemplazar.
+        private final boolean canReplace;
+        private int favorites;
+
+        LocalSearchWorker(Problem problem, SplittableRandom random, long deadline, AtomicBoolean optimumFound) {
+            this.problem = problem;
+            this.random = random;
+            this.deadline = deadline;
+            this.optimumFound = optimumFound;
+            this.assignment = new int[problem.slots()];
+            this.used = new boolean[problem.candidates()];
+            this.daySums = new double[DAYS][4];
+            for (int day = 0; day < DAYS; day++) {
+                System.arraycopy(problem.baseSums[day], 0, daySums[day], 0, 4);
+            }
+            this.canReplace = problem.candidates() > problem.slots();
+        }
+
+        @Override
+        protected Solution compute() {
+            for (int slot = 0; slot < assignment.length; slot++) {
+                int candidate = pickUnused();
+                assignment[slot] = candidate;
+                used[candidate] = true;
+                addToDay(problem.slotDay(slot), candidate, 1);
+                if (problem.favorite[candidate]) favorites++;
+            }
+            for (int day = 0; day < DAYS; day++) {
+                dayCosts[day] = problem.dayCost(daySums[day]);
+            }
+            double cost = totalCost();
+            int[] best = assignment.clone();
+            double bestCost = cost;
+            double bestPossible = problem.bestPossibleCost() + 1e-12;
+            if (bestCost <= bestPossible) {
+                optimumFound.set(true);
+                return new Solution(best, bestCost);
+            }
+
+            int stalled = 0;
+            long iterations = 0;
+            // El plazo y el aviso de los demás trabajadores se miran cada 256 iteraciones.
+            while ((++iterations & 255) != 0 || (System.nanoTime() < deadline && !optimumFound.get())) {
+                double delta = !canReplace || random.nextInt(4) == 0 ? trySwap() : tryReplace();
+                if (delta < -1e-12) {
+                    cost += delta;
+                    stalled = 0;
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        System.arraycopy(assignment, 0, best, 0, assignment.length);
+                        if (bestCost <= bestPossible) {
+                            optimumFound.set(true);
+                            break;
+                        }
+                    }
+                } else if (++stalled > STALL_LIMIT && canReplace) {
+                    perturb();
+                    cost = totalCost();
+                    stalled = 0;
+                }
+            }
+            return new Solution(best, bestCost);
+        }
+
+        // Elige una candidata no usada; con probabilidad 1/2 la busca entre las favoritas.
+        private int pickUnused() {
+            int[] favoritesPool = problem.favoriteCandidates;
+            while (true) {
+                int candidate = favoritesPool.length > 0 && random.nextBoolean()
+                        ? favoritesPool[random.nextInt(favoritesPool.length)]
+                        : random.nextInt(problem.candidates());
+                if (!used[candidate]) {
+                    return candidate;
+                }
+                // Si todas las favoritas están usadas, se evita un bucle largo eligiendo del catálogo completo.
+                if (favoritesPool.length > 0 && favoritesPool.length <= favorites) {
+                    favoritesPool = new int[0];
+                }
+            }
+        }
+
+        // Movimiento 1: cambia la receta de una comida por otra candidata no usada.
+        private double tryReplace() {
+            int slot = random.nextInt(assignment.length);
+            int day = problem.slotDay(slot);
+            int oldCandidate = assignment[slot];
+            int newCandidate = pickUnused();
+
+            float[] oldValues = problem.values[oldCandidate];
+            float[] newValues = problem.values[newCandidate];
+            for (int k = 0; k < 4; k++) {
+                scratch[k] = daySums[day][k] - oldValues[k] + newValues[k];
+            }
+            double newDayCost = problem.dayCost(scratch);
+            int favoriteDelta = (problem.favorite[newCandidate] ? 1 : 0) - (problem.favorite[oldCandidate] ? 1 : 0);
+            double delta = newDayCost - dayCosts[day] - FAVORITE_WEIGHT * favoriteDelta;
+            if (delta < -1e-12) {
+                assignment[slot] = newCandidate;
+                used[oldCandidate] = false;
+                used[newCandidate] = true;
+                System.arraycopy(scratch, 0, daySums[day], 0, 4);
+                dayCosts[day] = newDayCost;
+                favorites += favoriteDelta;
+            }
+            return delta;
+        }
+
+        // Movimiento 2: intercambia las recetas de dos comidas de días distintos.
+        private double trySwap() {
+            int slotA = random.nextInt(assignment.length);
+            int slotB = random.nextInt(assignment.length);
+            int dayA = problem.slotDay(slotA);
+            int dayB = problem.slotDay(slotB);
+            if (dayA == dayB) {
+                return 0;
+            }
+            float[] a = problem.values[assignment[slotA]];
+            float[] b = problem.values[assignment[slotB]];
+            double[] sumsB = scratchB;
+            for (int k = 0; k < 4; k++) {
+                scratch[k] = daySums[dayA][k] - a[k] + b[k];
+                sumsB[k] = daySums[dayB][k] - b[k] + a[k];
+            }
+            double costA = problem.dayCost(scratch);
+            double costB = problem.dayCost(sumsB);
+            double delta = costA + costB - dayCosts[dayA] - dayCosts[dayB];
+            if (delta < -1e-12) {
+                int tmp = assignment[slotA];
+                assignment[slotA] = assignment[slotB];
+                assignment[slotB] = tmp;
+                System.arraycopy(scratch, 0, daySums[dayA], 0, 4);
+                System.arraycopy(sumsB, 0, daySums[dayB], 0, 4);
+                dayCosts[dayA] = costA;
+                dayCosts[dayB] = costB;
+            }
+            return delta;
+        }
+
+        // Reemplaza al azar algunas comidas para salir de un mínimo local.
+        private void perturb() {
+            int changes = Math.max(1, assignment.length / 7);
+            for (int i = 0; i < changes; i++) {
+                int slot = random.nextInt(assignment.length);
+                int day = problem.slotDay(slot);
+                int oldCandidate = assignment[slot];
+                int newCandidate = pickUnused();
+                addToDay(day, oldCandidate, -1);
+                addToDay(day, newCandidate, 1);
+                used[oldCandidate] = false;
+                used[newCandidate] = true;
+                assignment[slot] = newCandidate;
+                favorites += (problem.favorite[newCandidate] ? 1 : 0) - (problem.favorite[oldCandidate] ? 1 : 0);
+                dayCosts[day] = problem.dayCost(daySums[day]);
+            }
+        }
+
+        private void addToDay(int day, int candidate, int sign) {
+            float[] values = problem.values[candidate];
+            for (int k = 0; k < 4; k++) {
+                daySums[day][k] += sign * values[k];
+            }
+        }
+
+        private double totalCost() {
+            double cost = 0;
+            for (double dayCost : dayCosts) {
+                cost += dayCost;
+            }
+            return cost - FAVORITE_WEIGHT * favorites;
+        }
+    }
+}
@@ -9,8 +9,7 @@ import com.anymeal.backend.dto.*;
 import com.anymeal.backend.model.*;
 import com.anymeal.backend.repository.*;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
@@ -24,37 +23,62 @@ import java.util.stream.Collectors;
 public class PlanService {
 
     private final DailyPlanRepository dailyPlanRepository;
-    private final UserRepository userRepository;
-    private final RecipeRepository recipeRepository;
     private final PlanEntryRepository planEntryRepository;
+    private final RecipeRepository recipeRepository;
+    private final RecipeCatalog recipeCatalog;
+    private final ShoppingListService shoppingListService;
+    private final FavoriteIndex favoriteIndex;
+    private final FavoriteCounters favoriteCounters;
+    private final RecipePreviewFragments previewFragments;
 
-    // Añade una receta al plan de un día específico.
+    /*
+     * Añade una receta al plan de un día específico.
+     * El plan del día se obtiene o se crea con un único upsert atómico y la entrada se inserta
+     * a continuación reutilizando su ID (LAST_INSERT_ID), sin consultas previas. De este modo,
+     * pulsar dos veces "añadir al plan" nunca choca con la restricción única (user_id, plan_date).
+     * El mismo upsert actualiza los totales nutricionales del día.
+     * Las porciones solo escalan la lista de compras: los valores nutricionales son por porción.
+     * La existencia de la receta se comprueba antes de escribir nada; cualquier otra restricción que
+     * falle (ej: tipo de comida nulo) se propaga tal cual.
+     */
     @Transactional
-    public void addRecipeToPlan(PlanRequest request) {
-        User user = getCurrentUser();
-        Recipe recipe = recipeRepository.findById(request.getRecipeId())
-                .orElseThrow(() -> new RuntimeException("Receta no encontrada"));
-        // Busca si ya existe un plan para ese día; si no, crea uno nuevo.
-        DailyPlan dailyPlan = dailyPlanRepository.findByUserIdAndPlanDate(user.getId(), request.getDate())
-                .orElseGet(() -> {
-                    DailyPlan newPlan = new DailyPlan();
-                    newPlan.setUser(user);
-                    newPlan.setPlanDate(request.getDate());
-                    return dailyPlanRepository.save(newPlan);
-                });
-        // Crea la nueva entrada en el plan y la guarda.
-        PlanEntry planEntry = new PlanEntry();
-        planEntry.setDailyPlan(dailyPlan);
-        planEntry.setRecipe(recipe);
-        planEntry.setMealType(request.getMealType());
-        planEntryRepository.save(planEntry);
+    public void addRecipeToPlan(User user, PlanRequest request) {
+        Servings.validate(request.getServings());
+        if (!recipeExists(request.getRecipeId())) {
+            throw new RuntimeException("Receta no encontrada");
+        }
+        NutritionFacts nutrition = nutritionOf(request.getRecipeId());
+        dailyPlanRepository.upsertForDate(user.getId(), request.getDate(),
+                nutrition.calories(), nutrition.protein(), nutrition.fat(), nutrition.carbs());
+        planEntryRepository.insertIntoUpsertedPlan(request.getRecipeId(), request.getMealType(), request.getServings());
+        // Si la lista de compras cubre ese día, se le suman solo los ingredientes de esta comida.
+        // Las porciones de la receta solo se consultan si se pidió un número distinto al de la receta.
+        Integer recipeServings = request.getServings() != null
+                ? recipeRepository.findServingsById(request.getRecipeId()).orElse(null)
+                : null;
+        shoppingListService.applyPlanChanges(user.getId(), List.of(ShoppingListService.PlanEntryChange.added(
+                request.getRecipeId(), request.getDate(), request.getServings(), recipeServings)));
     }
 
-    // Elimina una entrada del planificador.
+    /*
+     * Elimina una entrada del planificador y resta su receta de los totales nutricionales del día
+     * y de la lista de compras (si esta cubre ese día).
+     * Primero se borra la fila y solo se restan los totales si el borrado la eliminó de verdad: si dos
+     * peticiones borran la misma entrada a la vez, la segunda no borra nada y no vuelve a restar.
+     * Las entradas de otros usuarios se ignoran, igual que las que no existen.
+     */
     @Transactional
-    public void deletePlanEntry(Long entryId) {
-        // TODO: Añadir lógica de seguridad para verificar que la entrada pertenece al usuario actual.
-        planEntryRepository.deleteById(entryId);
+    public void deletePlanEntry(User user, Long entryId) {
+        planEntryRepository.findRefByIdAndUserId(entryId, user.getId()).ifPresent(ref -> {
+            if (planEntryRepository.deleteEntryById(entryId) != 1) {
+                return;
+            }
+            NutritionFacts nutrition = nutritionOf(ref.getRecipeId()).negate();
+            dailyPlanRepository.addNutrition(ref.getDailyPlanId(),
+                    nutrition.calories(), nutrition.protein(), nutrition.fat(), nutrition.carbs());
+            shoppingListService.applyPlanChanges(user.getId(), List.of(ShoppingListService.PlanEntryChange.removed(
+                    ref.getRecipeId(), ref.getPlanDate(), ref.getServings(), ref.getRecipeServings())));
+        });
     }
 
     // Actualiza las notas de un plan diario.
@@ -67,53 +91,110 @@ public class PlanService {
         dailyPlanRepository.save(dailyPlan);
     }
 
-    // Obtiene y formatea el plan para una semana completa a partir de una fecha de inicio.
-    @Transactional(readOnly = true)
-    public PlanResponse getPlanForWeek(LocalDate startDate) {
-        User user = getCurrentUser();
+    /*
+     * Obtiene y formatea el plan para una semana completa a partir de una fecha de inicio.
+     * No es de solo lectura porque los planes antiguos sin totales nutricionales los calculan
+     * y guardan aquí la primera vez que se leen (ver mapToDailyPlanDto).
+     * @param user: El usuario autenticado, tal como lo cargó el filtro JWT (no se vuelve a consultar).
+     */
+    @Transactional
+    public PlanResponse getPlanForWeek(User user, LocalDate startDate) {
+        long fragmentsVersion = previewFragments.version();
         LocalDate endDate = startDate.plusDays(6);
-        List<DailyPlan> plans = dailyPlanRepository.findByUserIdAndPlanDateBetween(user.getId(), startDate, endDate);
+        List<DailyPlan> plans = dailyPlanRepository.findWeekWithEntries(user.getId(), startDate, endDate);
+        RoaringBitmap favorites = favoriteIndex.favoritesOf(user.getId());
         // Convierte la lista de planes en un mapa, usando la fecha como clave.
         Map<String, DailyPlanDto> dailyPlanDtoMap = plans.stream()
                 .collect(Collectors.toMap(
                         plan -> plan.getPlanDate().format(DateTimeFormatter.ISO_LOCAL_DATE),
-                        this::mapToDailyPlanDto
+                        plan -> mapToDailyPlanDto(plan, favorites, fragmentsVersion)
                 ));
-        return PlanResponse.builder().dailyPlans(dailyPlanDtoMap).build();
+        // Los totales semanales se obtienen sumando los de cada día: O(días), sin parsear JSON.
+        NutritionFacts weekly = dailyPlanDtoMap.values().stream()
+                .map(DailyPlanDto::getNutrition)
+                .map(n -> new NutritionFacts(n.calories(), n.protein(), n.fat(), n.carbs()))
+                .reduce(NutritionFacts.EMPTY, NutritionFacts::plus);
+        return PlanResponse.builder()
+                .dailyPlans(dailyPlanDtoMap)
+                .weeklyNutrition(toNutritionDto(weekly))
+                .build();
+    }
+
+    // Una receta de la instantánea del catálogo existe; las demás (recetas nuevas) se comprueban en la base de datos.
+    private boolean recipeExists(Long recipeId) {
+        if (recipeId == null) {
+            return false;
+        }
+        RecipeCatalog.Snapshot catalog = recipeCatalog.peekSnapshot();
+        return (catalog != null && catalog.ordinalOf(recipeId) >= 0) || recipeRepository.existsById(recipeId);
+    }
+
+    /*
+     * Obtiene los valores nutricionales de una receta. Primero se buscan en la instantánea del catálogo
+     * que ya está en memoria; si la receta no está ahí (receta nueva o catálogo aún no cargado), se lee
+     * solo su columna nutritionInfo.
+     */
+    private NutritionFacts nutritionOf(Long recipeId) {
+        if (recipeId == null) {
+            return NutritionFacts.EMPTY;
+        }
+        RecipeCatalog.Snapshot catalog = recipeCatalog.peekSnapshot();
+        int ordinal = catalog != null ? catalog.ordinalOf(recipeId) : -1;
+        if (ordinal >= 0) {
+            return catalog.nutrition(ordinal);
+        }
+        return recipeRepository.findNutritionInfoById(recipeId)
+                .map(NutritionFacts::parse)
+                .orElse(NutritionFacts.EMPTY);
+    }
+
+    // Calcula los totales de un plan a partir de sus entradas (solo para planes que aún no los tienen).
+    private NutritionFacts computeNutrition(DailyPlan plan) {
+        return plan.getEntries().stream()
+                .map(entry -> NutritionFacts.parse(entry.getRecipe().getNutritionInfo()))
+                .reduce(NutritionFacts.EMPTY, NutritionFacts::plus);
     }
 
-    // Método de utilidad para obtener el usuario actualmente autenticado.
-    private User getCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByUsernameOrEmail(username, username)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
+    private NutritionDto toNutritionDto(NutritionFacts facts) {
+        return new NutritionDto(facts.calories(), facts.protein(), facts.fat(), facts.carbs());
     }
 
     // Método privado para mapear una entidad DailyPlan a su DTO correspondiente.
-    private DailyPlanDto mapToDailyPlanDto(DailyPlan plan) {
+    private DailyPlanDto mapToDailyPlanDto(DailyPlan plan, RoaringBitmap favorites, long fragmentsVersion) {
         Map<String, List<PlanEntryDto>> meals = plan.getEntries().stream()
                 .collect(Collectors.groupingBy(
                         PlanEntry::getMealType,
-                        Collectors.mapping(this::mapToPlanEntryDto, Collectors.toList())
+                        Collectors.mapping(entry -> mapToPlanEntryDto(entry, favorites, fragmentsVersion), Collectors.toList())
                 ));
+        NutritionFacts nutrition = NutritionFacts.of(plan);
+        if (nutrition == null) {
+            // Plan anterior a los totales materializados: se calculan una vez y quedan guardados.
+            nutrition = computeNutrition(plan);
+            nutrition.setOn(plan);
+        }
         return DailyPlanDto.builder()
                 .id(plan.getId())
                 .planDate(plan.getPlanDate())
                 .notes(plan.getNotes())
                 .meals(meals)
+                .nutrition(toNutritionDto(nutrition))
                 .build();
     }
 
-    // Método privado para mapear una entidad PlanEntry a su DTO.
-    private PlanEntryDto mapToPlanEntryDto(PlanEntry entry) {
+    // Método privado para mapear una entidad PlanEntry a su DTO. La receta se escribe con su fragmento en caché.
+    private PlanEntryDto mapToPlanEntryDto(PlanEntry entry, RoaringBitmap favorites, long fragmentsVersion) {
+        Recipe recipe = entry.getRecipe();
         return PlanEntryDto.builder()
                 .id(entry.getId())
-                .recipe(mapToRecipePreviewResponse(entry.getRecipe()))
+                .recipe(new RecipePreview(recipe.getId(), FavoriteIndex.isFavorite(favorites, recipe.getId()),
+                        favoriteCounters.count(recipe.getId()), fragmentsVersion,
+                        () -> mapToRecipePreviewResponse(recipe, favorites)))
+                .servings(entry.getServings())
                 .build();
     }
 
     // Método privado para mapear una entidad Recipe a un DTO de previsualización.
-    private RecipePreviewResponse mapToRecipePreviewResponse(Recipe recipe) {
+    private RecipePreviewResponse mapToRecipePreviewResponse(Recipe recipe, RoaringBitmap favorites) {
         return RecipePreviewResponse.builder()
                 .id(recipe.getId())
                 .title(recipe.getTitle())
@@ -121,6 +202,8 @@ public class PlanService {
                 .readyInMinutes(recipe.getReadyInMinutes() + " min")
                 .difficulty(recipe.getDifficulty())
                 .category(recipe.getCategory())
+                .isFavorite(FavoriteIndex.isFavorite(favorites, recipe.getId()))
+                .favoriteCount(favoriteCounters.count(recipe.getId()))
                 .build();
     }
 }
\ No newline at end of file
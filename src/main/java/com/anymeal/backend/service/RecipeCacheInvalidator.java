@@ -0,0 +1,53 @@
+/*
+ * Archivo: RecipeCacheInvalidator.java
+ * Propósito: Escucha los cambios de Hibernate sobre la entidad Recipe. Cuando una receta se modifica o se
+ * borra, descarta sus datos en caché: el fragmento JSON de su previsualización (RecipePreviewFragments) y sus
+ * detalles por porciones (RecipeService). Se aplica al confirmarse la transacción, como el resto de cachés.
+ * Se registra en Hibernate desde HibernateListenerConfig, así que la entidad no depende de este servicio.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.model.Recipe;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class RecipeCacheInvalidator implements PostUpdateEventListener, PostDeleteEventListener {
+
+    private final RecipePreviewFragments previewFragments;
+    private final RecipeService recipeService;
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Recipe recipe) {
+            recipeChanged(recipe.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Recipe recipe) {
+            recipeChanged(recipe.getId());
+        }
+    }
+
+    // Las cachés se limpian con TransactionHooks, no con los eventos posteriores al commit de Hibernate.
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void recipeChanged(Long recipeId) {
+        TransactionHooks.afterCommit(() -> {
+            // Primero la versión: así ninguna lectura anterior al cambio vuelve a guardar el detalle tras borrarlo.
+            previewFragments.invalidate(recipeId);
+            recipeService.evictDetails(recipeId);
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,228 @@
+/*
+ * Archivo: RecipeCatalog.java
+ * Propósito: Mantiene en memoria una instantánea compacta del catálogo de recetas (arreglos primitivos
+ * con tiempo de preparación, dietas y valores nutricionales). La usa el generador automático de planes
+ * para evaluar miles de combinaciones sin volver a consultar la base de datos ni parsear JSON.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.repository.RecipeRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+@RequiredArgsConstructor
+public class RecipeCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeCatalog.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final RecipeRepository recipeRepository;
+
+    // Minutos que una instantánea se considera vigente antes de recargarla.
+    @Value("${anymeal.catalog.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    // Si es true, la instantánea se carga en segundo plano al arrancar la aplicación.
+    @Value("${anymeal.catalog.preload:true}")
+    private boolean preload;
+
+    // Instantánea actual. Se reemplaza completa (nunca se modifica), por eso basta con 'volatile'.
+    private volatile Snapshot snapshot;
+
+    // Indica si hay una recarga en segundo plano en curso.
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    // Carga el catálogo al arrancar para que la primera generación de plan no pague la carga.
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (preload) {
+            Thread.ofPlatform().name("recipe-catalog-warmup").daemon(true).start(this::getSnapshot);
+        }
+    }
+
+    /*
+     * Devuelve la instantánea vigente. Solo se espera a la carga si aún no hay ninguna; si la actual ha
+     * caducado se devuelve igualmente y se recarga en segundo plano, para que ninguna petición pague
+     * la lectura del catálogo completo.
+     */
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return reload();
+        }
+        if (current.isExpired(ttlMinutes)) {
+            refreshInBackground();
+        }
+        return current;
+    }
+
+    // Lanza una recarga en un hilo aparte, salvo que ya haya una en curso.
+    private void refreshInBackground() {
+        if (refreshing.compareAndSet(false, true)) {
+            Thread.ofPlatform().name("recipe-catalog-refresh").daemon(true).start(() -> {
+                try {
+                    reload();
+                } catch (RuntimeException e) {
+                    // Se sigue sirviendo la instantánea anterior; la próxima petición lo volverá a intentar.
+                    logger.warn("No se pudo recargar el catálogo de recetas", e);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+    }
+
+    // Devuelve la instantánea actual sin recargarla nunca (puede ser null o estar algo desactualizada).
+    public Snapshot peekSnapshot() {
+        return snapshot;
+    }
+
+    // Recarga el catálogo desde la base de datos. Solo un hilo recarga a la vez.
+    public synchronized Snapshot reload() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(ttlMinutes)) {
+            return current; // Otro hilo ya la recargó mientras esperábamos.
+        }
+        long start = System.nanoTime();
+        List<Object[]> rows = recipeRepository.findCatalogRows();
+        Snapshot loaded = Snapshot.build(rows);
+        snapshot = loaded;
+        logger.info("Catálogo de recetas cargado: {} recetas en {} ms", loaded.size(), (System.nanoTime() - start) / 1_000_000);
+        return loaded;
+    }
+
+    // Instantánea inmutable del catálogo. Cada receta ocupa una posición (ordinal) en los arreglos.
+    public static final class Snapshot {
+        private final long loadedAtMillis = System.currentTimeMillis();
+        private final long[] recipeIds;
+        private final int[] readyInMinutes;
+        private final long[] dietMasks;
+        private final float[] calories;
+        private final float[] protein;
+        private final float[] fat;
+        private final float[] carbs;
+        private final Map<String, Integer> dietBits;
+        private final Map<Long, Integer> ordinalById;
+
+        private Snapshot(int size, Map<String, Integer> dietBits) {
+            this.recipeIds = new long[size];
+            this.readyInMinutes = new int[size];
+            this.dietMasks = new long[size];
+            this.calories = new float[size];
+            this.protein = new float[size];
+            this.fat = new float[size];
+            this.carbs = new float[size];
+            this.dietBits = dietBits;
+            this.ordinalById = new HashMap<>(size * 2);
+        }
+
+        static Snapshot build(List<Object[]> rows) {
+            Map<String, Integer> dietBits = new HashMap<>();
+            Snapshot s = new Snapshot(rows.size(), dietBits);
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                long id = (Long) row[0];
+                s.recipeIds[i] = id;
+                s.ordinalById.put(id, i);
+                // Una receta sin tiempo de preparación se considera sin límite.
+                s.readyInMinutes[i] = row[1] != null ? (Integer) row[1] : Integer.MAX_VALUE;
+                s.dietMasks[i] = parseDiets((String) row[2], dietBits);
+                NutritionFacts facts = NutritionFacts.parse((String) row[3]);
+                s.calories[i] = (float) facts.calories();
+                s.protein[i] = (float) facts.protein();
+                s.fat[i] = (float) facts.fat();
+                s.carbs[i] = (float) facts.carbs();
+            }
+            return s;
+        }
+
+        // Convierte la lista JSON de dietas en una máscara de bits (máximo 64 dietas distintas).
+        private static long parseDiets(String json, Map<String, Integer> dietBits) {
+            if (json == null || json.isBlank()) {
+                return 0L;
+            }
+            long mask = 0L;
+            try {
+                JsonNode node = MAPPER.readTree(json);
+                if (node.isArray()) {
+                    for (JsonNode diet : node) {
+                        String key = normalizeDiet(diet.asText());
+                        Integer bit = dietBits.get(key);
+                        if (bit == null && dietBits.size() < Long.SIZE) {
+                            bit = dietBits.size();
+                            dietBits.put(key, bit);
+                        }
+                        if (bit != null) {
+                            mask |= 1L << bit;
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                // Dietas mal formadas: la receta simplemente no cumple ninguna dieta.
+            }
+            return mask;
+        }
+
+        private static String normalizeDiet(String diet) {
+            return diet.trim().toLowerCase(Locale.ROOT);
+        }
+
+        /*
+         * Calcula la máscara que una receta debe cubrir para cumplir todas las dietas pedidas.
+         * Devuelve -1 si alguna dieta no existe en el catálogo (ninguna receta podrá cumplirla).
+         */
+        public long requiredDietMask(Collection<String> diets) {
+            long mask = 0L;
+            if (diets == null) {
+                return mask;
+            }
+            for (String diet : diets) {
+                Integer bit = dietBits.get(normalizeDiet(diet));
+                if (bit == null) {
+                    return -1L;
+                }
+                mask |= 1L << bit;
+            }
+            return mask;
+        }
+
+        boolean isExpired(long ttlMinutes) {
+            return System.currentTimeMillis() - loadedAtMillis > ttlMinutes * 60_000L;
+        }
+
+        public int size() { return recipeIds.length; }
+        public long recipeId(int ordinal) { return recipeIds[ordinal]; }
+        public int readyInMinutes(int ordinal) { return readyInMinutes[ordinal]; }
+        public long dietMask(int ordinal) { return dietMasks[ordinal]; }
+        public float calories(int ordinal) { return calories[ordinal]; }
+        public float protein(int ordinal) { return protein[ordinal]; }
+        public float fat(int ordinal) { return fat[ordinal]; }
+        public float carbs(int ordinal) { return carbs[ordinal]; }
+
+        // Devuelve los valores nutricionales de una receta de la instantánea.
+        public NutritionFacts nutrition(int ordinal) {
+            return new NutritionFacts(calories[ordinal], protein[ordinal], fat[ordinal], carbs[ordinal]);
+        }
+
+        // Devuelve el ordinal de una receta, o -1 si no está en la instantánea.
+        public int ordinalOf(long recipeId) {
+            Integer ordinal = ordinalById.get(recipeId);
+            return ordinal != null ? ordinal : -1;
+        }
+    }
+}
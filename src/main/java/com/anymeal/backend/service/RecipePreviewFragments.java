@@ -0,0 +1,144 @@
+/*
+ * Archivo: RecipePreviewFragments.java
+ * Propósito: Caché de las previsualizaciones de recetas ya serializadas a JSON, por ID de receta.
+ * Los campos fijos de cada receta (id, título, imagen, "35 min", dificultad, categoría) se serializan
+ * una sola vez; en cada respuesta solo se añaden los que cambian según el usuario y el momento
+ * (isFavorite y favoriteCount). Así las listas y los planes se escriben copiando bytes en lugar de
+ * volver a construir y serializar los mismos objetos en cada petición.
+ * Un fragmento vale hasta que la receta se modifica o se borra (ver RecipeCacheInvalidator).
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.dto.RecipePreview;
+import com.anymeal.backend.dto.RecipePreviewResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class RecipePreviewFragments {
+
+    private static final SerializableString IS_FAVORITE = new SerializedString(",\"isFavorite\":");
+    private static final SerializableString FAVORITE_COUNT = new SerializedString(",\"favoriteCount\":");
+    private static final SerializableString TRUE = new SerializedString("true");
+    private static final SerializableString FALSE = new SerializedString("false");
+    private static final SerializableString NULL = new SerializedString("null");
+    private static final SerializableString END = new SerializedString("}");
+
+    // Misma fábrica (y por tanto mismo escapado) que el ObjectMapper de la aplicación.
+    private final JsonFactory jsonFactory;
+
+    // Número máximo de recetas con su fragmento en caché.
+    @Value("${anymeal.preview-fragments.max-entries:20000}")
+    private int maxEntries;
+
+    // JSON de los campos fijos de cada receta, sin la llave de cierre. SerializedString guarda también sus bytes UTF-8.
+    private final Map<Long, SerializedString> fragments = new ConcurrentHashMap<>();
+
+    /*
+     * Se incrementa en cada invalidación. Las previsualizaciones guardan la versión leída antes de cargar
+     * la receta: si entre medias se invalidó alguna, el fragmento que generen se usa pero no se guarda,
+     * porque pudo salir de los datos anteriores al cambio.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    public RecipePreviewFragments(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    // Versión actual de la caché. Se lee antes de la primera consulta de la transacción que carga las recetas.
+    public long version() {
+        return version.get();
+    }
+
+    // Escribe una previsualización completa en JSON: el fragmento en caché más isFavorite y favoriteCount.
+    public void write(RecipePreview preview, OutputStream out) throws IOException {
+        out.write(fragmentOf(preview).asUnquotedUTF8());
+        out.write(IS_FAVORITE.asUnquotedUTF8());
+        out.write(booleanOf(preview.isFavorite()).asUnquotedUTF8());
+        out.write(FAVORITE_COUNT.asUnquotedUTF8());
+        out.write(preview.favoriteCount() == null
+                ? NULL.asUnquotedUTF8() : Long.toString(preview.favoriteCount()).getBytes(StandardCharsets.US_ASCII));
+        out.write(END.asUnquotedUTF8());
+    }
+
+    // Igual que write(preview, out), pero como un valor más dentro de un documento que escribe Jackson.
+    public void write(RecipePreview preview, JsonGenerator generator) throws IOException {
+        // writeRawValue añade la coma si hace falta y cuenta el objeto como el valor del campo o del arreglo.
+        generator.writeRawValue(fragmentOf(preview));
+        generator.writeRaw(IS_FAVORITE);
+        generator.writeRaw(booleanOf(preview.isFavorite()));
+        generator.writeRaw(FAVORITE_COUNT);
+        generator.writeRaw(preview.favoriteCount() == null ? NULL.getValue() : Long.toString(preview.favoriteCount()));
+        generator.writeRaw(END);
+    }
+
+    // Descarta el fragmento de una receta (se vuelve a serializar en la siguiente respuesta que la incluya).
+    public void invalidate(Long recipeId) {
+        if (recipeId != null) {
+            version.incrementAndGet();
+            fragments.remove(recipeId);
+        }
+    }
+
+    private static SerializableString booleanOf(Boolean value) {
+        return value == null ? NULL : value ? TRUE : FALSE;
+    }
+
+    private SerializedString fragmentOf(RecipePreview preview) throws IOException {
+        Long recipeId = preview.id();
+        SerializedString cached = recipeId != null ? fragments.get(recipeId) : null;
+        if (cached != null) {
+            return cached;
+        }
+        SerializedString fragment = serialize(preview.toResponse());
+        if (recipeId == null) {
+            return fragment;
+        }
+        // Si la caché está llena, se descarta una entrada cualquiera para hacer sitio.
+        if (fragments.size() >= maxEntries) {
+            Iterator<Long> iterator = fragments.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        // Se comprueba la versión dentro de compute: una invalidación posterior espera a que termine y lo borra.
+        fragments.compute(recipeId, (id, current) ->
+                current != null ? current : version.get() == preview.fragmentsVersion() ? fragment : null);
+        return fragment;
+    }
+
+    // Serializa los campos fijos en el mismo orden y formato que Jackson usa para RecipePreviewResponse.
+    private SerializedString serialize(RecipePreviewResponse preview) throws IOException {
+        StringWriter buffer = new StringWriter(256);
+        // Sin close(): cerraría automáticamente el objeto, que se completa en write().
+        JsonGenerator generator = jsonFactory.createGenerator(buffer);
+        generator.writeStartObject();
+        if (preview.getId() == null) {
+            generator.writeNullField("id");
+        } else {
+            generator.writeNumberField("id", preview.getId());
+        }
+        generator.writeStringField("title", preview.getTitle());
+        generator.writeStringField("imageUrl", preview.getImageUrl());
+        generator.writeStringField("readyInMinutes", preview.getReadyInMinutes());
+        generator.writeStringField("difficulty", preview.getDifficulty());
+        generator.writeStringField("category", preview.getCategory());
+        generator.flush();
+        return new SerializedString(buffer.toString());
+    }
+}
\ No newline at end of file
@@ -5,19 +5,25 @@
  */
 package com.anymeal.backend.service;
 
+import com.anymeal.backend.dto.IngredientAmountDto;
 import com.anymeal.backend.dto.RecipeDetailResponse;
+import com.anymeal.backend.dto.RecipePreview;
+import com.anymeal.backend.dto.RecipePreviewList;
 import com.anymeal.backend.dto.RecipePreviewResponse;
 import com.anymeal.backend.model.Recipe;
 import com.anymeal.backend.model.RecipeIngredient;
 import com.anymeal.backend.repository.RecipeRepository;
 import lombok.RequiredArgsConstructor;
-import org.hibernate.Hibernate;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,9 +31,26 @@ import java.util.stream.Collectors;
 public class RecipeService {
 
     private final RecipeRepository recipeRepository;
+    private final FavoriteIndex favoriteIndex;
+    private final FavoriteCounters favoriteCounters;
+    private final RecipePreviewFragments previewFragments;
 
-    // Busca recetas, opcionalmente filtradas por un término de búsqueda.
-    public List<RecipePreviewResponse> searchRecipes(String query) {
+    // Número máximo de detalles de receta (receta + porciones) guardados en caché.
+    @Value("${anymeal.recipe-detail-cache.max-entries:2000}")
+    private int detailCacheMaxEntries;
+
+    // Caché de detalles ya calculados por (receta, porciones). Porciones 0 = las de la receta.
+    private final Map<DetailKey, RecipeDetailResponse> detailCache = new ConcurrentHashMap<>();
+
+    private record DetailKey(long recipeId, int servings) {}
+
+    /*
+     * Busca recetas, opcionalmente filtradas por un término de búsqueda.
+     * Cada resultado indica si es favorito del usuario (consulta O(1) en FavoriteIndex; nulo sin usuario).
+     * Se devuelve una RecipePreviewList para que la respuesta se escriba con los fragmentos JSON en caché.
+     */
+    public List<RecipePreviewResponse> searchRecipes(Long userId, String query) {
+        long fragmentsVersion = previewFragments.version();
         List<Recipe> recipes;
         // Si no hay término de búsqueda, devuelve todas las recetas.
         if (query == null || query.trim().isEmpty()) {
@@ -37,31 +60,76 @@ public class RecipeService {
             recipes = recipeRepository.searchRecipes(query.trim());
         }
         // Mapea los resultados a DTOs de previsualización.
-        return recipes.stream()
-                .map(this::mapToRecipePreviewResponse)
-                .collect(Collectors.toList());
+        RoaringBitmap favorites = favoriteIndex.favoritesOf(userId);
+        return new RecipePreviewList(recipes.stream()
+                .map(recipe -> new RecipePreview(recipe.getId(), FavoriteIndex.isFavorite(favorites, recipe.getId()),
+                        favoriteCounters.count(recipe.getId()), fragmentsVersion,
+                        () -> mapToRecipePreviewResponse(recipe, favorites)))
+                .collect(Collectors.toList()));
+    }
+
+    // Obtiene los detalles completos de una receta por su ID, con las porciones de la receta.
+    public RecipeDetailResponse getRecipeById(Long id) {
+        return getRecipeById(id, null);
     }
 
     /*
-     * Obtiene los detalles completos de una receta por su ID.
-     * @Transactional: Es crucial aquí para mantener la sesión de la base de datos abierta,
-     * lo que permite cargar colecciones con FetchType.LAZY (carga perezosa).
+     * Obtiene los detalles completos de una receta con las cantidades de ingredientes escaladas
+     * al número de porciones pedido (nulo = las de la receta).
+     * El resultado se guarda en caché por (receta, porciones), así que los factores de escala más
+     * usados no vuelven a consultar la base de datos ni a recalcularse. Como en las previsualizaciones,
+     * la versión de RecipePreviewFragments se lee antes de cargar la receta: si se invalidó alguna
+     * mientras tanto, el detalle se devuelve pero no se guarda.
      */
-    @Transactional(readOnly = true)
-    public RecipeDetailResponse getRecipeById(Long id) {
-        Recipe recipe = recipeRepository.findById(id).orElse(null);
+    public RecipeDetailResponse getRecipeById(Long id, Integer servings) {
+        Servings.validate(servings);
+        DetailKey key = new DetailKey(id, servings != null ? servings : 0);
+        RecipeDetailResponse cached = detailCache.get(key);
+        if (cached != null) {
+            return withFavoriteCount(cached);
+        }
+        long fragmentsVersion = previewFragments.version();
+        // La receta se carga junto con sus ingredientes (colección LAZY) en una sola consulta.
+        Recipe recipe = recipeRepository.findWithIngredientsById(id).orElse(null);
         if (recipe == null) {
             return null;
         }
-        // Forzamos la inicialización de la colección de ingredientes, que es LAZY.
-        // Esto carga los datos de la base de datos antes de que la sesión se cierre.
-        Hibernate.initialize(recipe.getIngredients());
         // Mapea la entidad a un DTO de detalles y lo devuelve.
-        return mapToRecipeDetailResponse(recipe);
+        RecipeDetailResponse detail = mapToRecipeDetailResponse(recipe, servings);
+        cacheDetail(key, detail, fragmentsVersion);
+        return withFavoriteCount(detail);
+    }
+
+    // Los detalles en caché se comparten entre peticiones: el contador actual se pone en una copia.
+    private RecipeDetailResponse withFavoriteCount(RecipeDetailResponse detail) {
+        return detail.toBuilder()
+                .favoriteCount(favoriteCounters.count(detail.getId()))
+                .build();
+    }
+
+    // Descarta los detalles en caché de una receta, para todas las porciones (ver RecipeCacheInvalidator).
+    public void evictDetails(Long recipeId) {
+        if (recipeId != null) {
+            detailCache.keySet().removeIf(key -> key.recipeId() == recipeId);
+        }
+    }
+
+    // Guarda un detalle en caché. Si la caché está llena, se descarta una entrada cualquiera para hacer sitio.
+    private void cacheDetail(DetailKey key, RecipeDetailResponse detail, long fragmentsVersion) {
+        if (detailCache.size() >= detailCacheMaxEntries) {
+            Iterator<DetailKey> iterator = detailCache.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        // Se comprueba la versión dentro de compute: una invalidación posterior espera a que termine y lo borra.
+        detailCache.compute(key, (k, current) ->
+                current != null ? current : previewFragments.version() == fragmentsVersion ? detail : null);
     }
 
     // Mapea una entidad Recipe a un DTO de previsualización.
-    private RecipePreviewResponse mapToRecipePreviewResponse(Recipe recipe) {
+    private RecipePreviewResponse mapToRecipePreviewResponse(Recipe recipe, RoaringBitmap favorites) {
         return RecipePreviewResponse.builder()
                 .id(recipe.getId())
                 .title(recipe.getTitle())
@@ -69,17 +137,27 @@ public class RecipeService {
                 .readyInMinutes(recipe.getReadyInMinutes() + " min")
                 .difficulty(recipe.getDifficulty())
                 .category(recipe.getCategory())
+                .isFavorite(FavoriteIndex.isFavorite(favorites, recipe.getId()))
+                .favoriteCount(favoriteCounters.count(recipe.getId()))
                 .build();
     }
 
-    // Mapea una entidad Recipe a un DTO de detalles completos.
-    private RecipeDetailResponse mapToRecipeDetailResponse(Recipe recipe) {
+    // Mapea una entidad Recipe a un DTO de detalles completos, escalando las cantidades a las porciones pedidas.
+    private RecipeDetailResponse mapToRecipeDetailResponse(Recipe recipe, Integer servings) {
         // Se crea una copia de la colección para operar de forma segura y evitar problemas con el proxy de Hibernate.
         List<RecipeIngredient> safeIngredients = new ArrayList<>(recipe.getIngredients());
         // Extrae las descripciones originales de los ingredientes.
         List<String> ingredients = safeIngredients.stream()
                 .map(RecipeIngredient::getOriginalDescription)
                 .collect(Collectors.toList());
+        // Cantidades de cada ingrediente, escaladas de las porciones de la receta a las pedidas.
+        double scale = Servings.scale(servings, recipe.getServings());
+        List<IngredientAmountDto> ingredientAmounts = safeIngredients.stream()
+                .map(ri -> new IngredientAmountDto(
+                        ri.getIngredient() != null ? ri.getIngredient().getName() : ri.getOriginalDescription(),
+                        ri.getAmount() != null ? Math.round(ri.getAmount() * scale * 100.0) / 100.0 : null,
+                        ri.getUnit()))
+                .collect(Collectors.toList());
         // Procesa el string de instrucciones para convertirlo en una lista de pasos.
         List<String> steps = (recipe.getInstructions() != null && !recipe.getInstructions().isEmpty())
                 ? Arrays.asList(recipe.getInstructions().split("\\r?\\n")) // Divide por saltos de línea.
@@ -94,6 +172,8 @@ public class RecipeService {
                 .category(recipe.getCategory())
                 .description(recipe.getSummary())
                 .ingredients(ingredients)
+                .servings(servings != null ? servings : recipe.getServings())
+                .ingredientAmounts(ingredientAmounts)
                 .steps(steps)
                 .build();
     }
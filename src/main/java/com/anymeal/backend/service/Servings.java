@@ -0,0 +1,30 @@
+/*
+ * Archivo: Servings.java
+ * Propósito: Utilidad para escalar las cantidades de una receta según el número de porciones.
+ * Una receta pensada para 4 porciones y planificada para 6 necesita 1.5 veces cada ingrediente.
+ * Los valores nutricionales no se escalan: están expresados por porción.
+ */
+package com.anymeal.backend.service;
+
+public final class Servings {
+
+    private Servings() {}
+
+    /*
+     * Devuelve el factor por el que se multiplican las cantidades de una receta de 'recipeServings'
+     * porciones para preparar 'servings' porciones. Si falta alguno de los dos datos, no se escala (1).
+     */
+    public static double scale(Integer servings, Integer recipeServings) {
+        if (servings == null || recipeServings == null || recipeServings <= 0) {
+            return 1.0;
+        }
+        return servings / (double) recipeServings;
+    }
+
+    // Valida un número de porciones pedido por el cliente (nulo significa "las de la receta").
+    public static void validate(Integer servings) {
+        if (servings != null && servings <= 0) {
+            throw new IllegalArgumentException("El número de porciones debe ser mayor que cero");
+        }
+    }
+}
\ No newline at end of file
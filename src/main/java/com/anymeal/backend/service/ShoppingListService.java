@@ -5,10 +5,18 @@ import com.anymeal.backend.dto.ShoppingListDtos.*;
 import com.anymeal.backend.model.*;
 import com.anymeal.backend.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
 @Service
@@ -16,62 +24,437 @@ import java.util.stream.Collectors;
 public class ShoppingListService {
 
     private final ShoppingListItemRepository shoppingListItemRepository;
-    private final DailyPlanRepository dailyPlanRepository;
-    private final PlanEntryRepository planEntryRepository;
+    private final IngredientRepository ingredientRepository;
     private final RecipeIngredientRepository recipeIngredientRepository;
+    private final ShoppingListStateRepository shoppingListStateRepository;
+    private final UserRepository userRepository;
+    private final ShoppingRuleEngine shoppingRuleEngine;
+    private final ShoppingListVersionRepository shoppingListVersionRepository;
+    private final ShoppingListTombstoneRepository shoppingListTombstoneRepository;
+    private final PantryItemRepository pantryItemRepository;
+    private final PlanEntryRepository planEntryRepository;
+    private final TransactionTemplate transactionTemplate;
+    // Ejecutor acotado para consultar en paralelo los tramos de rangos largos (ver ExecutorConfig).
+    private final Executor shoppingListExecutor;
+    // Consultas de tramos en curso a la vez, sumando las de todas las generaciones (ver setMaxConcurrentQueries).
+    private Semaphore partitionQueries;
 
-    @Transactional
+    // Días que abarca cada tramo en que se divide el rango de fechas de la lista.
+    @Value("${anymeal.shopping-list.partition-days:7}")
+    private int partitionDays;
+
+    /*
+     * Tope de consultas de tramos a la vez: por defecto un tercio del pool de conexiones, para que las
+     * generaciones de listas largas dejen siempre conexiones libres al resto de peticiones.
+     */
+    @Autowired
+    void setMaxConcurrentQueries(@Value("${anymeal.shopping-list.max-concurrent-queries:0}") int maxConcurrentQueries,
+                                 @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        int limit = maxConcurrentQueries > 0 ? maxConcurrentQueries : Math.max(1, poolSize / 3);
+        // Semáforo justo: los tramos consultan en el orden en que se enviaron.
+        this.partitionQueries = new Semaphore(limit, true);
+    }
+
+    /*
+     * Cambio de una comida del plan que debe reflejarse en la lista de compras. 'multiplier' es positivo si
+     * se añadió y negativo si se quitó, escalado por sus porciones (ej: +1.5 al añadir 6 porciones de una receta de 4).
+     */
+    public record PlanEntryChange(Long recipeId, LocalDate date, double multiplier) {
+        public static PlanEntryChange added(Long recipeId, LocalDate date, Integer servings, Integer recipeServings) {
+            return new PlanEntryChange(recipeId, date, Servings.scale(servings, recipeServings));
+        }
+
+        public static PlanEntryChange removed(Long recipeId, LocalDate date, Integer servings, Integer recipeServings) {
+            return new PlanEntryChange(recipeId, date, -Servings.scale(servings, recipeServings));
+        }
+    }
+
+    // Por debajo de esta cantidad un ítem se considera agotado y se elimina de la lista.
+    private static final double EPSILON = 1e-9;
+
+    // Número máximo de elementos que se envían en una cláusula IN de una sola consulta.
+    private static final int MAX_IN_LIST_SIZE = 500;
+
+    /*
+     * Genera la lista de compras de un rango de fechas a partir del plan, reemplazando la anterior.
+     * Los ingredientes del rango se suman antes de abrir la transacción de escritura, por tramos y en
+     * paralelo (ver aggregateRange); después, en una transacción corta, se reemplazan los ítems.
+     * Como las lecturas no retienen ninguna conexión mientras esperan otra, muchas generaciones a la vez
+     * no pueden agotar el pool entre sí.
+     * Si el plan del rango cambió entre la lectura y la escritura (ver PlanEntryRepository.findFingerprint),
+     * se vuelve a sumar dentro de la transacción, tramo a tramo en su misma conexión, para no guardar
+     * totales que ya no corresponden al plan.
+     */
     public void generateListFromPlan(User user, GenerateListRequest request) {
-        shoppingListItemRepository.deleteByUserId(user.getId());
         LocalDate startDate = LocalDate.parse(request.startDate());
         LocalDate endDate = LocalDate.parse(request.endDate());
-        List<DailyPlan> dailyPlans = dailyPlanRepository.findByUserIdAndPlanDateBetween(user.getId(), startDate, endDate);
-        if (dailyPlans.isEmpty()) return;
-
-        List<Long> dailyPlanIds = dailyPlans.stream().map(DailyPlan::getId).collect(Collectors.toList());
-        List<PlanEntry> planEntries = planEntryRepository.findByDailyPlanIdIn(dailyPlanIds);
-        if (planEntries.isEmpty()) return;
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Quien llama ya retiene una conexión: se lee en ella, sin pedir otras al pool mientras tanto.
+            replaceList(user, nextVersion(user.getId()), startDate, endDate,
+                    aggregateInTransaction(user.getId(), startDate, endDate));
+            return;
+        }
+        PlanEntryRepository.PlanFingerprint readFrom = planEntryRepository.findFingerprint(user.getId(), startDate, endDate);
+        IngredientAggregator aggregator = aggregateRange(user.getId(), startDate, endDate);
+        transactionTemplate.executeWithoutResult(status -> {
+            // La versión se reserva antes de comprobar el plan: los cambios del plan que se confirmen después
+            // esperan a esta transacción (applyPlanChanges también reserva versión) y se aplican sobre la lista nueva.
+            long version = nextVersion(user.getId());
+            boolean planUnchanged = planEntryRepository.findFingerprint(user.getId(), startDate, endDate).matches(readFrom);
+            replaceList(user, version, startDate, endDate,
+                    planUnchanged ? aggregator : aggregateInTransaction(user.getId(), startDate, endDate));
+        });
+    }
 
-        List<Long> recipeIds = planEntries.stream().map(pe -> pe.getRecipe().getId()).collect(Collectors.toList());
-        List<RecipeIngredient> ingredientsForPlan = recipeIngredientRepository.findAllByRecipeIdIn(recipeIds);
+    // Reemplaza la lista del usuario por los totales del rango, menos la despensa. Debe llamarse dentro de una transacción.
+    private void replaceList(User user, long version, LocalDate startDate, LocalDate endDate, IngredientAggregator aggregator) {
+        // Regenerar es un reinicio: los clientes con una versión anterior recibirán la lista completa,
+        // así que las marcas de borrado anteriores ya no hacen falta.
+        shoppingListVersionRepository.markReset(user.getId(), version);
+        shoppingListTombstoneRepository.deleteAllForUser(user.getId());
+        shoppingListItemRepository.deleteByUserId(user.getId());
+        // Recuerda el rango generado: a partir de ahora los cambios del plan en él se aplican de forma incremental.
+        ShoppingListState state = shoppingListStateRepository.findById(user.getId()).orElseGet(() -> {
+            ShoppingListState newState = new ShoppingListState();
+            newState.setUserId(user.getId());
+            return newState;
+        });
+        state.setStartDate(startDate);
+        state.setEndDate(endDate);
+        shoppingListStateRepository.save(state);
 
         // --- LÓGICA DE SUMA Y REDONDEO ---
-        IngredientAggregator aggregator = new IngredientAggregator();
-        aggregator.addIngredients(ingredientsForPlan); // Suma las cantidades
-        aggregator.applyShoppingLogic(); // Aplica el redondeo lógico
+        // Se descuenta lo que el usuario ya tiene en la despensa (cargada una sola vez).
+        aggregator.subtract(loadPantry(user.getId(), null));
+        List<IngredientAggregator.AggregatedIngredient> aggregated = aggregator.getResult();
+        if (aggregated.isEmpty()) return;
+        shoppingRuleEngine.apply(aggregated); // Aplica el redondeo lógico (reglas de compra)
 
         // Convierte el resultado agregado a ítems de la lista de compras
-        List<ShoppingListItem> newItems = aggregator.getResult().values().stream().map(agg -> {
+        List<ShoppingListItem> newItems = aggregated.stream().map(agg -> {
             ShoppingListItem item = new ShoppingListItem();
             item.setUser(user);
-            item.setIngredient(agg.getIngredient());
-
-            // Si hay una unidad final (ej: "Comprar 1 docena"), se usa esa.
-            if (agg.getFinalUnit() != null) {
-                item.setUnit(agg.getFinalUnit());
-                item.setAmount(null); // No se necesita cantidad numérica
-            } else {
-                item.setAmount(agg.getAmount());
-                item.setUnit(agg.getUnit());
-            }
-            // Aquí se podría añadir una categoría si tu modelo Ingredient la tiene.
-            // item.setCategory(agg.getIngredient().getCategory());
+            item.setIngredient(ingredientRepository.getReferenceById(agg.getIngredientId()));
+            applyAggregate(item, agg);
+            item.setRowVersion(version);
             return item;
         }).collect(Collectors.toList());
 
         shoppingListItemRepository.saveAll(newItems);
     }
 
+    /*
+     * Suma los ingredientes de todas las comidas del rango, unificando unidades (g/kg, cup/tbsp...). El rango
+     * se divide en tramos de 'partitionDays' días; cada tramo se consulta (GROUP BY en la base de datos) y se
+     * agrega por separado en el ejecutor de la lista de compras, y los agregadores parciales se combinan al
+     * final. Un rango de un solo tramo se resuelve en el hilo actual, sin coste de coordinación.
+     * Se llama fuera de cualquier transacción: cada tramo usa su propia conexión solo mientras dura su consulta,
+     * y como mucho 'max-concurrent-queries' tramos (de todas las generaciones) consultan a la vez.
+     */
+    private IngredientAggregator aggregateRange(Long userId, LocalDate startDate, LocalDate endDate) {
+        int days = Math.max(1, partitionDays);
+        if (endDate.isBefore(startDate.plusDays(days))) {
+            return aggregatePartition(userId, startDate, endDate);
+        }
+        List<CompletableFuture<IngredientAggregator>> partials = new ArrayList<>();
+        for (LocalDate from = startDate; !from.isAfter(endDate); from = from.plusDays(days)) {
+            LocalDate partitionStart = from;
+            LocalDate partitionEnd = from.plusDays(days - 1L).isAfter(endDate) ? endDate : from.plusDays(days - 1L);
+            partials.add(CompletableFuture.supplyAsync(() -> {
+                partitionQueries.acquireUninterruptibly();
+                try {
+                    return aggregatePartition(userId, partitionStart, partitionEnd);
+                } finally {
+                    partitionQueries.release();
+                }
+            }, shoppingListExecutor));
+        }
+        IngredientAggregator result = new IngredientAggregator();
+        try {
+            for (CompletableFuture<IngredientAggregator> partial : partials) {
+                result.merge(partial.join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return result;
+    }
+
+    // Igual que aggregateRange, pero tramo a tramo en la conexión y la transacción actuales.
+    private IngredientAggregator aggregateInTransaction(Long userId, LocalDate startDate, LocalDate endDate) {
+        int days = Math.max(1, partitionDays);
+        IngredientAggregator aggregator = new IngredientAggregator();
+        for (LocalDate from = startDate; !from.isAfter(endDate); from = from.plusDays(days)) {
+            LocalDate to = from.plusDays(days - 1L).isAfter(endDate) ? endDate : from.plusDays(days - 1L);
+            aggregator.addTotals(recipeIngredientRepository.sumIngredientsForPlan(userId, from, to));
+        }
+        return aggregator;
+    }
+
+    // Consulta y agrega las cantidades de ingredientes de un tramo de fechas.
+    private IngredientAggregator aggregatePartition(Long userId, LocalDate startDate, LocalDate endDate) {
+        IngredientAggregator aggregator = new IngredientAggregator();
+        aggregator.addTotals(recipeIngredientRepository.sumIngredientsForPlan(userId, startDate, endDate));
+        return aggregator;
+    }
+
+    // Divide una lista en trozos de como máximo MAX_IN_LIST_SIZE elementos, para acotar las cláusulas IN.
+    private static <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += MAX_IN_LIST_SIZE) {
+            chunks.add(values.subList(from, Math.min(values.size(), from + MAX_IN_LIST_SIZE)));
+        }
+        return chunks;
+    }
+
+    /*
+     * Modo incremental: aplica a la lista de compras existente solo la diferencia de ingredientes que
+     * producen las comidas añadidas o quitadas del plan, en lugar de borrarla y regenerarla.
+     * Solo cuentan los cambios dentro del rango de fechas con el que se generó la lista. Se leen y
+     * escriben únicamente los ítems de los ingredientes afectados, y se conserva su estado de marcado.
+     */
+    @Transactional
+    public void applyPlanChanges(Long userId, List<PlanEntryChange> changes) {
+        ShoppingListState state = shoppingListStateRepository.findById(userId).orElse(null);
+        if (state == null) return;
+        List<PlanEntryChange> relevant = changes.stream().filter(change -> state.covers(change.date())).toList();
+        if (relevant.isEmpty()) return;
+
+        // Ingredientes de las recetas afectadas (cada receta se carga una sola vez aunque se repita).
+        List<Long> recipeIds = relevant.stream().map(PlanEntryChange::recipeId).distinct().toList();
+        Map<Long, List<RecipeIngredientRepository.RecipeIngredientRow>> ingredientsByRecipe = chunks(recipeIds).stream()
+                .flatMap(chunk -> recipeIngredientRepository.findRowsByRecipeIdIn(chunk).stream())
+                .collect(Collectors.groupingBy(RecipeIngredientRepository.RecipeIngredientRow::getRecipeId));
+        List<Long> ingredientIds = ingredientsByRecipe.values().stream()
+                .flatMap(List::stream)
+                .map(RecipeIngredientRepository.IngredientTotal::getIngredientId)
+                .distinct()
+                .toList();
+        if (ingredientIds.isEmpty()) return;
+        long version = nextVersion(userId);
+
+        Map<String, ShoppingListItem> items = loadItems(userId, ingredientIds);
+
+        /*
+         * Los ingredientes que están en la despensa no admiten una simple suma o resta: lo que falta comprar
+         * depende del total del rango. Esos se recalculan aparte; el resto se actualiza con la diferencia.
+         */
+        IngredientAggregator pantry = loadPantry(userId, ingredientIds);
+        Set<Long> pantryIngredientIds = pantry.getIngredientIds();
+
+        // Se aplica cada comida por separado para respetar cuántas veces aparece cada receta.
+        Set<ShoppingListItem> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (PlanEntryChange change : relevant) {
+            IngredientAggregator aggregator = new IngredientAggregator();
+            aggregator.addTotals(ingredientsByRecipe.getOrDefault(change.recipeId(), List.of()));
+            for (IngredientAggregator.AggregatedIngredient agg : aggregator.getResult()) {
+                if (pantryIngredientIds.contains(agg.getIngredientId())) continue;
+                String key = itemKey(agg.getIngredientId(), agg.getUnit());
+                double delta = change.multiplier() * agg.getBaseAmount();
+                ShoppingListItem item = items.get(key);
+                if (item == null) {
+                    if (delta <= 0) continue; // El usuario ya había quitado este ítem de la lista.
+                    item = newPlanItem(userId, agg.getIngredientId());
+                    item.setBaseAmount(0.0);
+                    items.put(key, item);
+                }
+                IngredientAggregator.AggregatedIngredient updated = new IngredientAggregator.AggregatedIngredient(
+                        agg.getIngredientId(), agg.getName(), item.getBaseAmount() + delta, agg.getUnit());
+                shoppingRuleEngine.apply(updated);
+                applyAggregate(item, updated);
+                touched.add(item);
+            }
+        }
+        if (!pantryIngredientIds.isEmpty()) {
+            recomputeItems(userId, state, pantryIngredientIds, pantry, items, touched);
+        }
+        persistTouched(userId, version, touched);
+    }
+
+    /*
+     * Recalcula desde cero los ítems de unos ingredientes de la lista de un usuario: total del plan en el
+     * rango de la lista menos la despensa. Se usa cuando cambia la despensa, que no afecta a ninguna comida.
+     */
+    @Transactional
+    public void refreshIngredients(Long userId, Collection<Long> ingredientIds) {
+        ShoppingListState state = shoppingListStateRepository.findById(userId).orElse(null);
+        if (state == null || ingredientIds.isEmpty()) return;
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(ingredientIds));
+        long version = nextVersion(userId);
+        Map<String, ShoppingListItem> items = loadItems(userId, ids);
+        Set<ShoppingListItem> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        recomputeItems(userId, state, ids, loadPantry(userId, ids), items, touched);
+        persistTouched(userId, version, touched);
+    }
+
+    // Recalcula (total del rango menos despensa) los ítems de los ingredientes indicados y los marca como tocados.
+    private void recomputeItems(Long userId, ShoppingListState state, Collection<Long> ingredientIds, IngredientAggregator pantry,
+                                Map<String, ShoppingListItem> items, Set<ShoppingListItem> touched) {
+        IngredientAggregator exact = new IngredientAggregator();
+        for (List<Long> chunk : chunks(List.copyOf(ingredientIds))) {
+            exact.addTotals(recipeIngredientRepository.sumIngredientsForPlanAndIngredients(
+                    userId, state.getStartDate(), state.getEndDate(), chunk));
+        }
+        exact.subtract(pantry);
+        Set<String> remaining = new HashSet<>();
+        for (IngredientAggregator.AggregatedIngredient agg : exact.getResult()) {
+            String key = itemKey(agg.getIngredientId(), agg.getUnit());
+            remaining.add(key);
+            ShoppingListItem item = items.computeIfAbsent(key, k -> newPlanItem(userId, agg.getIngredientId()));
+            shoppingRuleEngine.apply(agg);
+            applyAggregate(item, agg);
+            touched.add(item);
+        }
+        // Los ítems generados desde el plan que ya no hacen falta (cubiertos por la despensa) se borran.
+        Set<Long> recomputed = new HashSet<>(ingredientIds);
+        items.forEach((key, item) -> {
+            if (recomputed.contains(item.getIngredient().getId()) && !remaining.contains(key)) {
+                item.setBaseAmount(0.0);
+                touched.add(item);
+            }
+        });
+    }
+
+    /*
+     * Guarda los ítems tocados con la nueva versión y borra (dejando marca) los que quedaron a cero.
+     * Los ítems editados por el usuario no se borran aunque el plan ya no los necesite.
+     */
+    private void persistTouched(Long userId, long version, Set<ShoppingListItem> touched) {
+        List<ShoppingListItem> toSave = new ArrayList<>();
+        List<ShoppingListItem> toDelete = new ArrayList<>();
+        List<ShoppingListTombstone> tombstones = new ArrayList<>();
+        for (ShoppingListItem item : touched) {
+            if (item.getBaseAmount() > EPSILON || item.isUserEdited()) {
+                item.setRowVersion(version);
+                toSave.add(item);
+            } else if (item.getId() != null) {
+                toDelete.add(item);
+                tombstones.add(tombstone(userId, item.getId(), version));
+            }
+        }
+        shoppingListItemRepository.saveAll(toSave);
+        shoppingListItemRepository.deleteAllInBatch(toDelete);
+        shoppingListTombstoneRepository.saveAll(tombstones);
+    }
+
+    // Ítems actuales generados desde el plan para unos ingredientes, indexados por ingrediente y unidad base (canónica).
+    private Map<String, ShoppingListItem> loadItems(Long userId, List<Long> ingredientIds) {
+        Map<String, ShoppingListItem> items = new HashMap<>();
+        for (List<Long> chunk : chunks(ingredientIds)) {
+            for (ShoppingListItem item : shoppingListItemRepository.findByUserIdAndIngredientIdIn(userId, chunk)) {
+                if (item.getBaseUnit() != null) {
+                    items.put(itemKey(item.getIngredient().getId(), item.getBaseUnit()), item);
+                }
+            }
+        }
+        return items;
+    }
+
+    // Carga la despensa del usuario (solo de unos ingredientes, o toda si es null) en un agregador, con unidades canónicas.
+    private IngredientAggregator loadPantry(Long userId, List<Long> ingredientIds) {
+        IngredientAggregator pantry = new IngredientAggregator();
+        List<PantryItemRepository.PantryRow> rows = new ArrayList<>();
+        if (ingredientIds == null) {
+            rows.addAll(pantryItemRepository.findRowsByUserId(userId));
+        } else {
+            for (List<Long> chunk : chunks(ingredientIds)) {
+                rows.addAll(pantryItemRepository.findRowsByUserIdAndIngredientIdIn(userId, chunk));
+            }
+        }
+        for (PantryItemRepository.PantryRow row : rows) {
+            pantry.add(row.getIngredientId(), null, row.getUnit(), row.getQuantity());
+        }
+        return pantry;
+    }
+
+    // Crea un ítem de la lista vinculado a un ingrediente, sin consultar el usuario ni el ingrediente.
+    private ShoppingListItem newPlanItem(Long userId, long ingredientId) {
+        ShoppingListItem item = new ShoppingListItem();
+        item.setUser(userRepository.getReferenceById(userId));
+        item.setIngredient(ingredientRepository.getReferenceById(ingredientId));
+        return item;
+    }
+
+    /*
+     * Copia en el ítem la cantidad base y la cantidad a mostrar de un ingrediente agregado.
+     * Si el usuario editó la cantidad o la unidad, solo se actualiza la cantidad base y se respeta lo que escribió.
+     */
+    private void applyAggregate(ShoppingListItem item, IngredientAggregator.AggregatedIngredient agg) {
+        item.setBaseAmount(agg.getBaseAmount());
+        item.setBaseUnit(agg.getUnit());
+        if (item.isUserEdited()) {
+            return;
+        }
+        // Si hay una unidad final (ej: "Comprar 1 docena"), se usa esa.
+        if (agg.getFinalUnit() != null) {
+            item.setUnit(agg.getFinalUnit());
+            item.setAmount(null); // No se necesita cantidad numérica
+        } else {
+            item.setAmount(agg.getAmount());
+            item.setUnit(agg.getDisplayUnit());
+        }
+    }
+
+    private static String itemKey(Long ingredientId, String baseUnit) {
+        return ingredientId + "|" + baseUnit;
+    }
+
+    /*
+     * Reserva la siguiente versión de la lista del usuario: upsert atómico y lectura de LAST_INSERT_ID()
+     * en la misma conexión. Debe llamarse dentro de una transacción y antes de guardar ítems nuevos,
+     * porque cada INSERT con ID autoincremental cambia LAST_INSERT_ID().
+     */
+    private long nextVersion(Long userId) {
+        shoppingListVersionRepository.bumpVersion(userId);
+        return shoppingListVersionRepository.lastInsertId();
+    }
+
+    private static ShoppingListTombstone tombstone(Long userId, Long itemId, long version) {
+        return ShoppingListTombstone.builder().userId(userId).itemId(itemId).version(version).build();
+    }
+
+    private long currentVersion(Long userId) {
+        return shoppingListVersionRepository.findById(userId).map(ShoppingListVersion::getListVersion).orElse(0L);
+    }
+
     @Transactional(readOnly = true)
     public ShoppingListResponse getShoppingListForUser(User user) {
-        List<ShoppingListItem> items = shoppingListItemRepository.findByUserId(user.getId());
+        // La versión se lee antes que los ítems: si algo cambia entre medias, el cliente lo recibirá otra vez.
+        long version = currentVersion(user.getId());
+        List<ShoppingListItem> items = shoppingListItemRepository.findWithIngredientByUserId(user.getId());
         Map<String, List<ShoppingItemDto>> groupedItems = items.stream()
-                .map(item -> new ShoppingItemDto(
-                        item.getId(),
-                        item.getIngredient() != null ? item.getIngredient().getName() : item.getCustomName(),
-                        item.getAmount(), item.getUnit(), item.getCategory(), item.isChecked()
-                )).collect(Collectors.groupingBy(item -> Optional.ofNullable(item.category()).orElse("Otros")));
-        return new ShoppingListResponse(groupedItems);
+                .map(ShoppingListService::toItemDto)
+                .collect(Collectors.groupingBy(item -> Optional.ofNullable(item.category()).orElse("Otros")));
+        return new ShoppingListResponse(groupedItems, version);
+    }
+
+    /*
+     * Devuelve solo los cambios de la lista desde la versión 'since': ítems creados o modificados y IDs de
+     * ítems borrados. Si 'since' es 0, es anterior a la última regeneración o no corresponde a esta lista,
+     * se devuelve la lista completa marcada como reinicio.
+     */
+    @Transactional(readOnly = true)
+    public ShoppingListChangesResponse getChangesSince(User user, long since) {
+        ShoppingListVersion current = shoppingListVersionRepository.findById(user.getId()).orElse(null);
+        long version = current != null ? current.getListVersion() : 0L;
+        boolean reset = since <= 0 || since > version || (current != null && since < current.getResetVersion());
+        if (reset) {
+            List<ShoppingItemDto> all = shoppingListItemRepository.findWithIngredientByUserId(user.getId()).stream()
+                    .map(ShoppingListService::toItemDto)
+                    .collect(Collectors.toList());
+            return new ShoppingListChangesResponse(version, true, all, List.of());
+        }
+        List<ShoppingItemDto> upserts = shoppingListItemRepository.findByUserIdAndRowVersionGreaterThan(user.getId(), since).stream()
+                .map(ShoppingListService::toItemDto)
+                .collect(Collectors.toList());
+        List<Long> deletedIds = shoppingListTombstoneRepository.findItemIdsDeletedSince(user.getId(), since);
+        return new ShoppingListChangesResponse(version, false, upserts, deletedIds);
+    }
+
+    private static ShoppingItemDto toItemDto(ShoppingListItem item) {
+        return new ShoppingItemDto(item.getId(),
+                item.getIngredient() != null ? item.getIngredient().getName() : item.getCustomName(),
+                item.getAmount(), item.getUnit(), item.getCategory(), item.isChecked());
     }
 
     @Transactional
@@ -82,6 +465,7 @@ public class ShoppingListService {
         newItem.setAmount(request.amount());
         newItem.setUnit(request.unit());
         newItem.setCategory(Optional.ofNullable(request.category()).orElse("Manual"));
+        newItem.setRowVersion(nextVersion(user.getId()));
         ShoppingListItem savedItem = shoppingListItemRepository.save(newItem);
         return new ShoppingItemDto(savedItem.getId(), savedItem.getCustomName(), savedItem.getAmount(), savedItem.getUnit(), savedItem.getCategory(), savedItem.isChecked());
     }
@@ -90,6 +474,7 @@ public class ShoppingListService {
     public Optional<ShoppingItemDto> updateItem(User user, Long itemId, UpdateItemRequest request) {
         return shoppingListItemRepository.findByIdAndUserId(itemId, user.getId()).map(item -> {
             item.setChecked(request.isChecked());
+            item.setRowVersion(nextVersion(user.getId()));
             ShoppingListItem updated = shoppingListItemRepository.save(item);
             return new ShoppingItemDto(updated.getId(),
                     updated.getIngredient() != null ? updated.getIngredient().getName() : updated.getCustomName(),
@@ -97,8 +482,65 @@ public class ShoppingListService {
         });
     }
 
+    /*
+     * Aplica varios cambios de artículos en una sola transacción, con sentencias UPDATE por conjuntos:
+     * los cambios con el mismo valor (ej: todos los "marcar como comprado") se agrupan en una única
+     * sentencia con la lista de IDs. Cada sentencia filtra por usuario, así que los IDs ajenos se ignoran.
+     * Devuelve solo los artículos modificados que pertenecen al usuario.
+     */
+    @Transactional
+    public List<ShoppingItemDto> applyItemChanges(User user, BatchItemChangesRequest request) {
+        List<ItemChange> changes = request.changes() != null ? request.changes() : List.of();
+        if (changes.size() > MAX_IN_LIST_SIZE) {
+            throw new IllegalArgumentException("Demasiados cambios en una sola petición (máximo " + MAX_IN_LIST_SIZE + ")");
+        }
+        // Si un mismo artículo aparece varias veces, se combinan sus cambios (gana el último valor de cada campo).
+        Map<Long, ItemChange> byItem = new LinkedHashMap<>();
+        for (ItemChange change : changes) {
+            if (change.itemId() == null) {
+                throw new IllegalArgumentException("Cada cambio debe indicar el ID del artículo");
+            }
+            byItem.merge(change.itemId(), change, ShoppingListService::combine);
+        }
+        if (byItem.isEmpty()) return List.of();
+
+        Map<Boolean, List<Long>> idsByChecked = new HashMap<>();
+        Map<ContentEdit, List<Long>> idsByEdit = new HashMap<>();
+        for (ItemChange change : byItem.values()) {
+            if (change.isChecked() != null) {
+                idsByChecked.computeIfAbsent(change.isChecked(), checked -> new ArrayList<>()).add(change.itemId());
+            }
+            if (change.customName() != null || change.amount() != null || change.unit() != null) {
+                idsByEdit.computeIfAbsent(new ContentEdit(change.customName(), change.amount(), change.unit()),
+                        edit -> new ArrayList<>()).add(change.itemId());
+            }
+        }
+        long version = nextVersion(user.getId());
+        idsByChecked.forEach((checked, ids) -> shoppingListItemRepository.updateCheckedForUser(user.getId(), ids, checked, version));
+        idsByEdit.forEach((edit, ids) -> shoppingListItemRepository.updateContentForUser(
+                user.getId(), ids, edit.customName(), edit.amount(), edit.unit(), version));
+
+        return shoppingListItemRepository.findByUserIdAndIdIn(user.getId(), byItem.keySet()).stream()
+                .map(ShoppingListService::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    // Valores de edición de contenido; los artículos con los mismos valores se actualizan en una sola sentencia.
+    private record ContentEdit(String customName, Double amount, String unit) {}
+
+    // Combina dos cambios del mismo artículo: los campos no nulos del segundo reemplazan a los del primero.
+    private static ItemChange combine(ItemChange first, ItemChange second) {
+        return new ItemChange(first.itemId(),
+                second.isChecked() != null ? second.isChecked() : first.isChecked(),
+                second.amount() != null ? second.amount() : first.amount(),
+                second.unit() != null ? second.unit() : first.unit(),
+                second.customName() != null ? second.customName() : first.customName());
+    }
+
     @Transactional
     public void clearCheckedItems(User user) {
+        // Primero se registran los borrados (en una sola sentencia) y después se borran los ítems.
+        shoppingListTombstoneRepository.insertForCheckedItems(user.getId(), nextVersion(user.getId()));
         shoppingListItemRepository.deleteByUserIdAndIsChecked(user.getId(), true);
     }
 
@@ -107,6 +549,7 @@ public class ShoppingListService {
         Optional<ShoppingListItem> item = shoppingListItemRepository.findByIdAndUserId(itemId, user.getId());
         if (item.isPresent()) {
             shoppingListItemRepository.delete(item.get());
+            shoppingListTombstoneRepository.save(tombstone(user.getId(), itemId, nextVersion(user.getId())));
             return true;
         }
         return false;
@@ -121,10 +564,13 @@ public class ShoppingListService {
             }
             if (request.amount() != null) {
                 item.setAmount(request.amount());
+                item.setUserEdited(true);
             }
             if (request.unit() != null) {
                 item.setUnit(request.unit());
+                item.setUserEdited(true);
             }
+            item.setRowVersion(nextVersion(user.getId()));
 
             ShoppingListItem updated = shoppingListItemRepository.save(item);
             return new ShoppingItemDto(updated.getId(),
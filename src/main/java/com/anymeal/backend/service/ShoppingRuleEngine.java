@@ -0,0 +1,212 @@
+/*
+ * Archivo: ShoppingRuleEngine.java
+ * Propósito: Aplica las reglas de compra (tabla 'shopping_rules') a los ingredientes agregados de la
+ * lista de compras. Las reglas se compilan una sola vez en un arreglo ordenado de IDs de ingrediente,
+ * de modo que aplicarlas a un ítem es una búsqueda binaria sobre primitivos, sin comparar nombres.
+ * Si la tabla está vacía al arrancar, se siembra con el archivo 'shopping-rules.json' del classpath.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.model.ShoppingRule;
+import com.anymeal.backend.repository.IngredientRepository;
+import com.anymeal.backend.repository.ShoppingRuleRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class ShoppingRuleEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShoppingRuleEngine.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final ShoppingRuleRepository shoppingRuleRepository;
+    private final IngredientRepository ingredientRepository;
+
+    // Minutos que las reglas compiladas se consideran vigentes antes de recompilarlas (recoge reglas e ingredientes nuevos).
+    @Value("${anymeal.shopping-rules.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    // Archivo del classpath con las reglas iniciales.
+    @Value("${anymeal.shopping-rules.seed-file:shopping-rules.json}")
+    private String seedFile;
+
+    // Reglas compiladas actuales. Se reemplazan completas, por eso basta con 'volatile'.
+    private volatile CompiledRules compiled;
+
+    // Siembra la tabla de reglas desde el archivo si todavía está vacía.
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfEmpty() {
+        if (shoppingRuleRepository.count() > 0) {
+            return;
+        }
+        ClassPathResource resource = new ClassPathResource(seedFile);
+        if (!resource.exists()) {
+            return;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            List<ShoppingRule> rules = MAPPER.readValue(in, new TypeReference<List<ShoppingRule>>() {});
+            shoppingRuleRepository.saveAll(rules);
+            compiled = null; // Se recompila con las reglas recién sembradas.
+            logger.info("Reglas de compra sembradas desde {}: {}", seedFile, rules.size());
+        } catch (Exception e) {
+            logger.warn("No se pudieron sembrar las reglas de compra desde {}", seedFile, e);
+        }
+    }
+
+    // Aplica las reglas a una lista de ingredientes agregados.
+    public void apply(List<IngredientAggregator.AggregatedIngredient> ingredients) {
+        CompiledRules rules = current();
+        for (IngredientAggregator.AggregatedIngredient ingredient : ingredients) {
+            rules.apply(ingredient);
+        }
+    }
+
+    // Aplica las reglas a un único ingrediente agregado.
+    public void apply(IngredientAggregator.AggregatedIngredient ingredient) {
+        current().apply(ingredient);
+    }
+
+    // Fuerza la recompilación en el próximo uso (ej: tras editar la tabla de reglas).
+    public void invalidate() {
+        compiled = null;
+    }
+
+    private CompiledRules current() {
+        CompiledRules current = compiled;
+        if (current == null || current.isExpired(ttlMinutes)) {
+            current = recompile();
+        }
+        return current;
+    }
+
+    // Compila las reglas. Solo un hilo compila a la vez.
+    private synchronized CompiledRules recompile() {
+        CompiledRules current = compiled;
+        if (current != null && !current.isExpired(ttlMinutes)) {
+            return current; // Otro hilo ya las compiló mientras esperábamos.
+        }
+        long start = System.nanoTime();
+        CompiledRules rules = CompiledRules.compile(shoppingRuleRepository.findAll(), ingredientRepository.findIdAndNameRows());
+        compiled = rules;
+        logger.info("Reglas de compra compiladas: {} ingredientes con regla en {} ms",
+                rules.matched, (System.nanoTime() - start) / 1_000_000);
+        return rules;
+    }
+
+    // Una regla lista para aplicarse: la plantilla de varios paquetes ya viene separada alrededor de "{n}".
+    private record CompiledRule(String unit, double packageSize, ShoppingRule.RoundingMode mode,
+                                String halfText, String oneText, String manyPrefix, String manySuffix) {
+
+        static CompiledRule of(ShoppingRule rule) {
+            String many = rule.getManyTemplate() != null ? rule.getManyTemplate() : rule.getOneTemplate();
+            int placeholder = many.indexOf("{n}");
+            String prefix = placeholder >= 0 ? many.substring(0, placeholder) : many;
+            String suffix = placeholder >= 0 ? many.substring(placeholder + 3) : "";
+            return new CompiledRule(rule.getUnit(), rule.getPackageSize(), rule.getRoundingMode(),
+                    rule.getHalfTemplate(), rule.getOneTemplate(), prefix, suffix);
+        }
+
+        void apply(IngredientAggregator.AggregatedIngredient ingredient) {
+            if (unit != null && !unit.equals(ingredient.getUnit())) {
+                return;
+            }
+            double packages = ingredient.getBaseAmount() / packageSize;
+            String text;
+            if (mode == ShoppingRule.RoundingMode.ONE) {
+                text = oneText;
+            } else if (mode == ShoppingRule.RoundingMode.CEIL_ALLOW_HALF && halfText != null && packages <= 0.5) {
+                text = halfText;
+            } else {
+                long count = (long) Math.ceil(packages);
+                text = count <= 1 ? oneText : manyPrefix + count + manySuffix;
+            }
+            ingredient.setFinalUnit(text);
+            ingredient.setAmount(0); // Se limpia la cantidad numérica pues ya no es necesaria.
+        }
+    }
+
+    /*
+     * Reglas compiladas: 'ingredientIds' está ordenado y 'rules[i]' es la regla del ingrediente ingredientIds[i].
+     * Solo ocupan memoria los ingredientes con regla, sea cual sea el tamaño de sus IDs.
+     */
+    private static final class CompiledRules {
+        private final long compiledAtMillis = System.currentTimeMillis();
+        private final long[] ingredientIds;
+        private final CompiledRule[] rules;
+        private final int matched;
+
+        private CompiledRules(long[] ingredientIds, CompiledRule[] rules) {
+            this.ingredientIds = ingredientIds;
+            this.rules = rules;
+            this.matched = ingredientIds.length;
+        }
+
+        static CompiledRules compile(List<ShoppingRule> rules, List<Object[]> ingredients) {
+            Map<Long, CompiledRule> byId = new HashMap<>();
+
+            // Primero las reglas por grupo: se comparan los nombres una sola vez, aquí y no al aplicar.
+            List<ShoppingRule> keywordRules = new ArrayList<>();
+            List<CompiledRule> keywordCompiled = new ArrayList<>();
+            for (ShoppingRule rule : rules) {
+                if (rule.getIngredientId() == null && rule.getNameKeyword() != null && !rule.getNameKeyword().isBlank()) {
+                    keywordRules.add(rule);
+                    keywordCompiled.add(CompiledRule.of(rule));
+                }
+            }
+            if (!keywordRules.isEmpty()) {
+                for (Object[] row : ingredients) {
+                    String name = ((String) row[1]).toLowerCase(Locale.ROOT);
+                    for (int i = 0; i < keywordRules.size(); i++) {
+                        if (name.contains(keywordRules.get(i).getNameKeyword().toLowerCase(Locale.ROOT))) {
+                            byId.put((Long) row[0], keywordCompiled.get(i));
+                            break;
+                        }
+                    }
+                }
+            }
+            // Después las reglas por ingrediente concreto, que tienen prioridad sobre las de grupo.
+            for (ShoppingRule rule : rules) {
+                if (rule.getIngredientId() != null) {
+                    byId.put(rule.getIngredientId(), CompiledRule.of(rule));
+                }
+            }
+            long[] ids = byId.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            CompiledRule[] compiledRules = new CompiledRule[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                compiledRules[i] = byId.get(ids[i]);
+            }
+            return new CompiledRules(ids, compiledRules);
+        }
+
+        void apply(IngredientAggregator.AggregatedIngredient ingredient) {
+            // Un ingrediente creado después de compilar no tiene regla hasta la siguiente compilación.
+            int index = Arrays.binarySearch(ingredientIds, ingredient.getIngredientId());
+            if (index >= 0) {
+                rules[index].apply(ingredient);
+            }
+        }
+
+        boolean isExpired(long ttlMinutes) {
+            return System.currentTimeMillis() - compiledAtMillis > ttlMinutes * 60_000L;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+/*
+ * Archivo: TransactionHooks.java
+ * Propósito: Utilidad para ejecutar acciones en memoria (cachés, contadores) solo cuando la transacción
+ * en curso se confirma, de modo que un rollback no deje la memoria desalineada con la base de datos.
+ */
+package com.anymeal.backend.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+final class TransactionHooks {
+
+    private TransactionHooks() {}
+
+    // Ejecuta la acción al confirmarse la transacción actual, o inmediatamente si no hay ninguna.
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+/*
+ * Archivo: UnitConverter.java
+ * Propósito: Tabla de conversión de unidades de medida usada al agregar ingredientes.
+ * Agrupa las unidades en familias (masa, volumen y conteo) y convierte cada cantidad a la unidad
+ * canónica de su familia (g, ml o "unidad"), de modo que "500 g" y "1 kg" del mismo ingrediente se sumen.
+ * Las unidades desconocidas (ej: "pizca", "clove") no se convierten y solo se suman consigo mismas.
+ */
+package com.anymeal.backend.service;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public final class UnitConverter {
+
+    // Familias conocidas. Sus códigos son fijos; las unidades desconocidas reciben códigos a partir de FIRST_OTHER_CODE.
+    public enum Family {
+        MASS(0, "g"), VOLUME(1, "ml"), COUNT(2, "unidad");
+
+        private final int code;
+        private final String canonicalUnit;
+
+        Family(int code, String canonicalUnit) {
+            this.code = code;
+            this.canonicalUnit = canonicalUnit;
+        }
+
+        public int code() { return code; }
+        public String canonicalUnit() { return canonicalUnit; }
+    }
+
+    public static final int FIRST_OTHER_CODE = 3;
+
+    // Unidad reconocida: su familia y el factor para pasarla a la unidad canónica.
+    public record Unit(Family family, double factor) {}
+
+    private static final Map<String, Unit> UNITS = new HashMap<>();
+
+    static {
+        register(Family.MASS, 1.0, "g", "gr", "gram", "grams", "gramo", "gramos");
+        register(Family.MASS, 1000.0, "kg", "kilo", "kilos", "kilogram", "kilograms", "kilogramo", "kilogramos");
+        register(Family.MASS, 0.001, "mg", "milligram", "milligrams", "miligramo", "miligramos");
+        register(Family.MASS, 28.349523125, "oz", "ounce", "ounces", "onza", "onzas");
+        register(Family.MASS, 453.59237, "lb", "lbs", "pound", "pounds", "libra", "libras");
+
+        register(Family.VOLUME, 1.0, "ml", "milliliter", "milliliters", "millilitre", "millilitres", "mililitro", "mililitros");
+        register(Family.VOLUME, 10.0, "cl", "centiliter", "centiliters", "centilitro", "centilitros");
+        register(Family.VOLUME, 100.0, "dl", "deciliter", "deciliters", "decilitro", "decilitros");
+        register(Family.VOLUME, 1000.0, "l", "liter", "liters", "litre", "litres", "litro", "litros");
+        register(Family.VOLUME, 4.92892159375, "tsp", "tsps", "teaspoon", "teaspoons", "cucharadita", "cucharaditas");
+        register(Family.VOLUME, 14.78676478125, "tbsp", "tbsps", "tablespoon", "tablespoons", "cucharada", "cucharadas");
+        register(Family.VOLUME, 29.5735295625, "fl oz", "fluid ounce", "fluid ounces");
+        register(Family.VOLUME, 236.5882365, "cup", "cups", "c", "taza", "tazas");
+        register(Family.VOLUME, 473.176473, "pint", "pints", "pinta", "pintas");
+        register(Family.VOLUME, 946.352946, "quart", "quarts");
+        register(Family.VOLUME, 3785.411784, "gallon", "gallons", "galón", "galones");
+
+        register(Family.COUNT, 1.0, "", "unidad", "unidades", "unit", "units", "piece", "pieces", "pieza", "piezas",
+                "whole", "large", "medium", "small", "serving", "servings");
+        register(Family.COUNT, 12.0, "dozen", "docena", "docenas");
+    }
+
+    private UnitConverter() {}
+
+    private static void register(Family family, double factor, String... aliases) {
+        Unit unit = new Unit(family, factor);
+        for (String alias : aliases) {
+            UNITS.put(alias, unit);
+        }
+    }
+
+    // Normaliza el texto de una unidad: minúsculas, sin espacios extremos ni punto final ("Tbsp." -> "tbsp").
+    public static String normalize(String unit) {
+        if (unit == null) {
+            return "";
+        }
+        String normalized = unit.trim().toLowerCase(Locale.ROOT);
+        if (normalized.endsWith(".")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+    // Busca una unidad ya normalizada. Devuelve null si no pertenece a ninguna familia conocida.
+    public static Unit lookup(String normalizedUnit) {
+        return UNITS.get(normalizedUnit);
+    }
+
+    /*
+     * Devuelve la cantidad y unidad más legibles para mostrar una cantidad canónica:
+     * a partir de 1000 g se muestra en kg y a partir de 1000 ml en litros. Se redondea a dos decimales.
+     */
+    public static double displayAmount(double canonicalAmount, String canonicalUnit) {
+        double amount = isScaledUp(canonicalAmount, canonicalUnit) ? canonicalAmount / 1000.0 : canonicalAmount;
+        return Math.round(amount * 100.0) / 100.0;
+    }
+
+    public static String displayUnit(double canonicalAmount, String canonicalUnit) {
+        if (!isScaledUp(canonicalAmount, canonicalUnit)) {
+            return canonicalUnit;
+        }
+        return Family.MASS.canonicalUnit().equals(canonicalUnit) ? "kg" : "l";
+    }
+
+    private static boolean isScaledUp(double canonicalAmount, String canonicalUnit) {
+        return canonicalAmount >= 1000.0
+                && (Family.MASS.canonicalUnit().equals(canonicalUnit) || Family.VOLUME.canonicalUnit().equals(canonicalUnit));
+    }
+}
\ No newline at end of file
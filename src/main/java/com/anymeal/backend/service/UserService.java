@@ -5,8 +5,6 @@ import com.anymeal.backend.dto.UserResponse;
 import com.anymeal.backend.model.User;
 import com.anymeal.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,12 +16,8 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
 
-    @Transactional(readOnly = true)
-    public UserResponse getUserProfile() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
-
+    // El usuario ya lo cargó el filtro JWT para esta petición: no se vuelve a consultar.
+    public UserResponse getUserProfile(User user) {
         return UserResponse.builder()
                 .id(user.getId())
                 .username(user.getUsername())
@@ -33,16 +27,13 @@ public class UserService {
 
     @Transactional
     public void updateUserProfile(User user, String newUsername, String newEmail) {
-        User userToUpdate = userRepository.findById(user.getId())
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado."));
-
-        if (!userToUpdate.getEmail().equals(newEmail) && userRepository.existsByEmail(newEmail)) {
+        if (!user.getEmail().equals(newEmail) && userRepository.existsByEmail(newEmail)) {
             throw new IllegalArgumentException("El email ya está en uso.");
         }
 
-        userToUpdate.setUsername(newUsername);
-        userToUpdate.setEmail(newEmail);
-        userRepository.save(userToUpdate);
+        if (userRepository.updateProfile(user.getId(), newUsername, newEmail) == 0) {
+            throw new RuntimeException("Usuario no encontrado.");
+        }
     }
 
     @Transactional
@@ -57,10 +48,8 @@ public class UserService {
             throw new IllegalArgumentException("La contraseña actual es incorrecta.");
         }
 
-        User userToUpdate = userRepository.findById(user.getId())
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado."));
-
-        userToUpdate.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(userToUpdate);
+        if (userRepository.updatePassword(user.getId(), passwordEncoder.encode(newPassword)) == 0) {
+            throw new RuntimeException("Usuario no encontrado.");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,498 @@
+/*
+ * Archivo: DatasetGenerator.java
+ * Propósito: Generador de un conjunto de datos sintético a gran escala (recetas, ingredientes, usuarios,
+ * favoritos y años de planes diarios) para medir searchRecipes, getPlanForWeek y generateListFromPlan
+ * con volúmenes reales. No es un test de JUnit: es un programa que escribe ficheros CSV para LOAD DATA
+ * de MySQL y un script load-data.sql que los carga en orden; opcionalmente ejecuta él mismo la carga.
+ *
+ * Las distribuciones son sesgadas como en los datos reales: la popularidad de recetas (planes y favoritos)
+ * y la frecuencia de ingredientes siguen una ley de Zipf, y solo una parte de los usuarios planifica,
+ * con semanas activas e inactivas.
+ *
+ * La generación es paralela y determinista: cada tabla se divide en tramos de tamaño fijo y cada tramo usa
+ * su propio generador aleatorio derivado de (semilla, tabla, tramo), así que el resultado no depende del
+ * número de hilos. Cada tramo se escribe en su propio fichero (sin ordenar ni acumular en memoria).
+ *
+ * Uso típico (ver el perfil 'dataset' del pom.xml):
+ *   mvn -Pdataset verify -Ddataset.args="-Ddataset.scale=0.1"
+ *   mvn -Pdataset verify -Ddataset.args="-Ddataset.jdbc-url=jdbc:mysql://localhost:3306/anymeal_db -Ddataset.jdbc-user=root"
+ * Las tablas deben existir y estar vacías (arrancar la aplicación una vez sobre la base de datos vacía crea el esquema).
+ * Para cargar a mano: mysql --local-infile=1 anymeal_db < target/dataset/load-data.sql
+ */
+package com.anymeal.backend;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DatasetGenerator {
+
+    // Contraseña de todos los usuarios generados y su hash BCrypt fijo (una sal aleatoria haría cada ejecución distinta).
+    private static final String PASSWORD = "dataset123";
+    private static final String PASSWORD_HASH = "$2a$10$eU8raSMHO7sdKrvLBnX/xO1wEHXrQOAgMXTj0udgV183F6yo5x.Se";
+
+    private static final String[] FOODS = {"pollo", "arroz", "tomate", "cebolla", "ajo", "pasta", "queso", "huevo",
+            "leche", "harina", "atún", "lenteja", "garbanzo", "pimiento", "zanahoria", "patata", "espinaca",
+            "salmón", "ternera", "cerdo", "limón", "aceite", "mantequilla", "champiñón", "calabacín", "maíz",
+            "sal", "pimienta", "azúcar", "nata", "yogur", "pepino", "berenjena", "brócoli", "coliflor", "manzana",
+            "plátano", "fresa", "avena", "quinoa", "tofu", "gamba", "bacalao", "pavo", "cordero", "albahaca",
+            "perejil", "comino", "canela", "miel"};
+    private static final String[] MODIFIERS = {"", "fresco", "seco", "en polvo", "picado", "rallado", "ecológico",
+            "congelado", "en conserva", "integral", "ahumado", "light", "desnatado", "tostado", "molido", "entero"};
+    private static final String[] DISHES = {"ensalada", "sopa", "guiso", "tarta", "salteado", "crema", "asado",
+            "tortilla", "risotto", "curry", "hamburguesa", "lasaña", "wrap", "bowl", "pastel", "estofado", "pizza",
+            "quiche", "brocheta", "pudin", "batido", "gratinado", "empanada", "croquetas"};
+    private static final String[] STYLES = {"casero", "mediterráneo", "rápido", "de la abuela", "picante", "ligero",
+            "al horno", "a la plancha", "tradicional", "exprés", "vegetal", "de temporada"};
+    private static final String[] CATEGORIES = {"Desayuno", "Principal", "Entrante", "Postre", "Acompañamiento", "Snack"};
+    private static final String[] DIFFICULTIES = {"Fácil", "Medio", "Difícil"};
+    private static final String[] DIETS = {"vegetarian", "vegan", "gluten free", "dairy free", "ketogenic", "paleo"};
+    private static final String[] UNITS = {"g", "kg", "ml", "l", "cup", "tbsp", "tsp", "unidad", "oz", "pizca", "clove"};
+    private static final String[] MEAL_TYPES = {"Desayuno", "Almuerzo", "Cena"};
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Parámetros de la generación, leídos de propiedades del sistema (-Ddataset.*). 'scale' multiplica todos los volúmenes.
+    private record Settings(long recipes, long ingredients, long users, int ingredientsPerRecipe, int historyWeeks,
+                            double activeUserRatio, double activeWeekRatio, double meanFavorites, double zipfExponent,
+                            long seed, LocalDate endDate, int threads, Path output,
+                            String jdbcUrl, String jdbcUser, String jdbcPassword) {
+
+        static Settings fromSystemProperties() {
+            double scale = Double.parseDouble(System.getProperty("dataset.scale", "1"));
+            LocalDate endDate = System.getProperty("dataset.end-date") != null
+                    ? LocalDate.parse(System.getProperty("dataset.end-date"))
+                    : LocalDate.now().with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+            return new Settings(
+                    Math.max(1, (long) (Long.getLong("dataset.recipes", 500_000L) * scale)),
+                    Math.max(FOODS.length, (long) (Long.getLong("dataset.ingredients", 50_000L) * scale)),
+                    Math.max(1, (long) (Long.getLong("dataset.users", 1_000_000L) * scale)),
+                    Integer.getInteger("dataset.ingredients-per-recipe", 9),
+                    Integer.getInteger("dataset.history-weeks", 156),
+                    Double.parseDouble(System.getProperty("dataset.active-user-ratio", "0.1")),
+                    Double.parseDouble(System.getProperty("dataset.active-week-ratio", "0.6")),
+                    Double.parseDouble(System.getProperty("dataset.mean-favorites", "8")),
+                    Double.parseDouble(System.getProperty("dataset.zipf-exponent", "1.05")),
+                    Long.getLong("dataset.seed", 42L),
+                    endDate,
+                    Integer.getInteger("dataset.threads", Runtime.getRuntime().availableProcessors()),
+                    Path.of(System.getProperty("dataset.output", "target/dataset")),
+                    System.getProperty("dataset.jdbc-url"),
+                    System.getProperty("dataset.jdbc-user", "root"),
+                    System.getProperty("dataset.jdbc-password", ""));
+        }
+
+        long totalDays() {
+            return historyWeeks * 7L;
+        }
+
+        LocalDate firstDay() {
+            return endDate.minusDays(totalDays() - 1);
+        }
+    }
+
+    /*
+     * Tablas en orden de carga. 'chunkRows' es el tamaño fijo de cada tramo (en filas, o en usuarios para las
+     * tablas que se generan por usuario); fijarlo es lo que hace que el resultado no dependa del paralelismo.
+     */
+    private enum Table {
+        INGREDIENTS("ingredients", "(id, name)", 50_000),
+        RECIPES("recipes", "(id, title, image_url, ready_in_minutes, servings, summary, instructions, source_url, " +
+                "difficulty, category, diets, nutrition_info)", 20_000),
+        RECIPE_INGREDIENTS("recipe_ingredients", "(recipe_id, ingredient_id, amount, unit, original_description)", 20_000),
+        USERS("users", "(id, username, email, password, role)", 100_000),
+        DAILY_PLANS("daily_plans", "(id, user_id, plan_date)", 10_000),
+        PLAN_ENTRIES("plan_entries", "(daily_plan_id, recipe_id, meal_type, servings)", 10_000),
+        FAVORITE_RECIPES("favorite_recipes", "(user_id, recipe_id, favorited_at)", 50_000);
+
+        private final String name;
+        private final String columns;
+        private final int chunkRows;
+
+        Table(String name, String columns, int chunkRows) {
+            this.name = name;
+            this.columns = columns;
+            this.chunkRows = chunkRows;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        long start = System.nanoTime();
+        Files.createDirectories(settings.output());
+        System.out.printf("Generando en %s: %d recetas, %d ingredientes, %d usuarios, %d semanas de planes (%s a %s), semilla %d, %d hilos%n",
+                settings.output().toAbsolutePath(), settings.recipes(), settings.ingredients(), settings.users(),
+                settings.historyWeeks(), settings.firstDay(), settings.endDate(), settings.seed(), settings.threads());
+
+        DatasetGenerator generator = new DatasetGenerator(settings);
+        List<Path> files = generator.generate();
+        Path script = writeLoadScript(settings.output(), files);
+        System.out.printf("Generación terminada en %.1f s%n", (System.nanoTime() - start) / 1e9);
+        generator.printCounts();
+
+        if (settings.jdbcUrl() != null) {
+            load(settings, script);
+        } else {
+            System.out.println("Script de carga: " + script.toAbsolutePath());
+        }
+    }
+
+    private final Settings settings;
+    // Popularidad de recetas (planes, favoritos) y frecuencia de ingredientes en las recetas.
+    private final Zipf recipePopularity;
+    private final Zipf ingredientFrequency;
+    private final AtomicLong[] counts = new AtomicLong[Table.values().length];
+
+    private DatasetGenerator(Settings settings) {
+        this.settings = settings;
+        if (!new BCryptPasswordEncoder().matches(PASSWORD, PASSWORD_HASH)) {
+            throw new IllegalStateException("PASSWORD_HASH no corresponde a PASSWORD");
+        }
+        this.recipePopularity = new Zipf(settings.recipes(), settings.zipfExponent());
+        this.ingredientFrequency = new Zipf(settings.ingredients(), settings.zipfExponent());
+        for (Table table : Table.values()) {
+            counts[table.ordinal()] = new AtomicLong();
+        }
+    }
+
+    // Lanza un trabajo por tramo de cada tabla y devuelve los ficheros escritos, en orden de carga.
+    private List<Path> generate() throws Exception {
+        List<Future<Path>> parts = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(settings.threads())) {
+            submitChunks(pool, parts, Table.INGREDIENTS, settings.ingredients());
+            submitChunks(pool, parts, Table.RECIPES, settings.recipes());
+            submitChunks(pool, parts, Table.RECIPE_INGREDIENTS, settings.recipes());
+            submitChunks(pool, parts, Table.USERS, settings.users());
+            submitChunks(pool, parts, Table.DAILY_PLANS, settings.users());
+            submitChunks(pool, parts, Table.PLAN_ENTRIES, settings.users());
+            submitChunks(pool, parts, Table.FAVORITE_RECIPES, settings.users());
+            List<Path> files = new ArrayList<>(parts.size());
+            for (Future<Path> part : parts) {
+                files.add(part.get());
+            }
+            return files;
+        }
+    }
+
+    // Los tramos se cuentan sobre 'keys' (IDs de receta o de usuario según la tabla), numerados desde 1.
+    private void submitChunks(ExecutorService pool, List<Future<Path>> parts, Table table, long keys) {
+        for (long first = 1, chunk = 0; first <= keys; first += table.chunkRows, chunk++) {
+            long from = first;
+            long to = Math.min(keys, first + table.chunkRows - 1);
+            long chunkIndex = chunk;
+            parts.add(pool.submit(() -> writeChunk(table, chunkIndex, from, to)));
+        }
+    }
+
+    private Path writeChunk(Table table, long chunk, long from, long to) throws IOException {
+        Path file = settings.output().resolve(String.format("%s-%05d.csv", table.name, chunk));
+        SplittableRandom random = new SplittableRandom(mix(settings.seed(), table.ordinal(), chunk));
+        long rows = 0;
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16)) {
+            Csv csv = new Csv(out);
+            for (long key = from; key <= to; key++) {
+                rows += switch (table) {
+                    case INGREDIENTS -> writeIngredient(csv, key);
+                    case RECIPES -> writeRecipe(csv, random, key);
+                    case RECIPE_INGREDIENTS -> writeRecipeIngredients(csv, random, key);
+                    case USERS -> writeUser(csv, key);
+                    case DAILY_PLANS, PLAN_ENTRIES -> writePlans(csv, table, key);
+                    case FAVORITE_RECIPES -> writeFavorites(csv, random, key);
+                };
+            }
+        }
+        counts[table.ordinal()].addAndGet(rows);
+        return file;
+    }
+
+    // Nombres únicos: alimento + modificador, y un número cuando se acaban las combinaciones.
+    private int writeIngredient(Csv csv, long id) throws IOException {
+        long index = id - 1;
+        String name = FOODS[(int) (index % FOODS.length)];
+        long variant = index / FOODS.length;
+        String modifier = MODIFIERS[(int) (variant % MODIFIERS.length)];
+        if (!modifier.isEmpty()) name += " " + modifier;
+        if (variant >= MODIFIERS.length) name += " " + (variant / MODIFIERS.length + 1);
+        csv.field(id).field(name).end();
+        return 1;
+    }
+
+    private int writeRecipe(Csv csv, SplittableRandom random, long id) throws IOException {
+        String title = capitalize(DISHES[random.nextInt(DISHES.length)]) + " de " + FOODS[random.nextInt(FOODS.length)]
+                + " " + STYLES[random.nextInt(STYLES.length)];
+        StringBuilder instructions = new StringBuilder();
+        int steps = 3 + random.nextInt(10);
+        for (int step = 1; step <= steps; step++) {
+            instructions.append("Paso ").append(step).append(": preparar, mezclar y cocinar a fuego medio.\n");
+        }
+        StringBuilder diets = new StringBuilder("[");
+        for (String diet : DIETS) {
+            if (random.nextInt(6) == 0) {
+                if (diets.length() > 1) diets.append(", ");
+                diets.append('"').append(diet).append('"');
+            }
+        }
+        diets.append(']');
+        String nutrition = String.format(Locale.ROOT, "{\"calories\": %d, \"protein\": \"%dg\", \"fat\": \"%dg\", \"carbs\": \"%dg\"}",
+                80 + random.nextInt(900), 2 + random.nextInt(60), 1 + random.nextInt(50), 5 + random.nextInt(110));
+        csv.field(id).field(title).field("https://img.anymeal.test/recipes/" + id + ".jpg")
+                .field(5 + random.nextInt(175)).field(1 + random.nextInt(8))
+                .field("Receta generada " + id + ": " + title.toLowerCase(Locale.ROOT) + ".")
+                .field(instructions.toString()).field("https://anymeal.test/recipes/" + id)
+                .field(DIFFICULTIES[random.nextInt(DIFFICULTIES.length)]).field(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                .field(diets.toString()).field(nutrition).end();
+        return 1;
+    }
+
+    // Ingredientes distintos por receta, elegidos por frecuencia (los básicos aparecen en muchas recetas).
+    private int writeRecipeIngredients(Csv csv, SplittableRandom random, long recipeId) throws IOException {
+        int wanted = (int) Math.min(settings.ingredients(), Math.max(1, settings.ingredientsPerRecipe() - 4 + random.nextInt(9)));
+        long[] chosen = new long[wanted];
+        int n = 0;
+        while (n < wanted) {
+            long ingredientId = ingredientFrequency.sample(random);
+            if (!contains(chosen, n, ingredientId)) {
+                chosen[n++] = ingredientId;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            String unit = UNITS[random.nextInt(UNITS.length)];
+            double amount = Math.round((0.25 + random.nextDouble() * 500) * 100) / 100.0;
+            csv.field(recipeId).field(chosen[i]).field(amount).field(unit).field(amount + " " + unit).end();
+        }
+        return n;
+    }
+
+    private int writeUser(Csv csv, long id) throws IOException {
+        String username = String.format("user%07d", id);
+        csv.field(id).field(username).field(username + "@anymeal.test").field(PASSWORD_HASH).field("USER").end();
+        return 1;
+    }
+
+    /*
+     * Planes de un usuario. Las dos tablas se generan con el mismo generador aleatorio por usuario
+     * (derivado de la semilla y del ID), así que daily_plans y plan_entries describen los mismos días.
+     * El ID del plan diario es (usuario - 1) * días del histórico + día + 1: único y calculable sin contadores.
+     */
+    private int writePlans(Csv csv, Table table, long userId) throws IOException {
+        SplittableRandom random = new SplittableRandom(mix(settings.seed(), Table.DAILY_PLANS.ordinal(), -userId));
+        if (random.nextDouble() >= settings.activeUserRatio()) {
+            return 0;
+        }
+        int rows = 0;
+        // Cada usuario activo empieza a planificar en una semana al azar del histórico.
+        int firstWeek = random.nextInt(settings.historyWeeks());
+        for (int week = firstWeek; week < settings.historyWeeks(); week++) {
+            if (random.nextDouble() >= settings.activeWeekRatio()) continue;
+            int plannedDays = 2 + random.nextInt(6);
+            for (int day = 0; day < 7; day++) {
+                if (random.nextInt(7) >= plannedDays) continue;
+                long dayIndex = week * 7L + day;
+                long dailyPlanId = (userId - 1) * settings.totalDays() + dayIndex + 1;
+                if (table == Table.DAILY_PLANS) {
+                    csv.field(dailyPlanId).field(userId).field(settings.firstDay().plusDays(dayIndex).toString()).end();
+                    rows++;
+                }
+                for (String mealType : MEAL_TYPES) {
+                    if (random.nextInt(4) == 0) continue; // No todas las comidas del día se planifican.
+                    long recipeId = recipePopularity.sample(random);
+                    int servings = 1 + random.nextInt(4);
+                    if (table == Table.PLAN_ENTRIES) {
+                        csv.field(dailyPlanId).field(recipeId).field(mealType).field(servings).end();
+                        rows++;
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    // Número de favoritos con distribución geométrica (la mayoría pocos, algunos muchos), recetas por popularidad.
+    private int writeFavorites(Csv csv, SplittableRandom random, long userId) throws IOException {
+        double p = 1.0 / (1.0 + settings.meanFavorites());
+        int wanted = (int) Math.min(settings.recipes(), Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p)));
+        long[] chosen = new long[wanted];
+        int n = 0;
+        LocalDateTime end = settings.endDate().atStartOfDay();
+        long historySeconds = settings.totalDays() * 86_400L;
+        while (n < wanted) {
+            long recipeId = recipePopularity.sample(random);
+            if (contains(chosen, n, recipeId)) continue;
+            chosen[n++] = recipeId;
+            String favoritedAt = end.minusSeconds(random.nextLong(historySeconds)).format(TIMESTAMP);
+            csv.field(userId).field(recipeId).field(favoritedAt).end();
+        }
+        return n;
+    }
+
+    private void printCounts() {
+        for (Table table : Table.values()) {
+            System.out.printf("  %-20s %,15d filas%n", table.name, counts[table.ordinal()].get());
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Carga en MySQL
+    // ---------------------------------------------------------------------------------------------
+
+    /*
+     * Escribe load-data.sql: desactiva las comprobaciones de claves foráneas y únicas durante la carga
+     * y ejecuta un LOAD DATA LOCAL INFILE por fichero, en el orden de las tablas.
+     */
+    private static Path writeLoadScript(Path directory, List<Path> files) throws IOException {
+        StringBuilder script = new StringBuilder("SET foreign_key_checks = 0;\nSET unique_checks = 0;\n");
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            Table table = Arrays.stream(Table.values())
+                    .filter(t -> name.startsWith(t.name + "-"))
+                    .findFirst()
+                    .orElseThrow();
+            script.append("LOAD DATA LOCAL INFILE '").append(file.toAbsolutePath().toString().replace("\\", "/"))
+                    .append("' INTO TABLE ").append(table.name).append(" CHARACTER SET utf8mb4")
+                    .append(" FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY '\\\\'")
+                    .append(" LINES TERMINATED BY '\\n' ").append(table.columns).append(";\n");
+        }
+        script.append("SET unique_checks = 1;\nSET foreign_key_checks = 1;\n");
+        Path path = directory.resolve("load-data.sql");
+        Files.writeString(path, script, StandardCharsets.UTF_8);
+        return path;
+    }
+
+    // Ejecuta el script por JDBC (LOAD DATA LOCAL necesita allowLoadLocalInfile en el driver y local_infile en el servidor).
+    private static void load(Settings settings, Path script) throws Exception {
+        String url = settings.jdbcUrl().contains("allowLoadLocalInfile")
+                ? settings.jdbcUrl()
+                : settings.jdbcUrl() + (settings.jdbcUrl().contains("?") ? "&" : "?") + "allowLoadLocalInfile=true";
+        long start = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(url, settings.jdbcUser(), settings.jdbcPassword());
+             Statement statement = connection.createStatement()) {
+            for (String sql : Files.readAllLines(script, StandardCharsets.UTF_8)) {
+                if (sql.isBlank()) continue;
+                statement.execute(sql.substring(0, sql.length() - 1)); // Sin el ';' final.
+            }
+        }
+        System.out.printf("Carga en %s terminada en %.1f s%n", settings.jdbcUrl(), (System.nanoTime() - start) / 1e9);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Utilidades
+    // ---------------------------------------------------------------------------------------------
+
+    /*
+     * Muestreo de una ley de Zipf sobre los IDs 1..n: el ID k sale con probabilidad proporcional a 1 / k^s.
+     * Se precalcula la distribución acumulada (un double por ID) y cada muestra es una búsqueda binaria.
+     */
+    private static final class Zipf {
+        private final double[] cumulative;
+
+        Zipf(long n, double exponent) {
+            cumulative = new double[Math.toIntExact(n)];
+            double sum = 0;
+            for (int k = 1; k <= n; k++) {
+                sum += 1.0 / Math.pow(k, exponent);
+                cumulative[k - 1] = sum;
+            }
+            for (int i = 0; i < cumulative.length; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        long sample(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return (index >= 0 ? index : -index - 1) + 1L;
+        }
+    }
+
+    // Escritura de filas para LOAD DATA: campos entre comillas, con \ como carácter de escape y \N para NULL.
+    private static final class Csv {
+        private final Writer out;
+        private boolean firstField = true;
+
+        Csv(Writer out) {
+            this.out = out;
+        }
+
+        Csv field(long value) throws IOException {
+            separator();
+            out.write(Long.toString(value));
+            return this;
+        }
+
+        Csv field(double value) throws IOException {
+            separator();
+            out.write(Double.toString(value));
+            return this;
+        }
+
+        Csv field(String value) throws IOException {
+            separator();
+            if (value == null) {
+                out.write("\\N");
+                return this;
+            }
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> out.write("\\\"");
+                    case '\\' -> out.write("\\\\");
+                    case '\n' -> out.write("\\n");
+                    default -> out.write(c);
+                }
+            }
+            out.write('"');
+            return this;
+        }
+
+        void end() throws IOException {
+            out.write('\n');
+            firstField = true;
+        }
+
+        private void separator() throws IOException {
+            if (!firstField) out.write(',');
+            firstField = false;
+        }
+    }
+
+    private static boolean contains(long[] values, int length, long value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    // Semilla de un tramo: mezcla (semilla, tabla, tramo) con la función de dispersión de SplittableRandom.
+    private static long mix(long seed, long table, long chunk) {
+        long z = seed * 0x9E3779B97F4A7C15L + table * 0xBF58476D1CE4E5B9L + chunk * 0x94D049BB133111EBL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,515 @@
+/*
+ * Archivo: LoadTestHarness.java
+ * Propósito: Prueba de carga de extremo a extremo, reproducible y autocontenida. No es un test de JUnit:
+ * es un programa que arranca la aplicación con el perfil 'loadtest' (H2 en memoria en modo MySQL),
+ * la llena con datos sintéticos deterministas (semilla fija) y lanza tráfico mixto desde muchos
+ * clientes concurrentes (hilos virtuales en bucle cerrado): inicio de sesión, búsqueda y detalle de recetas,
+ * lectura y escritura del plan semanal, y generación y marcado de la lista de compras.
+ * Al terminar muestra peticiones por segundo y percentiles de latencia por endpoint y los guarda en JSON.
+ *
+ * Uso típico (ver el perfil 'loadtest' del pom.xml):
+ *   mvn -Ploadtest verify -Dloadtest.args="-Dloadtest.clients=400 -Dloadtest.seconds=120 -Dloadtest.recipes=20000"
+ *
+ * Los tiempos son los de H2 en el mismo proceso, no los de MySQL: sirven para comparar versiones y
+ * configuraciones de la aplicación (hilos, pool, cachés) y para estimar su CPU por petición.
+ */
+package com.anymeal.backend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class LoadTestHarness {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestHarness.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Todos los usuarios sintéticos comparten contraseña (se codifica una sola vez al cargar los datos).
+    private static final String PASSWORD = "loadtest123";
+
+    private static final String[] FOODS = {"pollo", "arroz", "tomate", "cebolla", "ajo", "pasta", "queso", "huevo",
+            "leche", "harina", "atún", "lenteja", "garbanzo", "pimiento", "zanahoria", "patata", "espinaca",
+            "salmón", "ternera", "cerdo", "limón", "aceite", "mantequilla", "champiñón", "calabacín", "maíz"};
+    private static final String[] DISHES = {"ensalada", "sopa", "guiso", "tarta", "salteado", "crema", "asado",
+            "tortilla", "risotto", "curry", "hamburguesa", "lasaña", "wrap", "bowl", "pastel"};
+    private static final String[] CATEGORIES = {"Desayuno", "Principal", "Entrante", "Postre", "Acompañamiento", "Snack"};
+    private static final String[] DIFFICULTIES = {"Fácil", "Medio", "Difícil"};
+    private static final String[] DIETS = {"vegetarian", "vegan", "gluten free", "dairy free", "ketogenic"};
+    private static final String[] UNITS = {"g", "kg", "ml", "l", "cup", "tbsp", "tsp", "unidad", "oz", "pizca"};
+    private static final String[] MEAL_TYPES = {"Desayuno", "Almuerzo", "Cena"};
+
+    // Operaciones del tráfico mixto y su peso relativo (porcentaje aproximado de las peticiones).
+    private enum Operation {
+        LOGIN("POST /auth/login", 3),
+        RECIPE_SEARCH("GET /api/v1/recipes?query=", 30),
+        RECIPE_DETAIL("GET /api/v1/recipes/{id}", 25),
+        PLAN_READ("GET /api/v1/plans", 15),
+        PLAN_WRITE("POST /api/v1/plans", 10),
+        LIST_GENERATE("POST /api/v1/shopping-list/generate", 5),
+        LIST_CHECK("PUT /api/v1/shopping-list/{itemId}", 12);
+
+        private final String endpoint;
+        private final int weight;
+
+        Operation(String endpoint, int weight) {
+            this.endpoint = endpoint;
+            this.weight = weight;
+        }
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final int TOTAL_WEIGHT = Arrays.stream(OPERATIONS).mapToInt(op -> op.weight).sum();
+
+    // Parámetros de la prueba, leídos de propiedades del sistema (-Dloadtest.*).
+    private record Settings(int clients, int seconds, int warmupSeconds, int users, int recipes, int ingredients,
+                            int ingredientsPerRecipe, int planWeeks, long seed, Path output) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.getInteger("loadtest.clients", 200),
+                    Integer.getInteger("loadtest.seconds", 60),
+                    Integer.getInteger("loadtest.warmup-seconds", 10),
+                    Integer.getInteger("loadtest.users", 500),
+                    Integer.getInteger("loadtest.recipes", 5000),
+                    Integer.getInteger("loadtest.ingredients", 1500),
+                    Integer.getInteger("loadtest.ingredients-per-recipe", 10),
+                    Integer.getInteger("loadtest.plan-weeks", 4),
+                    Long.getLong("loadtest.seed", 42L),
+                    Path.of(System.getProperty("loadtest.output", "target/loadtest-result.json")));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        LocalDate monday = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+
+        // Los datos se cargan al refrescar el contexto: antes de ApplicationReadyEvent, que es cuando
+        // RecipeCatalog, ShoppingRuleEngine y FavoriteCounters leen la base de datos.
+        ApplicationListener<ApplicationEvent> seeder = event -> {
+            if (event instanceof ContextRefreshedEvent refreshed && refreshed.getApplicationContext().getParent() == null) {
+                seed(refreshed.getApplicationContext(), settings, monday);
+            }
+        };
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AnymealBackendApplication.class)
+                .profiles("loadtest")
+                .listeners(seeder)
+                .run(args)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+            HttpClient client = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+
+            logger.info("Calentamiento: {} clientes durante {} s", settings.clients(), settings.warmupSeconds());
+            run(client, baseUrl, settings, monday, settings.warmupSeconds(), settings.seed()); // JIT, cachés, pool.
+            logger.info("Medición: {} clientes durante {} s", settings.clients(), settings.seconds());
+            Samples[] results = run(client, baseUrl, settings, monday, settings.seconds(), settings.seed() + 1);
+
+            report(results, settings);
+            writeJson(results, settings);
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Datos sintéticos
+    // ---------------------------------------------------------------------------------------------
+
+    /*
+     * Llena la base de datos con lotes JDBC. Los IDs los genera H2 (identidad) y, al partir de un esquema
+     * vacío, son 1..N en orden de inserción. Las recetas y los ingredientes populares se eligen con más
+     * frecuencia (distribución sesgada), como ocurre con los datos reales.
+     */
+    private static void seed(ApplicationContext context, Settings settings, LocalDate monday) {
+        long start = System.nanoTime();
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        Random random = new Random(settings.seed());
+
+        List<Object[]> ingredients = new ArrayList<>(settings.ingredients());
+        for (int i = 0; i < settings.ingredients(); i++) {
+            ingredients.add(new Object[]{FOODS[i % FOODS.length] + " " + (i / FOODS.length + 1)});
+        }
+        jdbc.batchUpdate("INSERT INTO ingredients (name) VALUES (?)", ingredients);
+
+        List<Object[]> recipes = new ArrayList<>(settings.recipes());
+        List<Object[]> recipeIngredients = new ArrayList<>(settings.recipes() * settings.ingredientsPerRecipe());
+        for (int r = 1; r <= settings.recipes(); r++) {
+            String title = DISHES[random.nextInt(DISHES.length)] + " de " + FOODS[random.nextInt(FOODS.length)] + " " + r;
+            StringBuilder instructions = new StringBuilder();
+            for (int step = 1; step <= 4 + random.nextInt(8); step++) {
+                instructions.append("Paso ").append(step).append(": preparar, mezclar y cocinar a fuego medio.\n");
+            }
+            List<String> diets = new ArrayList<>();
+            for (String diet : DIETS) {
+                if (random.nextInt(5) == 0) diets.add("\"" + diet + "\"");
+            }
+            String nutrition = String.format(Locale.ROOT, "{\"calories\": %d, \"protein\": \"%dg\", \"fat\": \"%dg\", \"carbs\": \"%dg\"}",
+                    150 + random.nextInt(750), 5 + random.nextInt(50), 5 + random.nextInt(40), 10 + random.nextInt(90));
+            recipes.add(new Object[]{title, "https://img.anymeal.test/" + r + ".jpg", 10 + random.nextInt(110),
+                    1 + random.nextInt(6), "Receta sintética " + r + " para pruebas de carga.", instructions.toString(),
+                    DIFFICULTIES[random.nextInt(DIFFICULTIES.length)], CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    "[" + String.join(",", diets) + "]", nutrition});
+
+            Set<Integer> chosen = new LinkedHashSet<>();
+            while (chosen.size() < Math.min(settings.ingredientsPerRecipe(), settings.ingredients())) {
+                chosen.add(1 + skewed(random, settings.ingredients()));
+            }
+            for (int ingredientId : chosen) {
+                double amount = Math.round((1 + random.nextDouble() * 499) * 10) / 10.0;
+                String unit = UNITS[random.nextInt(UNITS.length)];
+                recipeIngredients.add(new Object[]{r, ingredientId, amount, unit, amount + " " + unit});
+            }
+        }
+        // FORMAT JSON guarda el texto como documento JSON en H2 (sin él, se guardaría como cadena JSON entre comillas).
+        jdbc.batchUpdate("INSERT INTO recipes (title, image_url, ready_in_minutes, servings, summary, instructions, " +
+                "difficulty, category, diets, nutrition_info) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ? FORMAT JSON, ? FORMAT JSON)", recipes);
+        jdbc.batchUpdate("INSERT INTO recipe_ingredients (recipe_id, ingredient_id, amount, unit, original_description) " +
+                "VALUES (?, ?, ?, ?, ?)", recipeIngredients);
+
+        String passwordHash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        List<Object[]> users = new ArrayList<>(settings.users());
+        for (int u = 1; u <= settings.users(); u++) {
+            users.add(new Object[]{username(u), username(u) + "@anymeal.test", passwordHash});
+        }
+        jdbc.batchUpdate("INSERT INTO users (username, email, password, role) VALUES (?, ?, ?, 'USER')", users);
+
+        // Planes: desde 'planWeeks' semanas atrás hasta el final de la semana actual, tres comidas por día.
+        List<Object[]> dailyPlans = new ArrayList<>();
+        List<Object[]> planEntries = new ArrayList<>();
+        List<Object[]> favorites = new ArrayList<>();
+        LocalDate first = monday.minusWeeks(settings.planWeeks());
+        LocalDate last = monday.plusDays(6);
+        for (int u = 1; u <= settings.users(); u++) {
+            for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+                dailyPlans.add(new Object[]{u, day});
+                long dailyPlanId = dailyPlans.size();
+                for (String mealType : MEAL_TYPES) {
+                    planEntries.add(new Object[]{dailyPlanId, 1 + skewed(random, settings.recipes()), mealType, 1 + random.nextInt(4)});
+                }
+            }
+            Set<Integer> favoriteIds = new LinkedHashSet<>();
+            for (int f = random.nextInt(21); f > 0; f--) {
+                favoriteIds.add(1 + skewed(random, settings.recipes()));
+            }
+            for (int recipeId : favoriteIds) {
+                favorites.add(new Object[]{u, recipeId});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO daily_plans (user_id, plan_date) VALUES (?, ?)", dailyPlans);
+        jdbc.batchUpdate("INSERT INTO plan_entries (daily_plan_id, recipe_id, meal_type, servings) VALUES (?, ?, ?, ?)", planEntries);
+        jdbc.batchUpdate("INSERT INTO favorite_recipes (user_id, recipe_id) VALUES (?, ?)", favorites);
+
+        logger.info("Datos cargados en {} ms: {} ingredientes, {} recetas ({} ingredientes de receta), {} usuarios, " +
+                        "{} planes diarios, {} comidas planificadas, {} favoritos",
+                (System.nanoTime() - start) / 1_000_000, ingredients.size(), recipes.size(), recipeIngredients.size(),
+                users.size(), dailyPlans.size(), planEntries.size(), favorites.size());
+    }
+
+    // Índice en [0, n) sesgado hacia los primeros valores: el primer 10 % concentra cerca de la mitad de las elecciones.
+    private static int skewed(Random random, int n) {
+        return Math.min(n - 1, (int) (n * Math.pow(random.nextDouble(), 3)));
+    }
+
+    private static String username(int userNumber) {
+        return String.format("loaduser%05d", userNumber);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Tráfico
+    // ---------------------------------------------------------------------------------------------
+
+    // Lanza los clientes durante 'seconds' segundos y devuelve las latencias agrupadas por operación.
+    private static Samples[] run(HttpClient client, String baseUrl, Settings settings, LocalDate monday,
+                                 int seconds, long seed) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        Samples[][] perClient = new Samples[settings.clients()][];
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < settings.clients(); c++) {
+                int slot = c;
+                clients.submit(() -> {
+                    VirtualClient virtualClient = new VirtualClient(client, baseUrl, settings, monday,
+                            username(1 + slot % settings.users()), new Random(seed * 31 + slot));
+                    perClient[slot] = virtualClient.runUntil(deadline);
+                });
+            }
+        }
+        Samples[] merged = new Samples[OPERATIONS.length];
+        for (Operation operation : OPERATIONS) {
+            merged[operation.ordinal()] = new Samples(seconds);
+            for (Samples[] own : perClient) {
+                if (own != null) merged[operation.ordinal()].addAll(own[operation.ordinal()]);
+            }
+            merged[operation.ordinal()].sort();
+        }
+        return merged;
+    }
+
+    // Un cliente: inicia sesión y repite operaciones elegidas al azar (según su peso) sin pausa.
+    private static final class VirtualClient {
+        private final HttpClient client;
+        private final String baseUrl;
+        private final Settings settings;
+        private final LocalDate monday;
+        private final String username;
+        private final Random random;
+        private final Samples[] samples = new Samples[OPERATIONS.length];
+        private String token;
+        // Ítems de la última lista de compras generada por este cliente (para marcarlos como comprados).
+        private List<Long> itemIds = List.of();
+
+        VirtualClient(HttpClient client, String baseUrl, Settings settings, LocalDate monday, String username, Random random) {
+            this.client = client;
+            this.baseUrl = baseUrl;
+            this.settings = settings;
+            this.monday = monday;
+            this.username = username;
+            this.random = random;
+            for (Operation operation : OPERATIONS) {
+                samples[operation.ordinal()] = new Samples(settings.seconds());
+            }
+        }
+
+        Samples[] runUntil(long deadline) {
+            execute(Operation.LOGIN);
+            while (System.nanoTime() < deadline) {
+                Operation operation = token == null ? Operation.LOGIN : pick();
+                if (operation == Operation.LIST_CHECK && itemIds.isEmpty()) {
+                    operation = Operation.LIST_GENERATE;
+                }
+                execute(operation);
+            }
+            return samples;
+        }
+
+        private Operation pick() {
+            int ticket = random.nextInt(TOTAL_WEIGHT);
+            for (Operation operation : OPERATIONS) {
+                ticket -= operation.weight;
+                if (ticket < 0) return operation;
+            }
+            return OPERATIONS[OPERATIONS.length - 1];
+        }
+
+        private void execute(Operation operation) {
+            HttpRequest request = buildRequest(operation);
+            long start = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (Exception e) {
+                samples[operation.ordinal()].errors++;
+                return;
+            }
+            long micros = (System.nanoTime() - start) / 1_000;
+            Samples own = samples[operation.ordinal()];
+            if (response.statusCode() == 503) {
+                own.rejected++;
+                return;
+            }
+            if (response.statusCode() != 200) {
+                own.errors++;
+                return;
+            }
+            own.add(micros);
+            try {
+                if (operation == Operation.LOGIN) {
+                    token = MAPPER.readTree(response.body()).get("token").asText();
+                } else if (operation == Operation.LIST_GENERATE) {
+                    List<Long> ids = new ArrayList<>();
+                    for (JsonNode category : MAPPER.readTree(response.body()).path("itemsByCategory")) {
+                        for (JsonNode item : category) {
+                            ids.add(item.get("id").asLong());
+                        }
+                    }
+                    itemIds = ids;
+                }
+            } catch (Exception e) {
+                own.errors++;
+            }
+        }
+
+        private HttpRequest buildRequest(Operation operation) {
+            try {
+                return switch (operation) {
+                    case LOGIN -> json(baseUrl + "/auth/login")
+                            .POST(body(Map.of("username", username, "password", PASSWORD))).build();
+                    case RECIPE_SEARCH -> authorized(baseUrl + "/api/v1/recipes?query="
+                            + DISHES[random.nextInt(DISHES.length)] + "%20de%20" + FOODS[random.nextInt(FOODS.length)])
+                            .GET().build();
+                    case RECIPE_DETAIL -> authorized(baseUrl + "/api/v1/recipes/" + (1 + skewed(random, settings.recipes()))
+                            + (random.nextInt(4) == 0 ? "?servings=" + (1 + random.nextInt(8)) : ""))
+                            .GET().build();
+                    case PLAN_READ -> authorized(baseUrl + "/api/v1/plans?startDate=" + monday.minusWeeks(random.nextInt(2)))
+                            .GET().build();
+                    case PLAN_WRITE -> json(authorized(baseUrl + "/api/v1/plans"))
+                            .POST(body(Map.of("recipeId", 1 + skewed(random, settings.recipes()),
+                                    "date", monday.plusDays(random.nextInt(7)).toString(),
+                                    "mealType", MEAL_TYPES[random.nextInt(MEAL_TYPES.length)],
+                                    "servings", 1 + random.nextInt(4))))
+                            .build();
+                    case LIST_GENERATE -> json(authorized(baseUrl + "/api/v1/shopping-list/generate"))
+                            .POST(body(Map.of("startDate", monday.toString(), "endDate", monday.plusDays(6).toString())))
+                            .build();
+                    case LIST_CHECK -> json(authorized(baseUrl + "/api/v1/shopping-list/" + itemIds.get(random.nextInt(itemIds.size()))))
+                            .PUT(body(Map.of("isChecked", random.nextBoolean())))
+                            .build();
+                };
+            } catch (Exception e) {
+                throw new IllegalStateException("No se pudo construir la petición " + operation.endpoint, e);
+            }
+        }
+
+        private HttpRequest.Builder authorized(String url) {
+            return HttpRequest.newBuilder(URI.create(url))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(30));
+        }
+
+        private static HttpRequest.Builder json(String url) {
+            return json(HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)));
+        }
+
+        private static HttpRequest.Builder json(HttpRequest.Builder builder) {
+            return builder.header("Content-Type", "application/json");
+        }
+
+        private static HttpRequest.BodyPublisher body(Object value) throws Exception {
+            return HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(value));
+        }
+    }
+
+    // Latencias (µs) de las peticiones correctas de una operación, más los errores y rechazos (503).
+    private static final class Samples {
+        private final int seconds;
+        private long[] micros = new long[256];
+        private int count;
+        private long errors;
+        private long rejected;
+
+        Samples(int seconds) {
+            this.seconds = seconds;
+        }
+
+        void add(long value) {
+            if (count == micros.length) {
+                micros = Arrays.copyOf(micros, count * 2);
+            }
+            micros[count++] = value;
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.micros[i]);
+            }
+            errors += other.errors;
+            rejected += other.rejected;
+        }
+
+        void sort() {
+            Arrays.sort(micros, 0, count);
+        }
+
+        double throughput() {
+            return (double) count / seconds;
+        }
+
+        double percentileMillis(double p) {
+            if (count == 0) {
+                return 0;
+            }
+            return micros[Math.min(count - 1, (int) Math.ceil(p * count) - 1)] / 1000.0;
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Resultados
+    // ---------------------------------------------------------------------------------------------
+
+    private static void report(Samples[] results, Settings settings) {
+        StringBuilder table = new StringBuilder(String.format("%n%-40s %9s %9s %9s %9s %9s %9s %9s %7s %7s%n",
+                "Endpoint", "Peticiones", "Pet/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "máx ms", "503", "Errores"));
+        Samples total = new Samples(settings.seconds());
+        for (Operation operation : OPERATIONS) {
+            Samples samples = results[operation.ordinal()];
+            table.append(row(operation.endpoint, samples));
+            total.addAll(samples);
+        }
+        total.sort();
+        table.append(row("TOTAL (" + settings.clients() + " clientes)", total));
+        logger.info(table.toString());
+    }
+
+    private static String row(String name, Samples samples) {
+        return String.format("%-40s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d %7d%n",
+                name, samples.count, samples.throughput(), samples.percentileMillis(0.50), samples.percentileMillis(0.90),
+                samples.percentileMillis(0.99), samples.percentileMillis(0.999), samples.percentileMillis(1.0),
+                samples.rejected, samples.errors);
+    }
+
+    private static void writeJson(Samples[] results, Settings settings) throws Exception {
+        Map<String, Object> document = new LinkedHashMap<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("clients", settings.clients());
+        parameters.put("seconds", settings.seconds());
+        parameters.put("users", settings.users());
+        parameters.put("recipes", settings.recipes());
+        parameters.put("ingredients", settings.ingredients());
+        parameters.put("seed", settings.seed());
+        document.put("settings", parameters);
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (Operation operation : OPERATIONS) {
+            Samples samples = results[operation.ordinal()];
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("endpoint", operation.endpoint);
+            entry.put("requests", samples.count);
+            entry.put("throughput", samples.throughput());
+            entry.put("p50Ms", samples.percentileMillis(0.50));
+            entry.put("p90Ms", samples.percentileMillis(0.90));
+            entry.put("p99Ms", samples.percentileMillis(0.99));
+            entry.put("p999Ms", samples.percentileMillis(0.999));
+            entry.put("maxMs", samples.percentileMillis(1.0));
+            entry.put("rejected", samples.rejected);
+            entry.put("errors", samples.errors);
+            endpoints.add(entry);
+        }
+        document.put("endpoints", endpoints);
+        Path output = settings.output();
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), document);
+        logger.info("Resultados guardados en {}", output.toAbsolutePath());
+    }
+}
\ No newline at end of file
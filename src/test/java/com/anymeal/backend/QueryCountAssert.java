@@ -0,0 +1,62 @@
+/*
+ * Archivo: QueryCountAssert.java
+ * Propósito: Utilidad de tests para comprobar cuántas sentencias SQL ejecuta una llamada (ej: una petición
+ * con MockMvc o un método de servicio). Sirve para fijar el número de consultas de cada endpoint y detectar
+ * en los tests, no en producción, los problemas N+1.
+ *
+ * Ejemplo, en un @SpringBootTest con @AutoConfigureMockMvc:
+ *   QueryCountAssert.assertStatements(3, () -> mockMvc.perform(get("/api/v1/plans").param("startDate", "2025-01-06")));
+ * MockMvc ejecuta la petición en el mismo hilo, así que QueryCountFilter suma sus sentencias a este contador.
+ */
+package com.anymeal.backend;
+
+import com.anymeal.backend.config.sql.QueryCounter;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class QueryCountAssert {
+
+    private QueryCountAssert() {}
+
+    // Ejecuta la llamada y devuelve su contador (sentencias, filas y sentencias repetidas) para comprobaciones propias.
+    public static QueryCounter count(Executable call) throws Throwable {
+        QueryCounter counter = QueryCounter.start();
+        if (counter == null) {
+            throw new IllegalStateException("Ya hay un contador de sentencias SQL activo en este hilo");
+        }
+        try {
+            call.execute();
+        } finally {
+            QueryCounter.stop(counter);
+        }
+        return counter;
+    }
+
+    // Comprueba que la llamada ejecuta exactamente 'expected' sentencias SQL.
+    public static QueryCounter assertStatements(long expected, Executable call) throws Throwable {
+        QueryCounter counter = count(call);
+        assertEquals(expected, counter.getStatements(), () -> "Número de sentencias SQL inesperado" + describe(counter));
+        return counter;
+    }
+
+    // Comprueba que la llamada ejecuta como máximo 'max' sentencias SQL.
+    public static QueryCounter assertStatementsAtMost(long max, Executable call) throws Throwable {
+        QueryCounter counter = count(call);
+        if (counter.getStatements() > max) {
+            throw new AssertionError("Se esperaban como máximo " + max + " sentencias SQL y hubo "
+                    + counter.getStatements() + describe(counter));
+        }
+        return counter;
+    }
+
+    private static String describe(QueryCounter counter) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Long> shape : counter.repeatedShapes(5)) {
+            text.append("\n  ").append(shape.getValue()).append("x ").append(shape.getKey());
+        }
+        return text.toString();
+    }
+}
\ No newline at end of file
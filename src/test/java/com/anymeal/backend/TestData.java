@@ -0,0 +1,82 @@
+/*
+ * Archivo: TestData.java
+ * Propósito: Siembra de datos para los tests de integración (perfil 'test'). Todos comparten el mismo
+ * contexto y la misma base H2, así que cada llamada crea filas con nombres únicos y devuelve sus IDs;
+ * ningún test depende de los datos de otro.
+ */
+package com.anymeal.backend;
+
+import com.anymeal.backend.model.Role;
+import com.anymeal.backend.model.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestData {
+
+    // Hash BCrypt fijo (de "dataset123"): codificar una contraseña por usuario haría lentos los tests.
+    private static final String PASSWORD_HASH = "$2a$10$eU8raSMHO7sdKrvLBnX/xO1wEHXrQOAgMXTj0udgV183F6yo5x.Se";
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final JdbcTemplate jdbc;
+
+    public TestData(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public long ingredient() {
+        return insert("INSERT INTO ingredients (name) VALUES (?)", "ingrediente " + SEQUENCE.incrementAndGet());
+    }
+
+    // Receta con porciones y nutrición fijas; los ingredientes se añaden con recipeIngredient.
+    public long recipe(int servings) {
+        long n = SEQUENCE.incrementAndGet();
+        return insert("INSERT INTO recipes (title, image_url, ready_in_minutes, servings, summary, instructions, diets, nutrition_info) " +
+                        "VALUES (?, ?, 30, ?, 'Receta de prueba', 'Paso 1: cocinar.', '[]' FORMAT JSON, " +
+                        "'{\"calories\": 500, \"protein\": \"20g\", \"fat\": \"10g\", \"carbs\": \"60g\"}' FORMAT JSON)",
+                "receta " + n, "https://img.anymeal.test/" + n + ".jpg", servings);
+    }
+
+    public void recipeIngredient(long recipeId, long ingredientId, double amount, String unit) {
+        jdbc.update("INSERT INTO recipe_ingredients (recipe_id, ingredient_id, amount, unit, original_description) " +
+                "VALUES (?, ?, ?, ?, ?)", recipeId, ingredientId, amount, unit, amount + " " + unit);
+    }
+
+    public User user() {
+        String username = "usuario" + SEQUENCE.incrementAndGet();
+        long id = insert("INSERT INTO users (username, email, password, role) VALUES (?, ?, ?, 'USER')",
+                username, username + "@anymeal.test", PASSWORD_HASH);
+        return User.builder().id(id).username(username).email(username + "@anymeal.test")
+                .password(PASSWORD_HASH).role(Role.USER).build();
+    }
+
+    public long dailyPlan(long userId, LocalDate date) {
+        return insert("INSERT INTO daily_plans (user_id, plan_date) VALUES (?, ?)", userId, date);
+    }
+
+    public long planEntry(long dailyPlanId, long recipeId, String mealType, Integer servings) {
+        return insert("INSERT INTO plan_entries (daily_plan_id, recipe_id, meal_type, servings) VALUES (?, ?, ?, ?)",
+                dailyPlanId, recipeId, mealType, servings);
+    }
+
+    public void favorite(long userId, long recipeId) {
+        jdbc.update("INSERT INTO favorite_recipes (user_id, recipe_id) VALUES (?, ?)", userId, recipeId);
+    }
+
+    private long insert(String sql, Object... args) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbc.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, keys);
+        return keys.getKeyAs(Number.class).longValue();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,157 @@
+/*
+ * Archivo: ThreadingModeBenchmark.java
+ * Propósito: Benchmark de rendimiento para comparar el modo de hilos de plataforma con el de hilos virtuales.
+ * No es un test de JUnit: es un programa que lanza peticiones concurrentes (bucle cerrado) contra una o
+ * varias instancias del backend ya arrancadas y muestra peticiones por segundo, latencias y errores.
+ *
+ * Uso típico: arrancar dos instancias sobre la misma base de datos, una con spring.threads.virtual.enabled=false
+ * (puerto 8080) y otra con true (puerto 8081), y ejecutar:
+ *   java ... ThreadingModeBenchmark http://localhost:8080 http://localhost:8081
+ *       -Dbench.user=usuario -Dbench.password=clave -Dbench.concurrency=400 -Dbench.seconds=30
+ *       -Dbench.path=/api/v1/plans?startDate=2025-01-06
+ */
+package com.anymeal.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ThreadingModeBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        List<String> baseUrls = args.length > 0 ? Arrays.asList(args) : List.of("http://localhost:8080");
+        String user = System.getProperty("bench.user", "bench");
+        String password = System.getProperty("bench.password", "bench123");
+        String path = System.getProperty("bench.path", "/api/v1/recipes");
+        int concurrency = Integer.getInteger("bench.concurrency", 200);
+        int seconds = Integer.getInteger("bench.seconds", 30);
+        int warmupSeconds = Integer.getInteger("bench.warmup-seconds", 5);
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        List<Result> results = new ArrayList<>();
+        for (String baseUrl : baseUrls) {
+            String token = login(client, baseUrl, user, password);
+            run(client, baseUrl, path, token, concurrency, warmupSeconds); // Calentamiento (JIT, cachés, pool).
+            Result result = run(client, baseUrl, path, token, concurrency, seconds);
+            results.add(result);
+            System.out.println(result);
+        }
+        if (results.size() > 1) {
+            Result base = results.get(0);
+            for (Result other : results.subList(1, results.size())) {
+                System.out.printf("%s frente a %s: %.2fx peticiones/s, p99 %.2fx%n",
+                        other.baseUrl, base.baseUrl,
+                        other.throughput() / base.throughput(),
+                        (double) other.percentileMicros(0.99) / Math.max(1, base.percentileMicros(0.99)));
+            }
+        }
+    }
+
+    private static String login(HttpClient client, String baseUrl, String user, String password) throws Exception {
+        String body = MAPPER.writeValueAsString(Map.of("username", user, "password", password));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("No se pudo iniciar sesión en " + baseUrl + ": HTTP " + response.statusCode());
+        }
+        return MAPPER.readTree(response.body()).get("token").asText();
+    }
+
+    // Lanza 'concurrency' clientes que repiten la petición sin pausa durante 'seconds' segundos.
+    private static Result run(HttpClient client, String baseUrl, String path, String token, int concurrency, int seconds)
+            throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        long[][] latencies = new long[concurrency][];
+        int[] counts = new int[concurrency];
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                int slot = c;
+                clients.submit(() -> {
+                    long[] own = new long[1024];
+                    int n = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 503) {
+                                rejected.incrementAndGet();
+                                continue;
+                            }
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (n == own.length) {
+                            own = Arrays.copyOf(own, n * 2);
+                        }
+                        own[n++] = (System.nanoTime() - start) / 1_000;
+                    }
+                    latencies[slot] = own;
+                    counts[slot] = n;
+                });
+            }
+        }
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < concurrency; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        return new Result(baseUrl, seconds, all, errors.get(), rejected.get());
+    }
+
+    private record Result(String baseUrl, int seconds, long[] sortedMicros, long errors, long rejected) {
+
+        double throughput() {
+            return (double) sortedMicros.length / seconds;
+        }
+
+        long percentileMicros(double p) {
+            if (sortedMicros.length == 0) {
+                return 0;
+            }
+            return sortedMicros[Math.min(sortedMicros.length - 1, (int) Math.ceil(p * sortedMicros.length) - 1)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d peticiones correctas (%.1f/s), p50=%.1f ms, p99=%.1f ms, p999=%.1f ms, 503=%d, errores=%d",
+                    baseUrl, sortedMicros.length, throughput(),
+                    percentileMicros(0.50) / 1000.0, percentileMicros(0.99) / 1000.0, percentileMicros(0.999) / 1000.0,
+                    rejected, errors);
+        }
+    }
+}
\ No newline at end of file
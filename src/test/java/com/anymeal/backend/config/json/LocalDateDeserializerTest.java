@@ -0,0 +1,54 @@
+/*
+ * Archivo: LocalDateDeserializerTest.java
+ * Propósito: Pruebas del deserializador de fechas: formato de texto y de objeto, campos desconocidos
+ * anidados que se saltan sin afectar al resto del documento, y objetos o arreglos en 'year', 'month'
+ * o 'day', que se rechazan en lugar de leer sus campos como si fueran los de la fecha.
+ */
+package com.anymeal.backend.config.json;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalDateDeserializerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new SimpleModule().addDeserializer(LocalDate.class, new LocalDateDeserializer()));
+
+    record Holder(LocalDate date, String after) {}
+
+    @Test
+    void readsStringsAndObjects() throws Exception {
+        assertEquals(LocalDate.of(2025, 3, 9), read("\"2025-03-09\"").date());
+        assertEquals(LocalDate.of(2025, 3, 9), read("{\"day\": 9, \"month\": \"3\", \"year\": 2025}").date());
+    }
+
+    @Test
+    void skipsUnknownNestedFieldsAndKeepsReadingTheDocument() throws Exception {
+        Holder holder = read("{\"year\": 2025, \"extra\": {\"day\": 1, \"list\": [1, {\"month\": 2}]}, \"month\": 3, \"day\": 9}");
+        assertEquals(LocalDate.of(2025, 3, 9), holder.date());
+        assertEquals("ok", holder.after());
+    }
+
+    @Test
+    void rejectsObjectsAndArraysAsDateComponents() {
+        for (String date : new String[]{
+                "{\"year\": {\"year\": 2025, \"month\": 3, \"day\": 9}}",
+                "{\"year\": 2025, \"month\": [3], \"day\": 9}",
+                "{\"year\": 2025, \"month\": 3, \"day\": {}}"}) {
+            JsonMappingException error = assertThrows(JsonMappingException.class, () -> read(date));
+            assertTrue(error.getMessage().contains("Expected a number"), error::getMessage);
+        }
+    }
+
+    private Holder read(String date) throws Exception {
+        return mapper.readValue("{\"date\": " + date + ", \"after\": \"ok\"}", Holder.class);
+    }
+}
\ No newline at end of file
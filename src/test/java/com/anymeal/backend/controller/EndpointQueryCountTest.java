@@ -0,0 +1,146 @@
+/*
+ * Archivo: EndpointQueryCountTest.java
+ * Propósito: Fija el número de sentencias SQL de los endpoints del plan, la lista de compras y los favoritos
+ * (incluida la consulta del usuario que hace el filtro JWT). Cada endpoint se prueba con dos usuarios, uno
+ * con el doble de filas que el otro: si el número de sentencias creciera con las filas (un N+1), fallaría.
+ * También comprueba que las sentencias repetidas del aviso se agrupan por forma (listas IN de cualquier tamaño).
+ */
+package com.anymeal.backend.controller;
+
+import com.anymeal.backend.QueryCountAssert;
+import com.anymeal.backend.TestData;
+import com.anymeal.backend.config.sql.QueryCounter;
+import com.anymeal.backend.dto.PlanRequest;
+import com.anymeal.backend.dto.ShoppingListDtos.AddItemRequest;
+import com.anymeal.backend.model.User;
+import com.anymeal.backend.service.JwtService;
+import com.anymeal.backend.service.PlanService;
+import com.anymeal.backend.service.ShoppingListService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EndpointQueryCountTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 6, 2);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private PlanService planService;
+    @Autowired
+    private ShoppingListService shoppingListService;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void repeatedStatementsAreGroupedByShape() {
+        QueryCounter counter = QueryCounter.start();
+        try {
+            jdbc.queryForList("SELECT id FROM recipes WHERE id IN (?, ?)", Long.class, 1L, 2L);
+            jdbc.queryForList("SELECT id FROM recipes WHERE id IN (?,?,?)", Long.class, 1L, 2L, 3L);
+            jdbc.queryForList("SELECT  id FROM recipes\n WHERE id IN (?)", Long.class, 1L);
+            jdbc.queryForList("SELECT title FROM recipes WHERE id = ?", String.class, 1L);
+        } finally {
+            QueryCounter.stop(counter);
+        }
+        assertEquals(4, counter.getStatements());
+        assertEquals(List.of(Map.entry("SELECT id FROM recipes WHERE id in (...)", 3L)), counter.repeatedShapes(5));
+    }
+
+    @Test
+    void weeklyPlan() throws Throwable {
+        for (int meals : new int[]{3, 6}) {
+            User user = userWithPlan(meals);
+            // Usuario, planes de la semana con entradas y recetas, y mapa de favoritos.
+            QueryCountAssert.assertStatements(3, () -> perform(get("/api/v1/plans").param("startDate", MONDAY.toString()), user));
+        }
+    }
+
+    @Test
+    void shoppingList() throws Throwable {
+        for (int items : new int[]{3, 6}) {
+            User user = userWithShoppingList(items);
+            QueryCountAssert.assertStatements(3, () -> perform(get("/api/v1/shopping-list"), user));
+            QueryCountAssert.assertStatements(4, () -> perform(get("/api/v1/shopping-list/changes").param("since", "1"), user));
+            String changes = itemIds(user).stream()
+                    .map(id -> "{\"itemId\":" + id + ",\"isChecked\":true}")
+                    .collect(Collectors.joining(",", "{\"changes\":[", "]}"));
+            // Marcar todos los ítems de una vez cuesta lo mismo con 3 que con 6.
+            QueryCountAssert.assertStatements(5, () -> perform(patch("/api/v1/shopping-list/items")
+                    .contentType(MediaType.APPLICATION_JSON).content(changes), user));
+        }
+    }
+
+    @Test
+    void favorites() throws Throwable {
+        for (int favorites : new int[]{3, 6}) {
+            User user = userWithFavorites(favorites);
+            // Usuario y favoritos; las previsualizaciones salen del catálogo en memoria.
+            QueryCountAssert.assertStatements(2, () -> perform(get("/api/v1/favorites"), user));
+            QueryCountAssert.assertStatements(2, () -> perform(get("/api/v1/favorites/page").param("size", "10"), user));
+        }
+    }
+
+    private void perform(MockHttpServletRequestBuilder request, User user) throws Exception {
+        mockMvc.perform(request.header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.getToken(user)))
+                .andExpect(status().isOk());
+    }
+
+    // Usuario con 'meals' comidas repartidas por la semana, cada una con una receta distinta.
+    private User userWithPlan(int meals) {
+        TestData data = new TestData(jdbc);
+        User user = data.user();
+        for (int i = 0; i < meals; i++) {
+            PlanRequest request = new PlanRequest();
+            request.setRecipeId(data.recipe(2));
+            request.setDate(MONDAY.plusDays(i % 3));
+            request.setMealType(i < 3 ? "Almuerzo" : "Cena");
+            planService.addRecipeToPlan(user, request);
+        }
+        return user;
+    }
+
+    private User userWithShoppingList(int items) {
+        User user = new TestData(jdbc).user();
+        for (int i = 0; i < items; i++) {
+            shoppingListService.addItem(user, new AddItemRequest("artículo " + i, 1.0, "unidad", null));
+        }
+        return user;
+    }
+
+    private User userWithFavorites(int favorites) {
+        TestData data = new TestData(jdbc);
+        User user = data.user();
+        for (int i = 0; i < favorites; i++) {
+            data.favorite(user.getId(), data.recipe(2));
+        }
+        return user;
+    }
+
+    private List<Long> itemIds(User user) {
+        return jdbc.queryForList("SELECT id FROM shopping_list_items WHERE user_id = ?", Long.class, user.getId());
+    }
+}
\ No newline at end of file
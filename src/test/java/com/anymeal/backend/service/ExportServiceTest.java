@@ -0,0 +1,122 @@
+/*
+ * Archivo: ExportServiceTest.java
+ * Propósito: Pruebas de las exportaciones por páginas: se exportan todas las filas en orden aunque una
+ * página termine a mitad de un día, y mientras se escribe la respuesta no queda ninguna conexión del
+ * pool ocupada (una descarga lenta no puede agotar el pool).
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.TestData;
+import com.anymeal.backend.model.User;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExportServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 9, 1);
+
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void exportsEveryPlannedMealInOrderAcrossPages() throws Exception {
+        TestData data = new TestData(jdbc);
+        User user = data.user();
+        long recipe = data.recipe(2);
+        List<String> expected = new ArrayList<>();
+        // Tres días de 400 comidas: los límites de página (500) caen a mitad de un día.
+        for (int day = 0; day < 3; day++) {
+            LocalDate date = START.plusDays(day);
+            long plan = data.dailyPlan(user.getId(), date);
+            for (int meal = 0; meal < 400; meal++) {
+                data.planEntry(plan, recipe, "Comida " + meal, meal);
+                expected.add(date + ",Comida " + meal + "," + recipe);
+            }
+        }
+        // Fuera del rango exportado.
+        data.planEntry(data.dailyPlan(user.getId(), START.plusDays(3)), recipe, "Cena", 1);
+
+        PoolWatchingStream out = new PoolWatchingStream(dataSource);
+        exportService.writePlan(user.getId(), START, START.plusDays(2), ExportService.Format.CSV, out);
+
+        List<String> lines = out.lines();
+        assertEquals("date,mealType,recipeId,recipeTitle,servings,notes", lines.get(0));
+        List<String> exported = lines.subList(1, lines.size()).stream()
+                .map(line -> String.join(",", List.of(line.split(",")).subList(0, 3)))
+                .toList();
+        assertEquals(expected, exported);
+        assertEquals(0, out.maxActiveConnections, "La exportación retuvo una conexión mientras escribía");
+    }
+
+    @Test
+    void exportsTheWholeShoppingListAcrossPages() throws Exception {
+        User user = new TestData(jdbc).user();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1234; i++) {
+            rows.add(new Object[]{user.getId(), "artículo " + i});
+        }
+        jdbc.batchUpdate("INSERT INTO shopping_list_items (user_id, custom_name, amount, unit, category, is_checked, user_edited) " +
+                "VALUES (?, ?, 1.0, 'unidad', 'Manual', FALSE, FALSE)", rows);
+
+        PoolWatchingStream out = new PoolWatchingStream(dataSource);
+        exportService.writeShoppingList(user.getId(), ExportService.Format.NDJSON, out);
+
+        List<String> lines = out.lines();
+        assertEquals(1234, lines.size());
+        assertEquals(1234, lines.stream().distinct().count());
+        assertEquals(0, out.maxActiveConnections, "La exportación retuvo una conexión mientras escribía");
+    }
+
+    // Salida que anota cuántas conexiones del pool están en uso cada vez que se le escribe.
+    private static final class PoolWatchingStream extends ByteArrayOutputStream {
+        private final HikariDataSource pool;
+        private int maxActiveConnections;
+
+        PoolWatchingStream(DataSource dataSource) throws SQLException {
+            this.pool = dataSource.unwrap(HikariDataSource.class);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            watch();
+            super.write(b, off, len);
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            watch();
+            super.write(b);
+        }
+
+        private void watch() {
+            maxActiveConnections = Math.max(maxActiveConnections, pool.getHikariPoolMXBean().getActiveConnections());
+        }
+
+        List<String> lines() throws IOException {
+            return toString(StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+}
\ No newline at end of file
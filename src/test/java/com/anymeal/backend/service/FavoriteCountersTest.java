@@ -0,0 +1,96 @@
+/*
+ * Archivo: FavoriteCountersTest.java
+ * Propósito: Pruebas de los contadores de favoritos contra la base de datos: dos instancias que vuelcan
+ * sobre la misma columna suman sus cambios (ninguna pisa a la otra) y, al arrancar, solo se corrigen
+ * las recetas cuyo favorite_count está desalineado.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.TestData;
+import com.anymeal.backend.model.User;
+import com.anymeal.backend.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FavoriteCountersTest {
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void instancesFlushDeltasWithoutOverwritingEachOther() {
+        long recipe = new TestData(jdbc).recipe(2);
+        jdbc.update("UPDATE recipes SET favorite_count = 10 WHERE id = ?", recipe);
+        FavoriteCounters first = counters(false);
+        FavoriteCounters second = counters(false);
+
+        for (int i = 0; i < 3; i++) first.increment(recipe);
+        second.increment(recipe);
+        second.increment(recipe);
+        second.decrement(recipe);
+        assertEquals(13L, first.count(recipe));
+        assertEquals(11L, second.count(recipe));
+
+        first.flush();
+        second.flush();
+        assertEquals(14, favoriteCount(recipe));
+        // Tras volcar, cada instancia ve también lo que volcó la otra antes que ella.
+        assertEquals(14L, second.count(recipe));
+
+        // Lo que llega después se suma en el siguiente volcado, no se vuelve a sumar lo ya volcado.
+        first.decrement(recipe);
+        first.flush();
+        first.flush();
+        assertEquals(13, favoriteCount(recipe));
+        assertEquals(13L, first.count(recipe));
+    }
+
+    @Test
+    void startupRepairsOnlyMisalignedCounts() {
+        TestData data = new TestData(jdbc);
+        User user = data.user();
+        long aligned = data.recipe(2);
+        long misaligned = data.recipe(2);
+        data.favorite(user.getId(), aligned);
+        data.favorite(user.getId(), misaligned);
+        jdbc.update("UPDATE recipes SET favorite_count = 1 WHERE id = ?", aligned);
+        jdbc.update("UPDATE recipes SET favorite_count = 7 WHERE id = ?", misaligned);
+
+        FavoriteCounters withoutRepair = counters(false);
+        assertEquals(7L, withoutRepair.count(misaligned));
+
+        counters(true);
+        assertEquals(1, favoriteCount(aligned));
+        assertEquals(1, favoriteCount(misaligned));
+        // Ya no queda nada que corregir.
+        assertEquals(Integer.valueOf(0), transactionTemplate.execute(status -> recipeRepository.repairFavoriteCounts()));
+    }
+
+    // Una instancia independiente, como la de otro nodo que comparte la base de datos.
+    private FavoriteCounters counters(boolean repairOnStartup) {
+        FavoriteCounters counters = new FavoriteCounters(recipeRepository, jdbc, transactionTemplate);
+        ReflectionTestUtils.setField(counters, "flushBatchSize", 500);
+        ReflectionTestUtils.setField(counters, "repairOnStartup", repairOnStartup);
+        counters.load();
+        return counters;
+    }
+
+    private int favoriteCount(long recipeId) {
+        return jdbc.queryForObject("SELECT favorite_count FROM recipes WHERE id = ?", Integer.class, recipeId);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+/*
+ * Archivo: FavoriteIndexTest.java
+ * Propósito: Pruebas del índice de favoritos en memoria: carga perezosa por usuario, cambios aplicados a
+ * los usuarios cargados y un cambio confirmado mientras se carga el usuario (no debe perderse).
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.repository.FavoriteRecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FavoriteIndexTest {
+
+    private final FavoriteRecipeRepository favoriteRecipeRepository = mock(FavoriteRecipeRepository.class);
+    private FavoriteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FavoriteIndex(favoriteRecipeRepository);
+        ReflectionTestUtils.setField(index, "maxUsers", 100);
+    }
+
+    @Test
+    void loadsOnceAndAppliesLaterChanges() {
+        when(favoriteRecipeRepository.findRecipeIdsByUserId(1L)).thenReturn(List.of(10L, 20L));
+
+        RoaringBitmap loaded = index.favoritesOf(1L);
+        assertTrue(FavoriteIndex.isFavorite(loaded, 10L));
+        assertFalse(FavoriteIndex.isFavorite(loaded, 30L));
+        assertSame(loaded, index.favoritesOf(1L));
+
+        // Sin transacción activa, los cambios se aplican en el acto. El mapa ya publicado no se modifica.
+        index.added(1L, 30L);
+        index.removed(1L, 10L);
+        RoaringBitmap updated = index.favoritesOf(1L);
+        assertTrue(FavoriteIndex.isFavorite(updated, 30L));
+        assertFalse(FavoriteIndex.isFavorite(updated, 10L));
+        assertTrue(FavoriteIndex.isFavorite(loaded, 10L));
+        verify(favoriteRecipeRepository, times(1)).findRecipeIdsByUserId(1L);
+        assertNull(index.favoritesOf(null));
+    }
+
+    @Test
+    void aChangeCommittedWhileLoadingIsNotLost() {
+        // La lectura de la base de datos ocurre antes de confirmarse el nuevo favorito (la receta 20)
+        // y su afterCommit se ejecuta antes de que la carga se publique, cuando el usuario aún no está.
+        when(favoriteRecipeRepository.findRecipeIdsByUserId(1L))
+                .thenAnswer(invocation -> {
+                    index.added(1L, 20L);
+                    return List.of(10L);
+                })
+                .thenReturn(List.of(10L, 20L));
+
+        RoaringBitmap racing = index.favoritesOf(1L);
+        assertTrue(FavoriteIndex.isFavorite(racing, 10L));
+
+        // La carga anterior no se guardó: se vuelve a leer y ya incluye el cambio.
+        RoaringBitmap reloaded = index.favoritesOf(1L);
+        assertTrue(FavoriteIndex.isFavorite(reloaded, 20L));
+        assertSame(reloaded, index.favoritesOf(1L));
+        verify(favoriteRecipeRepository, times(2)).findRecipeIdsByUserId(1L);
+    }
+
+    @Test
+    void changesOfOtherUsersDoNotPreventCaching() {
+        when(favoriteRecipeRepository.findRecipeIdsByUserId(1L))
+                .thenAnswer(invocation -> {
+                    index.added(2L, 20L);
+                    return List.of(10L);
+                });
+
+        RoaringBitmap loaded = index.favoritesOf(1L);
+        assertSame(loaded, index.favoritesOf(1L));
+        verify(favoriteRecipeRepository, times(1)).findRecipeIdsByUserId(1L);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,131 @@
+/*
+ * Archivo: FavoriteServiceTest.java
+ * Propósito: Pruebas de los favoritos contra la base de datos: añadir la misma receta a la vez desde
+ * varias peticiones (una sola fila y un solo incremento del contador) y la paginación por clave
+ * (favorited_at, recipe_id), incluidos los empates de fecha y los cursores no válidos.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.TestData;
+import com.anymeal.backend.dto.FavoritesPageResponse;
+import com.anymeal.backend.dto.RecipePreviewResponse;
+import com.anymeal.backend.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FavoriteServiceTest {
+
+    @Autowired
+    private FavoriteService favoriteService;
+    @Autowired
+    private FavoriteCounters favoriteCounters;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void concurrentDuplicateAddsInsertAndCountOnce() throws InterruptedException {
+        TestData data = new TestData(jdbc);
+        User user = data.user();
+        long recipe = data.recipe(2);
+        long before = favoriteCounters.count(recipe);
+
+        int threads = 8;
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < threads; i++) {
+            Thread.ofPlatform().start(() -> {
+                try {
+                    go.await();
+                    favoriteService.addFavorite(user, recipe);
+                } catch (Throwable e) {
+                    failures.add(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        go.countDown();
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+
+        assertTrue(failures.isEmpty(), () -> "Peticiones fallidas: " + failures);
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM favorite_recipes WHERE user_id = ? AND recipe_id = ?",
+                Integer.class, user.getId(), recipe));
+        assertEquals(before + 1, favoriteCounters.count(recipe));
+
+        // Añadir otra vez no cambia nada; quitar descuenta una sola vez.
+        favoriteService.addFavorite(user, recipe);
+        favoriteService.removeFavorite(user, recipe);
+        favoriteService.removeFavorite(user, recipe);
+        assertEquals(before, favoriteCounters.count(recipe));
+    }
+
+    @Test
+    void addingAMissingRecipeFails() {
+        User user = new TestData(jdbc).user();
+        RuntimeException error = assertThrows(RuntimeException.class, () -> favoriteService.addFavorite(user, Long.MAX_VALUE));
+        assertEquals("Receta no encontrada", error.getMessage());
+    }
+
+    @Test
+    void pagesWalkEveryFavoriteOnceInOrderIncludingTies() {
+        TestData data = new TestData(jdbc);
+        User user = data.user();
+        Timestamp older = Timestamp.valueOf("2025-01-01 10:00:00.123456");
+        Timestamp newer = Timestamp.valueOf("2025-01-02 10:00:00.5");
+        List<Long> expected = new ArrayList<>();
+        List<Long> newerRecipes = new ArrayList<>();
+        List<Long> olderRecipes = new ArrayList<>();
+        // Cuatro favoritos con la misma fecha exacta y tres con otra: los empates se resuelven por ID.
+        for (int i = 0; i < 7; i++) {
+            long recipe = data.recipe(2);
+            (i < 3 ? newerRecipes : olderRecipes).add(recipe);
+            jdbc.update("INSERT INTO favorite_recipes (user_id, recipe_id, favorited_at) VALUES (?, ?, ?)",
+                    user.getId(), recipe, i < 3 ? newer : older);
+        }
+        expected.addAll(newerRecipes.reversed());
+        expected.addAll(olderRecipes.reversed());
+
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            FavoritesPageResponse page = favoriteService.getFavoritesPage(user, cursor, 2);
+            page.items().stream().map(RecipePreviewResponse::getId).forEach(walked::add);
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expected, walked);
+        assertEquals(4, pages);
+        assertNull(favoriteService.getFavoritesPage(user, null, 7).nextCursor());
+    }
+
+    @Test
+    void rejectsInvalidCursorsAndPageSizes() {
+        User user = new TestData(jdbc).user();
+        assertThrows(IllegalArgumentException.class, () -> favoriteService.getFavoritesPage(user, "no-es-un-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> favoriteService.getFavoritesPage(user, "abc_1", 10));
+        assertThrows(IllegalArgumentException.class, () -> favoriteService.getFavoritesPage(user, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> favoriteService.getFavoritesPage(user, null, 101));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,157 @@
+/*
+ * Archivo: IngredientAggregatorTest.java
+ * Propósito: Pruebas del agregador de ingredientes: suma por familia de unidad, tabla hash de
+ * direccionamiento abierto (crecimiento y claves empaquetadas), combinación de tramos, resta de la
+ * despensa y límites de la clave (ID del ingrediente y códigos de unidades desconocidas).
+ */
+package com.anymeal.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IngredientAggregatorTest {
+
+    @Test
+    void sumsUnitsOfTheSameFamilyInTheCanonicalUnit() {
+        IngredientAggregator aggregator = new IngredientAggregator();
+        aggregator.add(1, "harina", "g", 500.0);
+        aggregator.add(1, "harina", "Kg.", 1.0);
+
+        List<IngredientAggregator.AggregatedIngredient> result = aggregator.getResult();
+        assertEquals(1, result.size());
+        assertEquals(1500.0, result.get(0).getBaseAmount(), 1e-9);
+        assertEquals("g", result.get(0).getUnit());
+        assertEquals(1.5, result.get(0).getAmount(), 1e-9);
+        assertEquals("kg", result.get(0).getDisplayUnit());
+    }
+
+    @Test
+    void keepsDifferentFamiliesAndUnknownUnitsApart() {
+        IngredientAggregator aggregator = new IngredientAggregator();
+        aggregator.add(1, "leche", "cup", 1.0);
+        aggregator.add(1, "leche", "g", 100.0);
+        aggregator.add(1, "leche", "pizca", 1.0);
+        aggregator.add(1, "leche", "pizca", 2.0);
+        aggregator.add(1, "leche", "clove", null); // Cantidad nula: cuenta como 1.
+
+        Map<String, Double> byUnit = aggregator.getResult().stream().collect(Collectors.toMap(
+                IngredientAggregator.AggregatedIngredient::getUnit, IngredientAggregator.AggregatedIngredient::getBaseAmount));
+        assertEquals(4, byUnit.size());
+        assertEquals(236.5882365, byUnit.get("ml"), 1e-9);
+        assertEquals(100.0, byUnit.get("g"), 1e-9);
+        assertEquals(3.0, byUnit.get("pizca"), 1e-9);
+        assertEquals(1.0, byUnit.get("clove"), 1e-9);
+    }
+
+    @Test
+    void growsAndKeepsEveryKeyWhenManyIngredientsCollide() {
+        IngredientAggregator aggregator = new IngredientAggregator();
+        int ingredients = 10_000;
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < ingredients; i++) {
+                // IDs que solo difieren en bits altos y las tres familias conocidas para el mismo ingrediente.
+                long id = ((long) i << 20) + 7;
+                aggregator.add(id, "i" + i, "g", 1.0);
+                aggregator.add(id, "i" + i, "ml", 2.0);
+                aggregator.add(id, "i" + i, "unidad", 3.0);
+            }
+        }
+
+        List<IngredientAggregator.AggregatedIngredient> result = aggregator.getResult();
+        assertEquals(ingredients * 3, result.size());
+        for (IngredientAggregator.AggregatedIngredient agg : result) {
+            double expected = switch (agg.getUnit()) {
+                case "g" -> 3.0;
+                case "ml" -> 6.0;
+                default -> 9.0;
+            };
+            assertEquals(expected, agg.getBaseAmount(), 1e-9, () -> agg.getIngredientId() + " " + agg.getUnit());
+        }
+        // El orden es el de llegada.
+        assertEquals(7L, result.get(0).getIngredientId());
+        assertEquals(ingredients, aggregator.getIngredientIds().size());
+    }
+
+    @Test
+    void mergeReassignsUnknownUnitCodesOfTheOtherAggregator() {
+        IngredientAggregator first = new IngredientAggregator();
+        first.add(1, "ajo", "pizca", 1.0);
+        first.add(1, "ajo", "clove", 2.0);
+        IngredientAggregator second = new IngredientAggregator();
+        second.add(1, "ajo", "clove", 3.0); // En este agregador "clove" recibe el código que "pizca" tiene en el primero.
+        second.add(1, "ajo", "pizca", 4.0);
+        second.add(2, "sal", "kg", 1.0);
+
+        first.merge(second);
+
+        Map<String, IngredientAggregator.AggregatedIngredient> byKey = byKey(first);
+        assertEquals(3, byKey.size());
+        assertEquals(5.0, byKey.get("1|pizca").getBaseAmount(), 1e-9);
+        assertEquals(5.0, byKey.get("1|clove").getBaseAmount(), 1e-9);
+        assertEquals(1000.0, byKey.get("2|g").getBaseAmount(), 1e-9);
+    }
+
+    @Test
+    void subtractClampsAtZeroAndOnlyMatchesTheSameFamily() {
+        IngredientAggregator needed = new IngredientAggregator();
+        needed.add(1, "arroz", "g", 300.0);
+        needed.add(2, "leche", "l", 1.0);
+        needed.add(3, "huevo", "unidad", 6.0);
+        needed.add(4, "sal", "pizca", 2.0);
+        IngredientAggregator pantry = new IngredientAggregator();
+        pantry.add(1, "arroz", "kg", 1.0);      // Cubre todo el arroz.
+        pantry.add(2, "leche", "ml", 250.0);    // Cubre una parte de la leche.
+        pantry.add(3, "huevo", "g", 100.0);     // Otra familia: no se resta.
+        pantry.add(4, "sal", "pizca", 1.0);     // Unidad desconocida con el mismo texto: se resta.
+        pantry.add(5, "azúcar", "g", 10.0);     // No hace falta: se ignora.
+
+        needed.subtract(pantry);
+
+        Map<String, IngredientAggregator.AggregatedIngredient> byKey = byKey(needed);
+        assertNull(byKey.get("1|g"));
+        assertEquals(750.0, byKey.get("2|ml").getBaseAmount(), 1e-9);
+        assertEquals(6.0, byKey.get("3|unidad").getBaseAmount(), 1e-9);
+        assertEquals(1.0, byKey.get("4|pizca").getBaseAmount(), 1e-9);
+        assertEquals(3, byKey.size());
+        assertTrue(needed.getIngredientIds().contains(1L), "El ingrediente cubierto sigue contando como presente");
+    }
+
+    @Test
+    void acceptsLargeIdsAndRejectsIdsThatDoNotFitInTheKey() {
+        IngredientAggregator aggregator = new IngredientAggregator();
+        aggregator.add(99_999_999L, "spoonacular", "g", 1.0);
+        aggregator.add((1L << 47) - 1, "máximo", "g", 1.0);
+        assertEquals(2, aggregator.getResult().size());
+
+        assertThrows(IllegalStateException.class, () -> aggregator.add(1L << 47, "demasiado grande", "g", 1.0));
+        assertThrows(IllegalStateException.class, () -> aggregator.add(-1L, "negativo", "g", 1.0));
+    }
+
+    @Test
+    void failsInsteadOfReusingCodesWhenThereAreTooManyUnknownUnits() {
+        IngredientAggregator aggregator = new IngredientAggregator();
+        int available = 0xFFFF - UnitConverter.FIRST_OTHER_CODE + 1;
+        for (int i = 0; i < available; i++) {
+            aggregator.add(1, "x", "unidad-rara-" + i, 1.0);
+        }
+        assertEquals(available, aggregator.getResult().size());
+        // Las unidades ya vistas siguen sumándose; una nueva ya no tiene código.
+        aggregator.add(1, "x", "unidad-rara-0", 1.0);
+        assertThrows(IllegalStateException.class, () -> aggregator.add(1, "x", "otra-unidad", 1.0));
+        assertEquals(2.0, byKey(aggregator).get("1|unidad-rara-0").getBaseAmount(), 1e-9);
+    }
+
+    private static Map<String, IngredientAggregator.AggregatedIngredient> byKey(IngredientAggregator aggregator) {
+        return aggregator.getResult().stream().collect(Collectors.toMap(
+                agg -> agg.getIngredientId() + "|" + agg.getUnit(), Function.identity()));
+    }
+}
\ No newline at end of file
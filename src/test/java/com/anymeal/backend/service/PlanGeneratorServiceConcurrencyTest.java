@@ -0,0 +1,108 @@
+/*
+ * Archivo: PlanGeneratorServiceConcurrencyTest.java
+ * Propósito: Genera a la vez varias veces la misma semana de un usuario mientras otra petición le añade una
+ * comida a mano. Todas crean los mismos días: si alguna insertara el plan diario sin el upsert, chocaría
+ * contra la restricción única (user_id, plan_date). Al final hay un plan por día y sus totales
+ * nutricionales coinciden con las comidas que quedaron.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.TestData;
+import com.anymeal.backend.dto.GeneratePlanRequest;
+import com.anymeal.backend.dto.PlanRequest;
+import com.anymeal.backend.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PlanGeneratorServiceConcurrencyTest {
+
+    private static final int GENERATIONS = 4;
+    private static final LocalDate MONDAY = LocalDate.of(2025, 9, 1);
+
+    @Autowired
+    private PlanGeneratorService planGeneratorService;
+    @Autowired
+    private PlanService planService;
+    @Autowired
+    private RecipeCatalog recipeCatalog;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void generatingTheSameWeekAtOnceCreatesEachDayOnce() throws InterruptedException {
+        TestData data = new TestData(jdbc);
+        List<Long> recipes = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            recipes.add(data.recipe(2));
+        }
+        // La instantánea del contexto compartido puede ser anterior a estas recetas: se fuerza la recarga.
+        ReflectionTestUtils.setField(recipeCatalog, "snapshot", null);
+        recipeCatalog.reload();
+        User user = data.user();
+
+        List<Runnable> requests = new ArrayList<>();
+        for (int i = 0; i < GENERATIONS; i++) {
+            GeneratePlanRequest request = new GeneratePlanRequest();
+            request.setStartDate(MONDAY);
+            request.setReplaceExisting(i % 2 == 0);
+            requests.add(() -> planGeneratorService.generateWeek(user, request));
+        }
+        PlanRequest meal = new PlanRequest();
+        meal.setRecipeId(recipes.get(0));
+        meal.setDate(MONDAY.plusDays(3));
+        meal.setMealType("Merienda");
+        requests.add(() -> planService.addRecipeToPlan(user, meal));
+
+        CountDownLatch ready = new CountDownLatch(requests.size());
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(requests.size());
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        for (Runnable request : requests) {
+            Thread.ofPlatform().start(() -> {
+                try {
+                    ready.countDown();
+                    go.await();
+                    request.run();
+                } catch (Throwable e) {
+                    failures.add(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        ready.await();
+        go.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS), "Las peticiones no terminaron");
+        assertTrue(failures.isEmpty(), () -> "Peticiones fallidas: " + failures);
+
+        List<Map<String, Object>> days = jdbc.queryForList(
+                "SELECT dp.id, dp.total_calories, COUNT(pe.id) AS meals FROM daily_plans dp " +
+                        "LEFT JOIN plan_entries pe ON pe.daily_plan_id = dp.id WHERE dp.user_id = ? " +
+                        "GROUP BY dp.id, dp.total_calories", user.getId());
+        assertEquals(7, days.size());
+        for (Map<String, Object> day : days) {
+            // Todas las recetas de prueba tienen 500 kcal.
+            assertEquals(500.0 * ((Number) day.get("meals")).longValue(), ((Number) day.get("total_calories")).doubleValue(),
+                    1e-6, "Totales del plan " + day.get("id"));
+        }
+    }
+}
\ No newline at end of file
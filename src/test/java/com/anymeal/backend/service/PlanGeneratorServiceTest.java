@@ -0,0 +1,222 @@
+/*
+ * Archivo: PlanGeneratorServiceTest.java
+ * Propósito: Pruebas del generador automático de planes sin base de datos: los repositorios son simulados
+ * y el catálogo es una instantánea sintética de 100.000 recetas. Comprueban que la búsqueda dura lo que
+ * marca su presupuesto (o menos, si no hay nada que optimizar) y devuelve una semana válida sin repeticiones,
+ * y cómo se guarda. El objetivo de tiempo (menos de 200 ms por generación) se mide en PlanGeneratorBenchmark.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.dto.GeneratePlanRequest;
+import com.anymeal.backend.model.DailyPlan;
+import com.anymeal.backend.model.PlanEntry;
+import com.anymeal.backend.model.Recipe;
+import com.anymeal.backend.model.User;
+import com.anymeal.backend.repository.DailyPlanRepository;
+import com.anymeal.backend.repository.FavoriteRecipeRepository;
+import com.anymeal.backend.repository.PlanEntryRepository;
+import com.anymeal.backend.repository.RecipeRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PlanGeneratorServiceTest {
+
+    private static final int RECIPES = 100_000;
+    private static final LocalDate MONDAY = LocalDate.of(2025, 1, 6);
+
+    private static RecipeCatalog.Snapshot catalog;
+    private static final ForkJoinPool SEARCH_POOL = new ForkJoinPool(2);
+
+    private final RecipeCatalog recipeCatalog = mock(RecipeCatalog.class);
+    private final RecipeRepository recipeRepository = mock(RecipeRepository.class);
+    private final DailyPlanRepository dailyPlanRepository = mock(DailyPlanRepository.class);
+    private final FavoriteRecipeRepository favoriteRecipeRepository = mock(FavoriteRecipeRepository.class);
+    private final PlanEntryRepository planEntryRepository = mock(PlanEntryRepository.class);
+    private final PlanService planService = mock(PlanService.class);
+    private final ShoppingListService shoppingListService = mock(ShoppingListService.class);
+    private final User user = User.builder().id(1L).build();
+    private PlanGeneratorService service;
+
+    // Catálogo sintético compartido por todas las pruebas (construirlo es lo más lento).
+    @BeforeAll
+    static void buildCatalog() {
+        List<Object[]> rows = new ArrayList<>(RECIPES);
+        for (int i = 0; i < RECIPES; i++) {
+            String diets = i % 3 == 0 ? "[\"vegetarian\"]" : "[]";
+            String nutrition = "{\"calories\": " + (200 + i % 600) + ", \"protein\": " + (5 + i % 40)
+                    + ", \"fat\": " + (3 + i % 30) + ", \"carbs\": " + (10 + i % 80) + "}";
+            rows.add(new Object[]{(long) i + 1, 10 + i % 90, diets, nutrition});
+        }
+        catalog = RecipeCatalog.Snapshot.build(rows);
+    }
+
+    @AfterAll
+    static void shutDownPool() {
+        SEARCH_POOL.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(recipeCatalog.getSnapshot()).thenReturn(catalog);
+        when(recipeRepository.getReferenceById(anyLong()))
+                .thenAnswer(invocation -> Recipe.builder().id(invocation.getArgument(0)).build());
+        when(favoriteRecipeRepository.findRecipeIdsByUserId(1L)).thenReturn(List.of(10L, 20L, 30L));
+        // El ID de cada plan diario que "crea" upsertForDate es el número de día de su fecha.
+        AtomicReference<LocalDate> upserted = new AtomicReference<>();
+        doAnswer(invocation -> {
+            upserted.set(invocation.getArgument(1));
+            return null;
+        }).when(dailyPlanRepository).upsertForDate(eq(1L), any(), anyDouble(), anyDouble(), anyDouble(), anyDouble());
+        when(dailyPlanRepository.lastInsertId()).thenAnswer(invocation -> upserted.get().toEpochDay());
+        when(dailyPlanRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            DailyPlan plan = new DailyPlan();
+            plan.setId(invocation.getArgument(0));
+            plan.setPlanDate(LocalDate.ofEpochDay(invocation.getArgument(0)));
+            return plan;
+        });
+        service = new PlanGeneratorService(recipeCatalog, recipeRepository, dailyPlanRepository, favoriteRecipeRepository,
+                planEntryRepository, planService, shoppingListService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), SEARCH_POOL);
+        ReflectionTestUtils.setField(service, "timeBudgetMs", 150L);
+    }
+
+    @Test
+    void searchesUntilTheTimeBudgetAndReturnsAWeekWithoutRepeats() {
+        ReflectionTestUtils.setField(service, "timeBudgetMs", 50L);
+
+        long start = System.nanoTime();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> service.generateWeek(user, request()));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Con objetivos de calorías y proteínas el coste ideal es inalcanzable: la búsqueda agota su plazo.
+        assertTrue(elapsedMs >= 50, "La búsqueda terminó antes de su plazo: " + elapsedMs + " ms");
+        List<PlanEntry> entries = savedEntries();
+        assertEquals(21, entries.size());
+        assertEquals(21, entries.stream().map(entry -> entry.getRecipe().getId()).distinct().count());
+    }
+
+    @Test
+    void stopsBeforeTheTimeBudgetWhenThereIsNothingToOptimize() {
+        ReflectionTestUtils.setField(service, "timeBudgetMs", 60_000L);
+        GeneratePlanRequest request = new GeneratePlanRequest();
+        request.setStartDate(MONDAY);
+
+        // Sin objetivos ni favoritas cualquier semana válida es óptima: no se espera al plazo de un minuto.
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> service.generateWeek(user, request));
+        List<PlanEntry> entries = savedEntries();
+        assertEquals(21, entries.size());
+        assertEquals(21, entries.stream().map(entry -> entry.getRecipe().getId()).distinct().count());
+    }
+
+    @Test
+    void keepsExistingMealsAndDoesNotRepeatThemWhenNotReplacing() {
+        long plannedRecipe = 4L;
+        when(planEntryRepository.findPlannedMeals(eq(1L), eq(MONDAY), any()))
+                .thenReturn(List.of(new Meal(MONDAY, "Almuerzo", plannedRecipe)));
+
+        service.generateWeek(user, request());
+
+        List<PlanEntry> added = savedEntries();
+        assertEquals(20, added.size());
+        Set<Long> recipeIds = new HashSet<>();
+        for (PlanEntry entry : added) {
+            assertFalse(entry.getDailyPlan().getPlanDate().equals(MONDAY) && entry.getMealType().equals("Almuerzo"),
+                    "Se añadió otra comida en un hueco ocupado");
+            recipeIds.add(entry.getRecipe().getId());
+        }
+        assertEquals(20, recipeIds.size());
+        assertFalse(recipeIds.contains(plannedRecipe), "Se repitió una receta que ya estaba en la semana");
+        // Cada día se crea o se bloquea con un upsert que suma solo las comidas nuevas; nada se borra.
+        verify(dailyPlanRepository, times(7)).upsertForDate(eq(1L), any(), anyDouble(), anyDouble(), anyDouble(), anyDouble());
+        verify(dailyPlanRepository).upsertForDate(eq(1L), eq(MONDAY),
+                eq(nutritionOf(added, MONDAY).calories()), anyDouble(), anyDouble(), anyDouble());
+        verify(planEntryRepository, never()).deleteByDailyPlanIdIn(any());
+        verify(dailyPlanRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void replacingTheWeekIgnoresExistingMeals() {
+        GeneratePlanRequest request = request();
+        request.setReplaceExisting(true);
+
+        service.generateWeek(user, request);
+
+        verify(planEntryRepository, never()).findPlannedMeals(any(), any(), any());
+        List<PlanEntry> added = savedEntries();
+        assertEquals(21, added.size());
+        // Los días se bloquean sin sumar nada, se borran sus comidas anteriores y se fijan los totales nuevos.
+        verify(dailyPlanRepository).upsertForDate(1L, MONDAY, 0, 0, 0, 0);
+        verify(planEntryRepository).deleteByDailyPlanIdIn(
+                List.of(MONDAY.toEpochDay(), MONDAY.plusDays(1).toEpochDay(), MONDAY.plusDays(2).toEpochDay(),
+                        MONDAY.plusDays(3).toEpochDay(), MONDAY.plusDays(4).toEpochDay(), MONDAY.plusDays(5).toEpochDay(),
+                        MONDAY.plusDays(6).toEpochDay()));
+        NutritionFacts monday = nutritionOf(added, MONDAY);
+        verify(dailyPlanRepository).setNutrition(MONDAY.toEpochDay(),
+                monday.calories(), monday.protein(), monday.fat(), monday.carbs());
+    }
+
+    private static GeneratePlanRequest request() {
+        GeneratePlanRequest request = new GeneratePlanRequest();
+        request.setStartDate(MONDAY);
+        request.setDailyCalories(2000.0);
+        request.setDailyProtein(90.0);
+        return request;
+    }
+
+    // Entradas guardadas con la única llamada a saveAll.
+    @SuppressWarnings("unchecked")
+    private List<PlanEntry> savedEntries() {
+        ArgumentCaptor<List<PlanEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(planEntryRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    // Suma de los valores nutricionales (del catálogo) de las comidas añadidas a un día.
+    private static NutritionFacts nutritionOf(List<PlanEntry> entries, LocalDate date) {
+        NutritionFacts total = NutritionFacts.EMPTY;
+        for (PlanEntry entry : entries) {
+            if (entry.getDailyPlan().getPlanDate().equals(date)) {
+                int ordinal = catalog.ordinalOf(entry.getRecipe().getId());
+                total = total.plus(new NutritionFacts(catalog.calories(ordinal), catalog.protein(ordinal),
+                        catalog.fat(ordinal), catalog.carbs(ordinal)));
+            }
+        }
+        return total;
+    }
+
+    private record Meal(LocalDate planDate, String mealType, Long recipeId) implements PlanEntryRepository.PlannedMeal {
+        @Override public LocalDate getPlanDate() { return planDate; }
+        @Override public String getMealType() { return mealType; }
+        @Override public Long getRecipeId() { return recipeId; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,166 @@
+/*
+ * Archivo: RecipePreviewFragmentsTest.java
+ * Propósito: Pruebas de las previsualizaciones escritas con fragmentos JSON en caché: la búsqueda, los
+ * favoritos (lista y página) y el plan semanal devuelven los mismos campos que el DTO completo; modificar
+ * una receta descarta su fragmento al confirmarse; y ni un fragmento ni un detalle de receta generados con
+ * datos leídos antes de una invalidación se guardan en caché.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.TestData;
+import com.anymeal.backend.dto.PlanRequest;
+import com.anymeal.backend.dto.RecipePreview;
+import com.anymeal.backend.dto.RecipePreviewResponse;
+import com.anymeal.backend.model.User;
+import com.anymeal.backend.repository.RecipeRepository;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RecipePreviewFragmentsTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 7, 7);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private PlanService planService;
+    @Autowired
+    private RecipePreviewFragments previewFragments;
+    @Autowired
+    private RecipeService recipeService;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void everyEndpointWritesTheSamePreviewAndSeesRecipeChanges() throws Exception {
+        TestData data = new TestData(jdbc);
+        User user = data.user();
+        long recipe = data.recipe(2);
+        String title = jdbc.queryForObject("SELECT title FROM recipes WHERE id = ?", String.class, recipe);
+        data.favorite(user.getId(), recipe);
+        PlanRequest request = new PlanRequest();
+        request.setRecipeId(recipe);
+        request.setDate(MONDAY);
+        request.setMealType("Cena");
+        planService.addRecipeToPlan(user, request);
+
+        assertPreviews(user, recipe, title);
+
+        // El cambio pasa por JPA: al confirmarse se descarta el fragmento y todas las respuestas lo ven.
+        transactionTemplate.executeWithoutResult(status ->
+                recipeRepository.findById(recipe).orElseThrow().setTitle(title + " \"renombrada\" ñ"));
+        assertPreviews(user, recipe, title + " \"renombrada\" ñ");
+    }
+
+    @Test
+    void aFragmentBuiltFromDataReadBeforeAnInvalidationIsNotCached() throws Exception {
+        long recipeId = Long.MAX_VALUE - 1;
+        long versionBeforeLoading = previewFragments.version();
+        // Otra receta cambia mientras esta se estaba cargando.
+        previewFragments.invalidate(Long.MAX_VALUE - 2);
+
+        assertEquals("{\"id\":" + recipeId + ",\"title\":\"antes\",\"imageUrl\":null,\"readyInMinutes\":\"5 min\"," +
+                        "\"difficulty\":null,\"category\":null,\"isFavorite\":false,\"favoriteCount\":3}",
+                write(preview(recipeId, "antes", versionBeforeLoading)));
+        // No se guardó: la siguiente respuesta vuelve a serializar la receta con sus datos actuales.
+        assertEquals("después", titleIn(write(preview(recipeId, "después", previewFragments.version()))));
+        // Ese sí se guardó y se reutiliza aunque la fuente cambie; solo una invalidación lo descarta.
+        assertEquals("después", titleIn(write(preview(recipeId, "otra", previewFragments.version()))));
+        previewFragments.invalidate(recipeId);
+        assertEquals("otra", titleIn(write(preview(recipeId, "otra", previewFragments.version()))));
+    }
+
+    @Test
+    void aDetailLoadedBeforeAnInvalidationIsNotCached() {
+        TestData data = new TestData(jdbc);
+        long recipe = data.recipe(2);
+        String title = jdbc.queryForObject("SELECT title FROM recipes WHERE id = ?", String.class, recipe);
+        // La receta cambia justo después de leerla: se invalida (como en RecipeCacheInvalidator) antes de guardar el detalle.
+        MethodInterceptor changeAfterLoading = invocation -> {
+            Object loaded = invocation.proceed();
+            if (invocation.getMethod().getName().equals("findWithIngredientsById")) {
+                jdbc.update("UPDATE recipes SET title = ? WHERE id = ?", title + " nueva", recipe);
+                previewFragments.invalidate(recipe);
+                recipeService.evictDetails(recipe);
+            }
+            return loaded;
+        };
+        ((Advised) recipeRepository).addAdvice(0, changeAfterLoading);
+        try {
+            assertEquals(title, recipeService.getRecipeById(recipe).getTitle());
+        } finally {
+            ((Advised) recipeRepository).removeAdvice(changeAfterLoading);
+        }
+        // El detalle antiguo no quedó en caché: la siguiente lectura ve el cambio.
+        assertEquals(title + " nueva", recipeService.getRecipeById(recipe).getTitle());
+    }
+
+    private void assertPreviews(User user, long recipe, String title) throws Exception {
+        expectPreview(perform(get("/api/v1/recipes").param("query", title), user), "$[0]", recipe, title);
+        expectPreview(perform(get("/api/v1/favorites"), user), "$[0]", recipe, title);
+        expectPreview(perform(get("/api/v1/favorites/page").param("size", "5"), user)
+                .andExpect(jsonPath("$.items", hasSize(1))), "$.items[0]", recipe, title);
+        expectPreview(perform(get("/api/v1/plans").param("startDate", MONDAY.toString()), user),
+                "$.dailyPlans['" + MONDAY + "'].meals.Cena[0].recipe", recipe, title);
+    }
+
+    private static void expectPreview(ResultActions result, String path, long recipe, String title) throws Exception {
+        result.andExpect(jsonPath(path + ".id").value(recipe))
+                .andExpect(jsonPath(path + ".title").value(title))
+                .andExpect(jsonPath(path + ".imageUrl").value("https://img.anymeal.test/" + title.split(" ")[1] + ".jpg"))
+                .andExpect(jsonPath(path + ".readyInMinutes").value("30 min"))
+                .andExpect(jsonPath(path + ".isFavorite").value(true))
+                .andExpect(jsonPath(path + ".favoriteCount").isNumber());
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request, User user) throws Exception {
+        return mockMvc.perform(request.header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.getToken(user)))
+                .andExpect(status().isOk());
+    }
+
+    private static RecipePreview preview(long recipeId, String title, long fragmentsVersion) {
+        return new RecipePreview(recipeId, false, 3L, fragmentsVersion, () -> RecipePreviewResponse.builder()
+                .id(recipeId).title(title).readyInMinutes("5 min").isFavorite(false).favoriteCount(3L).build());
+    }
+
+    private String write(RecipePreview preview) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        previewFragments.write(preview, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String titleIn(String json) {
+        int start = json.indexOf("\"title\":\"") + 9;
+        return json.substring(start, json.indexOf('"', start));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+/*
+ * Archivo: ShoppingListDeltaSyncTest.java
+ * Propósito: Pruebas de la sincronización por diferencias de la lista de compras: versiones crecientes por
+ * usuario, ítems modificados desde una versión, marcas de borrado (tombstones) y reinicio tras regenerar.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.TestData;
+import com.anymeal.backend.dto.ShoppingListDtos.AddItemRequest;
+import com.anymeal.backend.dto.ShoppingListDtos.GenerateListRequest;
+import com.anymeal.backend.dto.ShoppingListDtos.ShoppingItemDto;
+import com.anymeal.backend.dto.ShoppingListDtos.ShoppingListChangesResponse;
+import com.anymeal.backend.dto.ShoppingListDtos.UpdateItemRequest;
+import com.anymeal.backend.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ShoppingListDeltaSyncTest {
+
+    @Autowired
+    private ShoppingListService shoppingListService;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private TestData data;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbc);
+        user = data.user();
+    }
+
+    @Test
+    void returnsOnlyTheItemsChangedOrDeletedSinceAVersion() {
+        ShoppingItemDto milk = shoppingListService.addItem(user, new AddItemRequest("leche", 1.0, "l", null));
+        ShoppingItemDto bread = shoppingListService.addItem(user, new AddItemRequest("pan", 1.0, "unidad", null));
+        // Los cambios de otro usuario no cuentan en la versión ni en las diferencias de este.
+        shoppingListService.addItem(data.user(), new AddItemRequest("café", 1.0, "unidad", null));
+
+        ShoppingListChangesResponse initial = shoppingListService.getChangesSince(user, 0);
+        assertTrue(initial.reset());
+        assertEquals(2, initial.version());
+        assertEquals(List.of(milk.id(), bread.id()), ids(initial.upserts()));
+
+        ShoppingListChangesResponse none = shoppingListService.getChangesSince(user, initial.version());
+        assertFalse(none.reset());
+        assertTrue(none.upserts().isEmpty());
+        assertTrue(none.deletedIds().isEmpty());
+
+        shoppingListService.updateItem(user, milk.id(), new UpdateItemRequest(true));
+        shoppingListService.deleteItem(user, bread.id());
+        ShoppingListChangesResponse changes = shoppingListService.getChangesSince(user, initial.version());
+        assertEquals(4, changes.version());
+        assertEquals(List.of(milk.id()), ids(changes.upserts()));
+        assertTrue(changes.upserts().get(0).isChecked());
+        assertEquals(List.of(bread.id()), changes.deletedIds());
+
+        // Al quitar los comprados, el ítem marcado pasa a ser un borrado.
+        shoppingListService.clearCheckedItems(user);
+        ShoppingListChangesResponse cleared = shoppingListService.getChangesSince(user, changes.version());
+        assertEquals(5, cleared.version());
+        assertTrue(cleared.upserts().isEmpty());
+        assertEquals(List.of(milk.id()), cleared.deletedIds());
+    }
+
+    @Test
+    void aVersionFromTheFutureReturnsTheWholeList() {
+        ShoppingItemDto item = shoppingListService.addItem(user, new AddItemRequest("sal", null, null, null));
+
+        ShoppingListChangesResponse changes = shoppingListService.getChangesSince(user, 99);
+        assertTrue(changes.reset());
+        assertEquals(1, changes.version());
+        assertEquals(List.of(item.id()), ids(changes.upserts()));
+    }
+
+    @Test
+    void regeneratingTheListResetsOlderVersionsAndDropsTombstones() {
+        long ingredient = data.ingredient();
+        long recipe = data.recipe(2);
+        data.recipeIngredient(recipe, ingredient, 200.0, "g");
+        LocalDate day = LocalDate.of(2025, 5, 5);
+        data.planEntry(data.dailyPlan(user.getId(), day), recipe, "Cena", null);
+
+        ShoppingItemDto manual = shoppingListService.addItem(user, new AddItemRequest("pan", 1.0, "unidad", null));
+        shoppingListService.deleteItem(user, manual.id());
+        long beforeRegenerating = shoppingListService.getChangesSince(user, 0).version();
+
+        shoppingListService.generateListFromPlan(user, new GenerateListRequest(day.toString(), day.toString()));
+
+        ShoppingListChangesResponse changes = shoppingListService.getChangesSince(user, beforeRegenerating);
+        assertTrue(changes.reset(), "Una versión anterior a la regeneración debe recibir la lista completa");
+        assertEquals(1, changes.upserts().size());
+        assertTrue(changes.deletedIds().isEmpty());
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM shopping_list_tombstones WHERE user_id = ?",
+                Integer.class, user.getId()));
+
+        ShoppingListChangesResponse after = shoppingListService.getChangesSince(user, changes.version());
+        assertFalse(after.reset());
+        assertTrue(after.upserts().isEmpty());
+    }
+
+    private static List<Long> ids(List<ShoppingItemDto> items) {
+        return items.stream().map(ShoppingItemDto::id).sorted().toList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,180 @@
+/*
+ * Archivo: ShoppingListServiceConcurrencyTest.java
+ * Propósito: Pruebas de la generación de listas de compras por tramos en paralelo. Genera a la vez más
+ * listas que conexiones tiene el pool (10): los tramos se consultan en paralelo en el ejecutor de la lista,
+ * nunca más de 'max-concurrent-queries' a la vez, y ninguna generación retiene una conexión mientras espera
+ * otra, así que ninguna agota la espera del pool. También comprueba que una comida añadida mientras se leen
+ * los tramos no se pierde: la generación lo detecta y vuelve a sumar el rango dentro de su transacción.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.TestData;
+import com.anymeal.backend.dto.ShoppingListDtos.GenerateListRequest;
+import com.anymeal.backend.model.User;
+import com.anymeal.backend.repository.RecipeIngredientRepository;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ShoppingListServiceConcurrencyTest {
+
+    private static final int USERS = 25;          // Más que el máximo del pool de conexiones.
+    private static final int DAYS = 56;            // 8 tramos de 7 días.
+    private static final String[] MEAL_TYPES = {"Desayuno", "Almuerzo", "Cena"};
+    private static final LocalDate START = LocalDate.of(2025, 3, 3);
+    private static final int MAX_CONCURRENT_QUERIES = 3;  // Un tercio del pool de 10 (valor por defecto).
+
+    @Autowired
+    private ShoppingListService shoppingListService;
+    @Autowired
+    private RecipeIngredientRepository recipeIngredientRepository;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private MethodInterceptor interceptor;
+
+    // Envuelve las consultas de tramos (sumIngredientsForPlan) del repositorio real durante la prueba.
+    private void interceptPartitionQueries(MethodInterceptor around) {
+        interceptor = invocation -> invocation.getMethod().getName().equals("sumIngredientsForPlan")
+                ? around.invoke(invocation) : invocation.proceed();
+        ((Advised) recipeIngredientRepository).addAdvice(0, interceptor);
+    }
+
+    @AfterEach
+    void removeInterceptor() {
+        if (interceptor != null) {
+            ((Advised) recipeIngredientRepository).removeAdvice(interceptor);
+        }
+    }
+
+    @Test
+    void generatesMoreListsAtOnceThanThePoolHasConnections() throws InterruptedException {
+        TestData data = new TestData(jdbc);
+        List<Long> ingredients = new ArrayList<>();
+        for (int i = 0; i < 20; i++) ingredients.add(data.ingredient());
+        List<Long> recipes = new ArrayList<>();
+        for (int r = 0; r < 10; r++) {
+            long recipe = data.recipe(2);
+            for (int k = 0; k < 5; k++) data.recipeIngredient(recipe, ingredients.get((r * 3 + k) % 20), 100.0, "g");
+            recipes.add(recipe);
+        }
+
+        // Todas las semanas tienen las mismas comidas: el total esperado es igual para cada usuario.
+        Map<Long, Double> expected = new HashMap<>();
+        List<User> users = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            User user = data.user();
+            users.add(user);
+            for (int day = 0; day < DAYS; day++) {
+                long plan = data.dailyPlan(user.getId(), START.plusDays(day));
+                for (int meal = 0; meal < MEAL_TYPES.length; meal++) {
+                    int r = (day * MEAL_TYPES.length + meal) % recipes.size();
+                    data.planEntry(plan, recipes.get(r), MEAL_TYPES[meal], null);
+                    if (u == 0) {
+                        for (int k = 0; k < 5; k++) expected.merge(ingredients.get((r * 3 + k) % 20), 100.0, Double::sum);
+                    }
+                }
+            }
+        }
+
+        // Cuenta cuántos tramos se consultan a la vez y en qué hilos.
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        interceptPartitionQueries(invocation -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            threads.add(Thread.currentThread().getName());
+            try {
+                return invocation.proceed();
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+
+        GenerateListRequest request = new GenerateListRequest(START.toString(), START.plusDays(DAYS - 1).toString());
+        CountDownLatch ready = new CountDownLatch(USERS);
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(USERS);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        for (User user : users) {
+            Thread.ofPlatform().start(() -> {
+                try {
+                    ready.countDown();
+                    go.await();
+                    shoppingListService.generateListFromPlan(user, request);
+                } catch (Throwable e) {
+                    failures.add(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        ready.await();
+        go.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS), "Las generaciones no terminaron");
+        assertTrue(failures.isEmpty(), () -> "Generaciones fallidas: " + failures);
+        assertTrue(peak.get() > 1 && peak.get() <= MAX_CONCURRENT_QUERIES, "Tramos a la vez: " + peak.get());
+        assertTrue(threads.stream().anyMatch(name -> name.startsWith("shopping-list-")), "Hilos: " + threads);
+
+        for (User user : users) {
+            Map<Long, Double> actual = new HashMap<>();
+            jdbc.query("SELECT ingredient_id, base_amount FROM shopping_list_items WHERE user_id = ?",
+                    row -> { actual.put(row.getLong(1), row.getDouble(2)); }, user.getId());
+            assertEquals(expected, actual, "Lista de " + user.getUsername());
+        }
+    }
+
+    @Test
+    void aMealAddedWhileThePartitionsAreReadIsNotLost() {
+        TestData data = new TestData(jdbc);
+        long ingredient = data.ingredient();
+        long recipe = data.recipe(2);
+        data.recipeIngredient(recipe, ingredient, 100.0, "g");
+        User user = data.user();
+        long firstWeek = data.dailyPlan(user.getId(), START);
+        data.planEntry(firstWeek, recipe, "Cena", null);
+        data.planEntry(data.dailyPlan(user.getId(), START.plusDays(7)), recipe, "Cena", null);
+
+        // Justo después de leer el primer tramo, otra petición añade (y confirma) una comida en ese tramo.
+        AtomicBoolean added = new AtomicBoolean();
+        interceptPartitionQueries(invocation -> {
+            Object totals = invocation.proceed();
+            if (START.equals(invocation.getArguments()[1]) && added.compareAndSet(false, true)) {
+                data.planEntry(firstWeek, recipe, "Almuerzo", null);
+            }
+            return totals;
+        });
+
+        shoppingListService.generateListFromPlan(user,
+                new GenerateListRequest(START.toString(), START.plusDays(13).toString()));
+
+        assertTrue(added.get());
+        assertEquals(300.0, jdbc.queryForObject("SELECT base_amount FROM shopping_list_items WHERE user_id = ?",
+                Double.class, user.getId()), 1e-9);
+    }
+}
\ No newline at end of file
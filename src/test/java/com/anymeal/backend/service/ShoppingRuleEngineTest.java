@@ -0,0 +1,112 @@
+/*
+ * Archivo: ShoppingRuleEngineTest.java
+ * Propósito: Pruebas del compilador de reglas de compra: reglas por grupo y por ingrediente, filtro por
+ * unidad, IDs de ingrediente grandes (ej: los de Spoonacular) y las reglas de siembra de shopping-rules.json.
+ */
+package com.anymeal.backend.service;
+
+import com.anymeal.backend.model.ShoppingRule;
+import com.anymeal.backend.repository.IngredientRepository;
+import com.anymeal.backend.repository.ShoppingRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShoppingRuleEngineTest {
+
+    private static final long EGGS = 1L;
+    private static final long QUAIL_EGGS = 9_876_543L;             // ID de 7 cifras
+    private static final long MILK = 3_000_000_000L;                // Mayor que Integer.MAX_VALUE
+    private static final long FLOUR = 20_000_000L;
+
+    private final ShoppingRuleRepository shoppingRuleRepository = mock(ShoppingRuleRepository.class);
+    private final IngredientRepository ingredientRepository = mock(IngredientRepository.class);
+    private ShoppingRuleEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new ShoppingRuleEngine(shoppingRuleRepository, ingredientRepository);
+        ReflectionTestUtils.setField(engine, "ttlMinutes", 10L);
+        ReflectionTestUtils.setField(engine, "seedFile", "shopping-rules.json");
+        when(ingredientRepository.findIdAndNameRows()).thenReturn(List.of(
+                new Object[]{EGGS, "Eggs"},
+                new Object[]{QUAIL_EGGS, "quail eggs"},
+                new Object[]{MILK, "whole milk"},
+                new Object[]{FLOUR, "flour"}));
+    }
+
+    @Test
+    void appliesKeywordRulesInTheirUnitOnly() {
+        when(shoppingRuleRepository.findAll()).thenReturn(List.of(eggRule(), milkRule()));
+
+        assertEquals("Comprar 1/2 docena", apply(EGGS, 5, "unidad").getFinalUnit());
+        assertEquals("Comprar 1 docena", apply(EGGS, 7, "unidad").getFinalUnit());
+        assertEquals("Comprar 3 docenas", apply(QUAIL_EGGS, 30, "unidad").getFinalUnit());
+        // Huevos en gramos: la regla de docenas no se aplica y se muestra la cantidad.
+        IngredientAggregator.AggregatedIngredient grams = apply(EGGS, 120, "g");
+        assertNull(grams.getFinalUnit());
+        assertEquals(120.0, grams.getAmount(), 1e-9);
+        assertEquals("Comprar 1 cartón de leche", apply(MILK, 2500, "ml").getFinalUnit());
+        assertNull(apply(FLOUR, 500, "g").getFinalUnit());
+    }
+
+    @Test
+    void ingredientRulesOverrideKeywordRulesAndAcceptLargeIds() {
+        ShoppingRule quail = ShoppingRule.builder().ingredientId(QUAIL_EGGS).unit("unidad").packageSize(18.0)
+                .roundingMode(ShoppingRule.RoundingMode.CEIL).oneTemplate("Comprar 1 bandeja")
+                .manyTemplate("Comprar {n} bandejas").build();
+        ShoppingRule flour = ShoppingRule.builder().ingredientId(FLOUR).unit("g").packageSize(1000.0)
+                .roundingMode(ShoppingRule.RoundingMode.CEIL).oneTemplate("Comprar 1 paquete de harina")
+                .manyTemplate("Comprar {n} paquetes de harina").build();
+        when(shoppingRuleRepository.findAll()).thenReturn(List.of(eggRule(), quail, flour));
+
+        assertEquals("Comprar 2 bandejas", apply(QUAIL_EGGS, 30, "unidad").getFinalUnit());
+        assertEquals("Comprar 3 docenas", apply(EGGS, 30, "unidad").getFinalUnit());
+        assertEquals("Comprar 3 paquetes de harina", apply(FLOUR, 2500, "g").getFinalUnit());
+        // Ingrediente desconocido al compilar (ej: creado después): sin regla.
+        assertNull(apply(Long.MAX_VALUE, 30, "unidad").getFinalUnit());
+    }
+
+    @Test
+    void seedRulesBuyEggsByTheUnit() {
+        when(shoppingRuleRepository.count()).thenReturn(0L);
+        engine.seedIfEmpty();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ShoppingRule>> seeded = ArgumentCaptor.forClass(List.class);
+        verify(shoppingRuleRepository).saveAll(seeded.capture());
+        ShoppingRule egg = seeded.getValue().stream().filter(rule -> "egg".equals(rule.getNameKeyword())).findFirst().orElseThrow();
+        assertEquals("unidad", egg.getUnit());
+
+        when(shoppingRuleRepository.findAll()).thenReturn(seeded.getValue());
+        assertEquals("Comprar 1 docena", apply(EGGS, 12, "unidad").getFinalUnit());
+        assertNull(apply(EGGS, 600, "g").getFinalUnit());
+    }
+
+    private IngredientAggregator.AggregatedIngredient apply(long ingredientId, double amount, String unit) {
+        IngredientAggregator.AggregatedIngredient ingredient =
+                new IngredientAggregator.AggregatedIngredient(ingredientId, "x", amount, unit);
+        engine.apply(ingredient);
+        return ingredient;
+    }
+
+    private static ShoppingRule eggRule() {
+        return ShoppingRule.builder().nameKeyword("egg").unit("unidad").packageSize(12.0)
+                .roundingMode(ShoppingRule.RoundingMode.CEIL_ALLOW_HALF).halfTemplate("Comprar 1/2 docena")
+                .oneTemplate("Comprar 1 docena").manyTemplate("Comprar {n} docenas").build();
+    }
+
+    private static ShoppingRule milkRule() {
+        return ShoppingRule.builder().nameKeyword("milk").packageSize(1000.0)
+                .roundingMode(ShoppingRule.RoundingMode.ONE).oneTemplate("Comprar 1 cartón de leche").build();
+    }
+}
\ No newline at end of file